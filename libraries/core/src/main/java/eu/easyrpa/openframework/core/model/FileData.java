@@ -1,12 +1,33 @@
 package eu.easyrpa.openframework.core.model;
 
+import eu.easyrpa.openframework.core.utils.SpoolingOutputStream;
+
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Keeps content of the file.
+ * <p>
+ * The content can be kept in memory or provided on demand by {@link ContentSource}. In the latter case the content
+ * is read only when it's requested and can be piped to other places using {@link #getInputStream()} or
+ * {@link #writeTo(OutputStream)} without loading of it into memory.
  */
-public class FileData {
+public class FileData implements Closeable {
+
+    /**
+     * Default max size in bytes of content that is kept in memory when it's spooled from a stream. Content of
+     * bigger size is spooled into temporary file.
+     */
+    public static final int DEFAULT_SPOOL_THRESHOLD = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 8192;
 
     /**
      * Name of the file.
@@ -23,6 +44,18 @@ public class FileData {
      */
     protected byte[] content;
 
+    /**
+     * The source of file content if it's not kept in memory.
+     */
+    protected ContentSource contentSource;
+
+    /**
+     * The length of content provided by content source or -1 if it's unknown yet.
+     */
+    protected long contentLength = -1;
+
+    private Path spoolFile;
+
     /**
      * Default constructor
      */
@@ -42,6 +75,21 @@ public class FileData {
         this.mimeType = mimeType;
     }
 
+    /**
+     * Constructs a mew FileData with content provided on demand.
+     *
+     * @param fileName      the name of file.
+     * @param contentSource the {@link ContentSource} that provides file content when it's requested.
+     * @param contentLength the length in bytes of file content or -1 if it's unknown.
+     * @param mimeType      the MIME type of file.
+     */
+    public FileData(String fileName, ContentSource contentSource, long contentLength, String mimeType) {
+        this.fileName = fileName;
+        this.contentSource = contentSource;
+        this.contentLength = contentLength;
+        this.mimeType = mimeType;
+    }
+
     /**
      * Gets name of the file.
      *
@@ -53,29 +101,64 @@ public class FileData {
 
     /**
      * Gets file content as stream.
+     * <p>
+     * If the content is not kept in memory each call opens a new stream from the content source. The caller
+     * is responsible for closing of it.
      *
-     * @return {@link ByteArrayInputStream} with file content.
+     * @return {@link InputStream} with file content.
      */
     public InputStream getInputStream() {
-        return new ByteArrayInputStream(this.content);
+        if (this.content != null || this.contentSource == null) {
+            return new ByteArrayInputStream(this.content);
+        }
+        try {
+            return this.contentSource.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
      * Gets file content.
+     * <p>
+     * If the content is not kept in memory it's read from the content source and kept in memory afterwards.
+     * Use {@link #getInputStream()} or {@link #writeTo(OutputStream)} to avoid this for big files.
      *
      * @return the byte array with file content.
      */
     public byte[] getContent() {
+        if (this.content == null && this.contentSource != null) {
+            try (InputStream in = this.contentSource.open()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                copy(in, out);
+                this.content = out.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         return this.content;
     }
 
     /**
      * Gets the length of file content.
+     * <p>
+     * If the content is not kept in memory and its length is unknown it's calculated by reading of the content
+     * source.
      *
      * @return length in bytes of file content.
      */
     public long getLength() {
-        return this.content.length;
+        if (this.content != null || this.contentSource == null) {
+            return this.content.length;
+        }
+        if (this.contentLength < 0) {
+            try (InputStream in = this.contentSource.open()) {
+                this.contentLength = copy(in, null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return this.contentLength;
     }
 
     /**
@@ -87,7 +170,115 @@ public class FileData {
         return this.mimeType;
     }
 
+    /**
+     * Writes file content into given stream without loading of it into memory.
+     *
+     * @param out the {@link OutputStream} to write file content. It's not closed by this method.
+     * @throws IOException in case of some errors during reading or writing of file content.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (this.content != null || this.contentSource == null) {
+            out.write(this.content);
+            return;
+        }
+        try (InputStream in = this.contentSource.open()) {
+            copy(in, out);
+        }
+    }
+
+    /**
+     * Saves file content into given file without loading of it into memory.
+     *
+     * @param path the {@link Path} to file where the content should be saved. Existing file is overwritten.
+     * @throws IOException in case of some errors during reading or writing of file content.
+     */
+    public void saveTo(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writeTo(out);
+        }
+    }
+
+    /**
+     * Deletes temporary file with spooled content if any. The content is not accessible after that.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.spoolFile != null) {
+            Files.deleteIfExists(this.spoolFile);
+            this.spoolFile = null;
+        }
+    }
+
     public String toString() {
-        return "FileData [name=" + this.fileName + ", content size=" + this.content.length + ", mimeType=" + this.mimeType + ']';
+        return "FileData [name=" + this.fileName + ", content size=" + getKnownLength() + ", mimeType=" + this.mimeType + ']';
+    }
+
+    /**
+     * Reads content from given stream. Content of size up to given threshold is kept in memory. Bigger content
+     * is spooled into temporary file that is deleted when {@link #close()} is called.
+     *
+     * @param source    the {@link InputStream} that provides file content. It's not closed by this method.
+     * @param threshold the max size in bytes of content that is kept in memory.
+     * @throws IOException in case of some errors during reading or spooling of content.
+     */
+    protected void spoolContent(InputStream source, int threshold) throws IOException {
+        SpoolingOutputStream spool = new SpoolingOutputStream(threshold);
+        try {
+            copy(source, spool);
+            spool.close();
+        } catch (IOException e) {
+            spool.close();
+            if (spool.getFile() != null) {
+                Files.deleteIfExists(spool.getFile());
+            }
+            throw e;
+        }
+        if (spool.isInMemory()) {
+            this.content = spool.toByteArray();
+            this.contentSource = null;
+        } else {
+            Path file = spool.getFile();
+            this.content = null;
+            this.contentSource = () -> Files.newInputStream(file);
+            this.contentLength = spool.getSize();
+            this.spoolFile = file;
+        }
+    }
+
+    /**
+     * Gets the length of file content if it's known without reading of content source.
+     *
+     * @return length in bytes of file content or -1 if it's unknown.
+     */
+    protected long getKnownLength() {
+        return this.content != null ? this.content.length : this.contentLength;
+    }
+
+    private static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out != null) {
+                out.write(buffer, 0, read);
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    /**
+     * Provides file content on demand.
+     */
+    @FunctionalInterface
+    public interface ContentSource {
+
+        /**
+         * Opens a new stream with file content.
+         *
+         * @return {@link InputStream} with file content. The caller is responsible for closing of it.
+         * @throws IOException in case of some errors during opening of the stream.
+         */
+        InputStream open() throws IOException;
     }
 }
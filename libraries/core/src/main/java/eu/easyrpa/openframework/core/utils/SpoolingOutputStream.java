@@ -0,0 +1,113 @@
+package eu.easyrpa.openframework.core.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Output stream that keeps written data in memory until its size exceeds given threshold. After that all data
+ * is moved into temporary file and the rest is written directly into this file.
+ * <p>
+ * The temporary file is not deleted automatically when the stream is closed since it's supposed that
+ * written data is read afterwards. The caller is responsible for deleting of it when the data is not needed
+ * anymore.
+ */
+public class SpoolingOutputStream extends OutputStream {
+
+    private final int threshold;
+
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+    private Path file;
+
+    private OutputStream fileStream;
+
+    private long size;
+
+    /**
+     * Constructs a new SpoolingOutputStream.
+     *
+     * @param threshold the max size in bytes of data that is kept in memory.
+     */
+    public SpoolingOutputStream(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative.");
+        }
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        getTargetStream(1).write(b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        getTargetStream(len).write(b, off, len);
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileStream != null) {
+            fileStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileStream != null) {
+            fileStream.close();
+        }
+    }
+
+    /**
+     * Checks whether all written data is kept in memory.
+     *
+     * @return <code>true</code> if size of written data doesn't exceed the threshold.
+     */
+    public boolean isInMemory() {
+        return file == null;
+    }
+
+    /**
+     * Gets written data kept in memory.
+     *
+     * @return the byte array with written data or <code>null</code> if it has been moved into temporary file.
+     */
+    public byte[] toByteArray() {
+        return memory != null ? memory.toByteArray() : null;
+    }
+
+    /**
+     * Gets temporary file with written data.
+     *
+     * @return the {@link Path} to temporary file or <code>null</code> if written data is kept in memory.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets size of written data.
+     *
+     * @return size in bytes of written data.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    private OutputStream getTargetStream(int length) throws IOException {
+        if (fileStream == null && size + length > threshold) {
+            file = Files.createTempFile("easyrpa-", ".spool");
+            fileStream = new BufferedOutputStream(Files.newOutputStream(file));
+            memory.writeTo(fileStream);
+            memory = null;
+        }
+        return fileStream != null ? fileStream : memory;
+    }
+}
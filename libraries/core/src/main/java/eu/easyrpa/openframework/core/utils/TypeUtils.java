@@ -271,7 +271,15 @@ public class TypeUtils {
         }
     }
 
-    private static Object castIfPossible(Class<?> type, Object obj) {
+    /**
+     * Converts given object into value of given type if it's possible. Strings are parsed into numbers and booleans,
+     * numbers are converted into necessary number type and any object is converted into string if string is expected.
+     *
+     * @param type the expected type of the value.
+     * @param obj  the object to convert.
+     * @return converted object or given object itself if conversion is not possible.
+     */
+    public static Object castIfPossible(Class<?> type, Object obj) {
         if (!String.class.isAssignableFrom(type) && obj instanceof String) {
             if (((String) obj).trim().isEmpty()) {
                 return null;
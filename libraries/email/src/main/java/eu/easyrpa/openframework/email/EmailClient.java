@@ -4,17 +4,28 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.easyrpa.openframework.core.sevices.RPAServicesAccessor;
 import eu.easyrpa.openframework.email.constants.EmailConfigParam;
+import eu.easyrpa.openframework.email.exception.BreakEmailFetchException;
 import eu.easyrpa.openframework.email.exception.EmailMessagingException;
 import eu.easyrpa.openframework.email.search.SearchQuery;
 import eu.easyrpa.openframework.email.service.EmailServiceFactory;
 import eu.easyrpa.openframework.email.service.EmailServiceSecret;
 import eu.easyrpa.openframework.email.service.InboundEmailProtocol;
 import eu.easyrpa.openframework.email.service.InboundEmailService;
+import eu.easyrpa.openframework.email.sync.CheckpointStore;
+import eu.easyrpa.openframework.email.sync.FileCheckpointStore;
+import eu.easyrpa.openframework.email.sync.FolderCheckpoint;
+import eu.easyrpa.openframework.email.sync.InMemoryCheckpointStore;
+import eu.easyrpa.openframework.email.sync.SyncResult;
 
 import javax.inject.Inject;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * This is an email client service that provides functionality for working with mailbox folders and email
@@ -77,6 +88,11 @@ public class EmailClient {
      */
     private String defaultFolder;
 
+    /**
+     * Storage of checkpoints of mailbox folders used for incremental synchronization of them.
+     */
+    private CheckpointStore checkpointStore;
+
     /**
      * Default constructor of this EmailClient.
      * <p>
@@ -345,6 +361,47 @@ public class EmailClient {
         return this;
     }
 
+    /**
+     * Gets storage of checkpoints of mailbox folders used for incremental synchronization of them.
+     * <p>
+     * If the storage is not specified explicitly then the path to JSON file with checkpoints will be looked up in
+     * configurations parameters of the RPA platform under the key <b><code>"mailbox.checkpoint.file"</code></b>.
+     * <p>
+     * If it's not specified in configurations parameters either then checkpoints are kept in memory of this email
+     * client.
+     *
+     * @return storage of checkpoints of mailbox folders.
+     */
+    public CheckpointStore getCheckpointStore() {
+        if (checkpointStore == null) {
+            String checkpointFile = getConfigParam(EmailConfigParam.MAILBOX_CHECKPOINT_FILE);
+            checkpointStore = checkpointFile != null
+                    ? new FileCheckpointStore(Paths.get(checkpointFile))
+                    : new InMemoryCheckpointStore();
+        }
+        return checkpointStore;
+    }
+
+    /**
+     * Sets explicitly storage of checkpoints of mailbox folders used for incremental synchronization of them.
+     *
+     * @param checkpointStore the storage of checkpoints to set.
+     */
+    public void setCheckpointStore(CheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+    }
+
+    /**
+     * Sets explicitly storage of checkpoints of mailbox folders used for incremental synchronization of them.
+     *
+     * @param checkpointStore the storage of checkpoints to set.
+     * @return this object to allow joining of methods calls into chain.
+     */
+    public EmailClient checkpointStore(CheckpointStore checkpointStore) {
+        setCheckpointStore(checkpointStore);
+        return this;
+    }
+
     /**
      * Gets amount of email messages in the default mailbox folder.
      * <p>
@@ -449,6 +506,26 @@ public class EmailClient {
         return this.service.fetchMessages(folderName, searchQuery);
     }
 
+    /**
+     * Describes how given search query is evaluated by the mailbox server. It helps to find out which conditions
+     * of the query are evaluated by the server and which of them require retrieving of messages to check them
+     * on the client side.
+     * <p>
+     * Here is an example of output for IMAP server:
+     * <pre>
+     * Server: (FROM "billing" SINCE 9-Oct-2026)
+     * Client: RECEIVED &gt;= 2026-10-10T10:00:00.000+0000
+     * </pre>
+     *
+     * @param searchQuery the {@link SearchQuery} object representing specific condition.
+     * @return human readable description of the query evaluation.
+     * @throws EmailMessagingException in case of some errors.
+     */
+    public String explainSearch(SearchQuery searchQuery) {
+        initService();
+        return this.service.explainSearch(searchQuery);
+    }
+
     /**
      * Gets all email messages contained in all mailbox folders.
      *
@@ -472,6 +549,128 @@ public class EmailClient {
         return this.service.fetchMessages(null, searchQuery);
     }
 
+    /**
+     * Gets lazily populated stream of email messages contained in the mailbox folder with given name and satisfy
+     * to specific condition.
+     * <p>
+     * Messages are retrieved from the mailbox page by page while the stream is processed. It allows to process
+     * large mailbox folders without keeping of all their messages in memory and to stop further retrieving of
+     * messages as soon as necessary messages are found, e.g. using <code>findFirst()</code> or
+     * <code>limit()</code>.
+     *
+     * @param folderName  the name of mailbox folder where is necessary to collect email messages. If the value is
+     *                    <code>null</code> it collects messages throwout whole mailbox.
+     * @param searchQuery the {@link SearchQuery} object representing specific condition. If the value is
+     *                    <code>null</code> all messages contained in the folder or mailbox are returned.
+     * @return stream of {@link EmailMessage} objects representing satisfying email messages.
+     * @throws EmailMessagingException in case of some errors.
+     */
+    public Stream<EmailMessage> streamMessages(String folderName, SearchQuery searchQuery) {
+        initService();
+        return this.service.streamMessages(folderName, searchQuery);
+    }
+
+    /**
+     * Gets email messages contained in the default mailbox folder and satisfy to specific condition.
+     * <p>
+     * The name of default mailbox folder is taken using {@link #getDefaultFolder()}.
+     * <p>
+     * Messages are checked one by one while they are retrieved from the mailbox. The checking can be interrupted
+     * by throwing of {@link BreakEmailFetchException} within <code>isSatisfy</code>.
+     *
+     * @param isSatisfy lambda expression that checks whether the email message should be included into results.
+     * @return list of {@link EmailMessage} objects representing satisfying email messages.
+     * @throws EmailMessagingException in case of some errors.
+     */
+    public List<EmailMessage> fetchMessages(Predicate<EmailMessage> isSatisfy) {
+        return fetchMessages(getDefaultFolder(), isSatisfy);
+    }
+
+    /**
+     * Gets email messages contained in the mailbox folder with given name and satisfy to specific condition.
+     * <p>
+     * Messages are checked one by one while they are retrieved from the mailbox. The checking can be interrupted
+     * by throwing of {@link BreakEmailFetchException} within <code>isSatisfy</code>.
+     *
+     * @param folderName the name of mailbox folder where is necessary to collect email messages.
+     * @param isSatisfy  lambda expression that checks whether the email message should be included into results.
+     * @return list of {@link EmailMessage} objects representing satisfying email messages.
+     * @throws EmailMessagingException in case of some errors.
+     */
+    public List<EmailMessage> fetchMessages(String folderName, Predicate<EmailMessage> isSatisfy) {
+        return filterMessages(streamMessages(folderName, null), isSatisfy);
+    }
+
+    /**
+     * Gets email messages contained in all mailbox folders and satisfy to specific condition.
+     * <p>
+     * Messages are checked one by one while they are retrieved from the mailbox. The checking can be interrupted
+     * by throwing of {@link BreakEmailFetchException} within <code>isSatisfy</code>.
+     *
+     * @param isSatisfy lambda expression that checks whether the email message should be included into results.
+     * @return list of {@link EmailMessage} objects representing satisfying email messages.
+     * @throws EmailMessagingException in case of some errors.
+     */
+    public List<EmailMessage> fetchAllMessages(Predicate<EmailMessage> isSatisfy) {
+        return filterMessages(streamMessages(null, null), isSatisfy);
+    }
+
+    /**
+     * Gets email messages that have come to the default mailbox folder or whose flags have been changed since
+     * the previous call of this method.
+     * <p>
+     * The name of default mailbox folder is taken using {@link #getDefaultFolder()}.
+     *
+     * @return {@link SyncResult} object with new and changed messages.
+     * @throws EmailMessagingException in case of some errors.
+     * @see #syncMessages(String)
+     */
+    public SyncResult syncMessages() {
+        return syncMessages(getDefaultFolder());
+    }
+
+    /**
+     * Gets email messages that have come to the mailbox folder with given name or whose flags have been changed
+     * since the previous call of this method for this folder.
+     * <p>
+     * The state of the folder (UIDVALIDITY, the highest seen UID and modification sequence) is loaded from
+     * and saved to {@link #getCheckpointStore()} under the identifier of the mailbox that consists of the user,
+     * host and port of the server, e.g. <code>user@host:port</code>. So only the difference is retrieved from the mailbox instead
+     * of scanning of whole folder. When the folder is synchronized first time all its messages are returned
+     * as new. Changed messages are detected only if the server supports CONDSTORE extension.
+     * <p>
+     * The new checkpoint is saved as soon as messages are retrieved. To save it only after successful
+     * processing of messages use {@link #syncMessages(String, FolderCheckpoint)} instead.
+     *
+     * @param folderName the name of mailbox folder to synchronize.
+     * @return {@link SyncResult} object with new and changed messages.
+     * @throws EmailMessagingException       in case of some errors.
+     * @throws UnsupportedOperationException if the protocol doesn't support incremental synchronization.
+     */
+    public SyncResult syncMessages(String folderName) {
+        CheckpointStore store = getCheckpointStore();
+        String mailbox = getMailboxId();
+        SyncResult result = syncMessages(folderName, store.load(mailbox, folderName));
+        store.save(mailbox, result.getCheckpoint());
+        return result;
+    }
+
+    /**
+     * Gets email messages that have come to the mailbox folder with given name or whose flags have been changed
+     * since the given checkpoint.
+     *
+     * @param folderName the name of mailbox folder to synchronize.
+     * @param checkpoint the checkpoint of the previous synchronization of the folder. If the value is
+     *                   <code>null</code> all messages of the folder are returned as new.
+     * @return {@link SyncResult} object with new and changed messages and a new checkpoint of the folder.
+     * @throws EmailMessagingException       in case of some errors.
+     * @throws UnsupportedOperationException if the protocol doesn't support incremental synchronization.
+     */
+    public SyncResult syncMessages(String folderName, FolderCheckpoint checkpoint) {
+        initService();
+        return this.service.syncMessages(folderName, checkpoint);
+    }
+
     /**
      * Waits appearing of email messages in the default mailbox folder that satisfy to specific condition.
      * <p>
@@ -718,6 +917,20 @@ public class EmailClient {
         return this.service.copyMessage(message, targetFolder);
     }
 
+    /**
+     * Makes copies of given email messages in the specified folder.
+     * <p>
+     * Messages are grouped by their folders and copied by one request for each folder.
+     *
+     * @param messages     the list of source email messages that should be copied.
+     * @param targetFolder the name of mailbox folder where email messages should be copied.
+     * @throws EmailMessagingException in case of some errors.
+     */
+    public void copyMessages(List<EmailMessage> messages, String targetFolder) {
+        initService();
+        this.service.copyMessages(messages, targetFolder);
+    }
+
     /**
      * Moves given email message to the specified folder.
      * <p>
@@ -734,6 +947,21 @@ public class EmailClient {
         return this.service.moveMessage(message, targetFolder);
     }
 
+    /**
+     * Moves given email messages to the specified folder.
+     * <p>
+     * Messages are grouped by their folders and moved by one request for each folder if the server supports
+     * MOVE extension. Otherwise they are copied to the specified folder and source messages are removed.
+     *
+     * @param messages     the list of source email messages that should be moved.
+     * @param targetFolder the name of mailbox folder where email messages should be moved.
+     * @throws EmailMessagingException in case of some errors.
+     */
+    public void moveMessages(List<EmailMessage> messages, String targetFolder) {
+        initService();
+        this.service.moveMessages(messages, targetFolder);
+    }
+
     /**
      * Updates parameters of given email message in the mailbox.
      * <p>
@@ -857,13 +1085,53 @@ public class EmailClient {
         return result;
     }
 
+    private List<EmailMessage> filterMessages(Stream<EmailMessage> messages, Predicate<EmailMessage> isSatisfy) {
+        List<EmailMessage> result = new ArrayList<>();
+        Iterator<EmailMessage> it = messages.iterator();
+        while (it.hasNext()) {
+            EmailMessage message = it.next();
+            try {
+                if (isSatisfy.test(message)) {
+                    result.add(message);
+                }
+            } catch (BreakEmailFetchException e) {
+                if (e.isIncludeIntoResult()) {
+                    result.add(message);
+                }
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets identifier of the mailbox in format <code>user@host:port</code> that is used to distinguish checkpoints
+     * of folders with the same name in different mailboxes.
+     */
+    private String getMailboxId() {
+        String user = null;
+        try {
+            String secret = getSecret();
+            if (secret != null) {
+                user = new ObjectMapper().readValue(secret, EmailServiceSecret.class).getUser();
+            }
+        } catch (JsonProcessingException e) {
+            throw new EmailMessagingException(e);
+        }
+        String server = getServer();
+        if (server != null && !server.contains(":")) {
+            server = server + ":" + getProtocol().getDefaultPort();
+        }
+        return String.format("%s@%s", user, server);
+    }
+
     /**
      * Creates instance of inbound email service depended on protocol is going to be used by this email client
      * and supported by target inbound email server.
      * <p>
      * {@link EmailServiceFactory} is responsible for creation of specific inbound email service.
      */
-    private void initService() {
+    private synchronized void initService() {
         if (this.service == null) {
             this.service = EmailServiceFactory.getInstance().getInboundService(
                     rpaServices, getServer(), getProtocol(), getSecret()
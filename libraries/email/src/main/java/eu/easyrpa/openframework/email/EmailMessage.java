@@ -83,7 +83,7 @@ import java.util.stream.Collectors;
  * assert "Test email".equals(restoredMsg.getSubject()); //is true.
  * </pre>
  */
-public class EmailMessage {
+public class EmailMessage implements AutoCloseable {
 
     /**
      * Date time format used for serialization/deserialization of {@link #date} field.
@@ -1633,6 +1633,25 @@ public class EmailMessage {
         }
     }
 
+    /**
+     * Releases resources kept by this email message, e.g. deletes temporary files with spooled content
+     * of attachments. Content of attachments is not accessible after that.
+     *
+     * @throws EmailMessagingException if some of resources cannot be released.
+     */
+    @Override
+    public void close() {
+        if (attachments != null) {
+            for (EmailAttachment attachment : attachments) {
+                try {
+                    attachment.close();
+                } catch (IOException e) {
+                    throw new EmailMessagingException(e);
+                }
+            }
+        }
+    }
+
     /**
      * Returns a string representation of this email message.
      *
@@ -9,8 +9,11 @@ import eu.easyrpa.openframework.email.service.EmailServiceFactory;
 import eu.easyrpa.openframework.email.service.EmailServiceSecret;
 import eu.easyrpa.openframework.email.service.OutboundEmailProtocol;
 import eu.easyrpa.openframework.email.service.OutboundEmailService;
+import eu.easyrpa.openframework.email.service.SendResult;
 
 import javax.inject.Inject;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * This is an email service that provides functionality for sending of messages.
@@ -303,6 +306,26 @@ public class EmailSender {
         message.send(this);
     }
 
+    /**
+     * Sends given email messages.
+     * <p>
+     * Depending on the outbound email service messages can be sent in parallel through a pool of reusable
+     * connections with retrying of temporary failures. Failure of one message doesn't stop sending of the rest
+     * messages.
+     *
+     * @param messages the email messages to send.
+     * @return list of results of sending for each message in the same order as given messages.
+     * @throws EmailMessagingException in case of some errors that prevent sending of all messages.
+     */
+    public List<SendResult> send(Collection<? extends EmailMessage> messages) {
+        initService();
+        // Messages are prepared one by one right before sending to not keep rendered bodies of all them in memory
+        return this.service.send(messages, message -> {
+            message.emailSender = this;
+            message.beforeSend(rpaServices);
+        });
+    }
+
     /**
      * Actually sends given email message.
      *
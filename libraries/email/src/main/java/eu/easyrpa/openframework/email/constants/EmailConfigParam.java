@@ -20,6 +20,8 @@ public class EmailConfigParam {
 
     public static final String MAILBOX_DEFAULT_FOLDER = "mailbox.default.folder";
 
+    public static final String MAILBOX_CHECKPOINT_FILE = "mailbox.checkpoint.file";
+
     public static final String SENDER_NAME_TPL = "%s.sender.name";
 
     public static final String FROM_TPL = "%s.from";
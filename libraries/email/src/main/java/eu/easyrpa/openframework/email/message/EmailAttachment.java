@@ -4,10 +4,8 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.easyrpa.openframework.core.model.FileData;
-import org.apache.commons.io.IOUtils;
 
 import javax.mail.internet.MimeUtility;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -61,6 +59,9 @@ public class EmailAttachment extends FileData {
 
     /**
      * Constructs a mew EmailAttachment with provided file data.
+     * <p>
+     * The content is read from the stream immediately. If its size exceeds {@link #DEFAULT_SPOOL_THRESHOLD} it's
+     * spooled into temporary file instead of keeping in memory.
      *
      * @param fileName      the name of file.
      * @param contentSource the {@link InputStream} that provides file content.
@@ -69,15 +70,36 @@ public class EmailAttachment extends FileData {
     public EmailAttachment(String fileName, InputStream contentSource, String mimeType) {
         try {
             this.fileName = MimeUtility.decodeText(fileName);
-            this.content = IOUtils.toByteArray(contentSource);
+            spoolContent(contentSource, DEFAULT_SPOOL_THRESHOLD);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
         this.mimeType = mimeType;
     }
 
+    /**
+     * Constructs a mew EmailAttachment with file content provided on demand.
+     *
+     * @param fileName      the name of file.
+     * @param contentSource the {@link ContentSource} that provides file content when it's requested.
+     * @param contentLength the length in bytes of file content or -1 if it's unknown.
+     * @param mimeType      the MIME type of file.
+     */
+    public EmailAttachment(String fileName, ContentSource contentSource, long contentLength, String mimeType) {
+        try {
+            this.fileName = MimeUtility.decodeText(fileName);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.contentSource = contentSource;
+        this.contentLength = contentLength;
+        this.mimeType = mimeType;
+    }
+
     /**
      * Constructs a mew EmailAttachment with given file.
+     * <p>
+     * The content of file is not loaded into memory. It's read from the file when it's requested.
      *
      * @param path the {@link Path} to file.
      * @throws IOException in case of some errors during reading of file.
@@ -86,7 +108,8 @@ public class EmailAttachment extends FileData {
         Path file = path.getFileName();
         String fileName = file != null ? file.toString() : "";
         this.fileName = fileName;
-        this.content = Files.readAllBytes(path);
+        this.contentSource = () -> Files.newInputStream(path);
+        this.contentLength = Files.size(path);
         try {
             this.mimeType = Files.probeContentType(Paths.get(fileName.toLowerCase()));
             if (this.mimeType == null) {
@@ -116,7 +139,7 @@ public class EmailAttachment extends FileData {
     /**
      * Gets the file content of this attachment as stream.
      *
-     * @return {@link ByteArrayInputStream} with file content of this attachment.
+     * @return {@link InputStream} with file content of this attachment.
      */
     @JsonIgnore
     public InputStream getInputStream() {
@@ -125,6 +148,6 @@ public class EmailAttachment extends FileData {
 
 
     public String toString() {
-        return "EmailAttachment [name=" + this.fileName + ", content size=" + this.content.length + ", mimeType=" + this.mimeType + ']';
+        return "EmailAttachment [name=" + this.fileName + ", content size=" + getKnownLength() + ", mimeType=" + this.mimeType + ']';
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package eu.easyrpa.openframework.email.search;
+
+import eu.easyrpa.openframework.email.EmailMessage;
+
+import java.util.function.Predicate;
+
+public class ComplexCondition implements SearchCondition {
+
+    private final Predicate<EmailMessage> predicate;
+
+    ComplexCondition(Predicate<EmailMessage> predicate) {
+        this.predicate = predicate;
+    }
+
+    public Predicate<EmailMessage> getPredicate() {
+        return predicate;
+    }
+}
@@ -55,13 +55,12 @@ public class SearchQuery {
     }
 
     private SearchCondition condition;
-    private Predicate<EmailMessage> complexCondition;
 
     SearchQuery() {
     }
 
     SearchQuery(Predicate<EmailMessage> complexCondition) {
-        this.complexCondition = complexCondition;
+        this.condition = new ComplexCondition(complexCondition);
     }
 
     public LogicalCondition and() {
@@ -87,7 +86,7 @@ public class SearchQuery {
     }
 
     public Predicate<EmailMessage> getComplexCondition() {
-        return complexCondition;
+        return condition instanceof ComplexCondition ? ((ComplexCondition) condition).getPredicate() : null;
     }
 
     void setCondition(SearchCondition condition) {
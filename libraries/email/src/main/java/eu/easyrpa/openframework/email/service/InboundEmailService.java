@@ -2,10 +2,13 @@ package eu.easyrpa.openframework.email.service;
 
 import eu.easyrpa.openframework.email.EmailMessage;
 import eu.easyrpa.openframework.email.search.SearchQuery;
+import eu.easyrpa.openframework.email.sync.FolderCheckpoint;
+import eu.easyrpa.openframework.email.sync.SyncResult;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Single interface for all inbound email services that provides functionality for working with mailbox based
@@ -52,6 +55,50 @@ public interface InboundEmailService {
      */
     List<EmailMessage> fetchMessages(String folderName, SearchQuery searchQuery);
 
+    /**
+     * Gets lazily populated stream of email messages contained in the mailbox folder with given name that satisfy
+     * to specific condition.
+     * <p>
+     * By default it returns the stream of messages collected using {@link #fetchMessages(String, SearchQuery)}.
+     * Implementations that are able to retrieve messages page by page should override it.
+     *
+     * @param folderName  the name of mailbox folder where is necessary to collect email messages. If the
+     *                    value is <code>null</code> it searches messages throwout whole mailbox.
+     * @param searchQuery the {@link SearchQuery} object representing specific condition. If the value is
+     *                    <code>null</code> all messages contained in the folder or mailbox are returned.
+     * @return stream of {@link EmailMessage} objects representing satisfying email messages.
+     */
+    default Stream<EmailMessage> streamMessages(String folderName, SearchQuery searchQuery) {
+        return fetchMessages(folderName, searchQuery).stream();
+    }
+
+    /**
+     * Describes how given search query is evaluated: which its conditions are checked by the server and which
+     * of them are checked on the client side for each message selected by the server.
+     *
+     * @param searchQuery the {@link SearchQuery} object representing specific condition.
+     * @return human readable description of the query evaluation.
+     */
+    default String explainSearch(SearchQuery searchQuery) {
+        return String.format("Search query is evaluated by %s.", getClass().getSimpleName());
+    }
+
+    /**
+     * Gets email messages that have come to the mailbox folder with given name or whose flags have been changed
+     * since the given checkpoint.
+     * <p>
+     * By default incremental synchronization is not supported.
+     *
+     * @param folderName the name of mailbox folder to synchronize.
+     * @param checkpoint the checkpoint of the previous synchronization of the folder. If the value is
+     *                   <code>null</code> all messages of the folder are returned as new.
+     * @return {@link SyncResult} object with new and changed messages and a new checkpoint of the folder.
+     * @throws UnsupportedOperationException if incremental synchronization is not supported.
+     */
+    default SyncResult syncMessages(String folderName, FolderCheckpoint checkpoint) {
+        throw new UnsupportedOperationException("Incremental synchronization is not supported by this email service.");
+    }
+
     /**
      * Waits appearing of email messages in the mailbox folder with given name that satisfy to specific condition.
      *
@@ -84,6 +131,18 @@ public interface InboundEmailService {
      */
     EmailMessage copyMessage(EmailMessage message, String targetFolder);
 
+    /**
+     * Makes copies of given email messages in the specified folder.
+     * <p>
+     * By default messages are copied one by one using {@link #copyMessage(EmailMessage, String)}.
+     *
+     * @param messages     the list of source email messages that should be copied.
+     * @param targetFolder the name of mailbox folder where email messages should be copied.
+     */
+    default void copyMessages(List<EmailMessage> messages, String targetFolder) {
+        messages.forEach(message -> copyMessage(message, targetFolder));
+    }
+
     /**
      * Moves given email message to the specified folder.
      *
@@ -93,6 +152,18 @@ public interface InboundEmailService {
      */
     EmailMessage moveMessage(EmailMessage message, String targetFolder);
 
+    /**
+     * Moves given email messages to the specified folder.
+     * <p>
+     * By default messages are moved one by one using {@link #moveMessage(EmailMessage, String)}.
+     *
+     * @param messages     the list of source email messages that should be moved.
+     * @param targetFolder the name of mailbox folder where email messages should be moved.
+     */
+    default void moveMessages(List<EmailMessage> messages, String targetFolder) {
+        messages.forEach(message -> moveMessage(message, targetFolder));
+    }
+
     /**
      * Updates parameters of given email message in the mailbox.
      *
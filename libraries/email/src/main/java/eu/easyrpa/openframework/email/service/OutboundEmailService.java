@@ -1,6 +1,12 @@
 package eu.easyrpa.openframework.email.service;
 
 import eu.easyrpa.openframework.email.EmailMessage;
+import eu.easyrpa.openframework.email.exception.EmailMessagingException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Single interface for all outbound email services that provides functionality for sending of email messages based
@@ -14,4 +20,57 @@ public interface OutboundEmailService {
      * @param message the email message to send.
      */
     void send(EmailMessage message);
-}
\ No newline at end of file
+
+    /**
+     * Sends given email messages. Failure of one message doesn't stop sending of the rest messages.
+     *
+     * @param messages the email messages to send.
+     * @return list of results of sending for each message in the same order as given messages.
+     */
+    default List<SendResult> send(Collection<? extends EmailMessage> messages) {
+        return send(messages, null);
+    }
+
+    /**
+     * Sends given email messages. Each message is prepared by given preparation right before its sending,
+     * so only few prepared messages exist at a time. Failure of preparation or sending of one message doesn't
+     * stop sending of the rest messages.
+     *
+     * @param messages    the email messages to send.
+     * @param preparation the preparation of each message before sending or <code>null</code> if messages
+     *                    are ready for sending.
+     * @return list of results of sending for each message in the same order as given messages.
+     */
+    default List<SendResult> send(Collection<? extends EmailMessage> messages, Consumer<EmailMessage> preparation) {
+        List<SendResult> results = new ArrayList<>(messages.size());
+        for (EmailMessage message : messages) {
+            try {
+                if (preparation != null) {
+                    preparation.accept(message);
+                }
+            } catch (RuntimeException e) {
+                results.add(new SendResult(message, 0, toEmailMessagingException(e)));
+                continue;
+            }
+            try {
+                send(message);
+                results.add(new SendResult(message, 1, null));
+            } catch (RuntimeException e) {
+                results.add(new SendResult(message, 1, toEmailMessagingException(e)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Converts given error into {@link EmailMessagingException} to put it into {@link SendResult}.
+     *
+     * @param error the error of preparation or sending of a message.
+     * @return given error itself if it's {@link EmailMessagingException} or a new one caused by it.
+     */
+    static EmailMessagingException toEmailMessagingException(RuntimeException error) {
+        return error instanceof EmailMessagingException
+                ? (EmailMessagingException) error
+                : new EmailMessagingException(error);
+    }
+}
@@ -0,0 +1,75 @@
+package eu.easyrpa.openframework.email.service;
+
+import eu.easyrpa.openframework.email.EmailMessage;
+import eu.easyrpa.openframework.email.exception.EmailMessagingException;
+
+/**
+ * Result of sending of one email message within bulk sending.
+ */
+public class SendResult {
+
+    private final EmailMessage message;
+
+    private final int attempts;
+
+    private final EmailMessagingException error;
+
+    /**
+     * Constructs a new SendResult.
+     *
+     * @param message  the email message that has been sent.
+     * @param attempts the amount of attempts to send the message.
+     * @param error    the error of the last attempt or <code>null</code> if the message has been sent successfully.
+     */
+    public SendResult(EmailMessage message, int attempts, EmailMessagingException error) {
+        this.message = message;
+        this.attempts = attempts;
+        this.error = error;
+    }
+
+    /**
+     * Gets the email message this result relates to.
+     *
+     * @return the email message.
+     */
+    public EmailMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets amount of attempts to send the message. It's greater than one if sending has been retried because
+     * of temporary failures and 0 if the message has been rejected before sending, e.g. when it has no recipients.
+     *
+     * @return amount of attempts.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Checks whether the message has been accepted by the server.
+     *
+     * @return <code>true</code> if the message has been sent successfully.
+     */
+    public boolean isSent() {
+        return error == null;
+    }
+
+    /**
+     * Gets the error because of which the message has not been sent.
+     *
+     * @return the error of the last attempt or <code>null</code> if the message has been sent successfully.
+     */
+    public EmailMessagingException getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "SendResult{" +
+                "sent=" + isSent() +
+                ", attempts=" + attempts +
+                (error != null ? ", error=" + error.getMessage() : "") +
+                '}';
+    }
+}
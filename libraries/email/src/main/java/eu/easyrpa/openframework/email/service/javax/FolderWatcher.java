@@ -0,0 +1,227 @@
+package eu.easyrpa.openframework.email.service.javax;
+
+import com.sun.mail.imap.IMAPFolder;
+import eu.easyrpa.openframework.email.exception.EmailMessagingException;
+
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Store;
+import javax.mail.UIDFolder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches for new messages in the IMAP folder using IDLE command and notifies listeners with UIDs of them.
+ * <p>
+ * The watcher uses own connection to the server since the connection is blocked while IDLE command is in progress.
+ * The connection is closed when the last listener is removed. If the connection is broken it's reopened and
+ * messages that have come in the meantime are notified too.
+ */
+class FolderWatcher {
+
+    /**
+     * Servers may terminate IDLE command after 30 minutes of inactivity so it's renewed more often.
+     */
+    private static final long IDLE_RENEWAL_INTERVAL = TimeUnit.MINUTES.toMillis(25);
+
+    private static final long RECONNECT_DELAY = TimeUnit.SECONDS.toMillis(10);
+
+    private static final ScheduledExecutorService RENEWAL_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "email-folder-watcher-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final StorePool storePool;
+
+    private final String folderName;
+
+    private final List<Consumer<long[]>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile IMAPFolder folder;
+
+    private long uidValidity = -1;
+
+    private long lastUid;
+
+    private Thread thread;
+
+    private ScheduledFuture<?> renewalTask;
+
+    private volatile boolean stopped;
+
+    FolderWatcher(StorePool storePool, String folderName) {
+        this.storePool = storePool;
+        this.folderName = folderName;
+    }
+
+    /**
+     * Adds listener of new messages.
+     *
+     * @return <code>false</code> if this watcher has been stopped already and cannot be used anymore.
+     */
+    synchronized boolean addListener(Consumer<long[]> listener) {
+        if (stopped) {
+            return false;
+        }
+        listeners.add(listener);
+        return true;
+    }
+
+    /**
+     * Removes listener of new messages. The watcher is stopped when the last listener is removed.
+     */
+    void removeListener(Consumer<long[]> listener) {
+        synchronized (this) {
+            listeners.remove(listener);
+            if (!listeners.isEmpty() || stopped) {
+                return;
+            }
+            stopped = true;
+            if (thread == null) {
+                return;
+            }
+            thread.interrupt();
+        }
+        RENEWAL_EXECUTOR.execute(this::abortIdle);
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Opens the folder and starts watching. Only messages that come after this call are notified.
+     *
+     * @throws EmailMessagingException if the folder cannot be opened.
+     */
+    synchronized void start() {
+        if (thread != null || stopped) {
+            return;
+        }
+        openFolder();
+        thread = new Thread(this::watch, "email-folder-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        renewalTask = RENEWAL_EXECUTOR.scheduleWithFixedDelay(this::abortIdle,
+                IDLE_RENEWAL_INTERVAL, IDLE_RENEWAL_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void watch() {
+        try {
+            while (!stopped) {
+                try {
+                    if (folder == null || !folder.isOpen()) {
+                        openFolder();
+                    }
+                    checkNewMessages();
+                    if (!stopped) {
+                        folder.idle(true);
+                    }
+                } catch (Exception e) {
+                    closeFolder();
+                    if (!stopped) {
+                        Thread.sleep(RECONNECT_DELAY);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            //stopped
+        } finally {
+            renewalTask.cancel(false);
+            closeFolder();
+        }
+    }
+
+    private void openFolder() {
+        Store store = storePool.openStore();
+        try {
+            IMAPFolder imapFolder = (IMAPFolder) store.getFolder(folderName);
+            imapFolder.open(Folder.READ_ONLY);
+            long validity = imapFolder.getUIDValidity();
+            if (validity != uidValidity) {
+                // Folder is opened first time or UIDs of its messages have been reset
+                uidValidity = validity;
+                lastUid = getLastUid(imapFolder);
+            }
+            folder = imapFolder;
+        } catch (MessagingException | RuntimeException e) {
+            try {
+                store.close();
+            } catch (Exception ex) {
+                //do nothing
+            }
+            throw e instanceof EmailMessagingException ? (EmailMessagingException) e : new EmailMessagingException(e);
+        }
+    }
+
+    private long getLastUid(IMAPFolder folder) throws MessagingException {
+        long uidNext = folder.getUIDNext();
+        if (uidNext > 0) {
+            return uidNext - 1;
+        }
+        int count = folder.getMessageCount();
+        return count > 0 ? folder.getUID(folder.getMessage(count)) : 0;
+    }
+
+    private void checkNewMessages() throws MessagingException {
+        IMAPFolder imapFolder = folder;
+        // Range "n:*" always includes the last message even if its UID is less than n
+        Message[] messages = imapFolder.getMessagesByUID(lastUid + 1, UIDFolder.LASTUID);
+        long[] uids = new long[messages.length];
+        int count = 0;
+        for (Message message : messages) {
+            long uid = imapFolder.getUID(message);
+            if (uid > lastUid) {
+                uids[count++] = uid;
+            }
+        }
+        if (count > 0) {
+            uids = Arrays.copyOf(uids, count);
+            lastUid = Arrays.stream(uids).max().getAsLong();
+            for (Consumer<long[]> listener : listeners) {
+                listener.accept(uids);
+            }
+        }
+    }
+
+    /**
+     * Any command sent to the folder from another thread terminates the IDLE command in progress.
+     */
+    private void abortIdle() {
+        IMAPFolder imapFolder = folder;
+        if (imapFolder != null) {
+            try {
+                imapFolder.doCommand(protocol -> null);
+            } catch (Exception e) {
+                //watching thread reopens the folder if necessary
+            }
+        }
+    }
+
+    private void closeFolder() {
+        IMAPFolder imapFolder = folder;
+        folder = null;
+        if (imapFolder != null) {
+            try {
+                if (imapFolder.isOpen()) {
+                    imapFolder.close(false);
+                }
+            } catch (Exception e) {
+                //do nothing
+            }
+            try {
+                imapFolder.getStore().close();
+            } catch (Exception e) {
+                //do nothing
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package eu.easyrpa.openframework.email.service.javax;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+import eu.easyrpa.openframework.core.model.FileData;
 import eu.easyrpa.openframework.email.EmailMessage;
 import eu.easyrpa.openframework.email.exception.EmailMessagingException;
 import eu.easyrpa.openframework.email.search.SearchQuery;
@@ -10,7 +12,10 @@ import eu.easyrpa.openframework.email.service.EmailServiceSecret;
 import eu.easyrpa.openframework.email.service.InboundEmailProtocol;
 import eu.easyrpa.openframework.email.service.InboundEmailService;
 import eu.easyrpa.openframework.email.service.MessageConverter;
+import eu.easyrpa.openframework.email.sync.FolderCheckpoint;
+import eu.easyrpa.openframework.email.sync.SyncResult;
 
+import javax.mail.FetchProfile;
 import javax.mail.Flags;
 import javax.mail.Folder;
 import javax.mail.Message;
@@ -20,27 +25,79 @@ import javax.mail.Session;
 import javax.mail.Store;
 import javax.mail.UIDFolder;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.function.BiFunction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of inbound email services that is working based on IMAP and POP3 protocols.
  */
 public class ImapPop3EmailService implements InboundEmailService {
 
-    private static final int DEFAULT_BATCH_SIZE = 10;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * Pools of store connections shared between services that work with the same mailbox account.
+     */
+    private static final Map<String, StorePool> STORE_POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Watchers of folders for new messages shared between all waitings for these folders.
+     */
+    private static final Map<String, FolderWatcher> FOLDER_WATCHERS = new ConcurrentHashMap<>();
+
+    private static final int MAX_WALKER_THREADS = 16;
+
+    private static final int MAX_WAIT_THREADS = 16;
+
+    private static final int MAX_CACHED_LOCATIONS = 10000;
+
+    private static final ExecutorService WALK_EXECUTOR = createWalkExecutor();
+
+    /**
+     * Performs blocking requests to the server on behalf of waitings of messages.
+     */
+    private static final ExecutorService WAIT_EXECUTOR = createWaitExecutor();
+
+    /**
+     * Only triggers timeouts and polling of waitings. It never performs requests to the server itself, so slow
+     * requests cannot delay timeouts.
+     */
+    private static final ScheduledExecutorService WAIT_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "email-wait-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final String host;
 
@@ -52,16 +109,31 @@ public class ImapPop3EmailService implements InboundEmailService {
 
     private final String password;
 
-    private final Store store;
-
     private final Session session;
 
+    private final String poolKey;
+
+    private final StorePool storePool;
+
     private MessageConverter<Message> messageConverter;
 
     private final SearchTermConverter searchTermConverter;
 
     private int batchSize = DEFAULT_BATCH_SIZE;
 
+    private volatile Boolean idleSupported;
+
+    /**
+     * Cache of folders where messages with specific UIDs have been seen last time.
+     */
+    private final Map<String, String> messageLocations = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CACHED_LOCATIONS;
+                }
+            });
+
     public ImapPop3EmailService(String server, InboundEmailProtocol protocol, String secret) {
 
         if (server.contains(":")) {
@@ -88,11 +160,11 @@ public class ImapPop3EmailService implements InboundEmailService {
         this.messageConverter = new MimeMessageConverter(this.session);
         this.searchTermConverter = new SearchTermConverter(this.messageConverter);
 
-        try {
-            this.store = this.session.getStore(protocol.getProtocolName());
-        } catch (NoSuchProviderException e) {
-            throw new EmailMessagingException(e);
-        }
+        this.poolKey = String.format("%s://%s@%s:%s#%s", protocol.getProtocolName(), user, host, port,
+                password != null ? password.hashCode() : 0);
+        this.storePool = STORE_POOLS.compute(poolKey, (key, pool) -> pool != null && !pool.isClosed()
+                ? pool
+                : new StorePool(this.session, protocol.getProtocolName(), user, password));
     }
 
     public String getHost() {
@@ -111,8 +183,29 @@ public class ImapPop3EmailService implements InboundEmailService {
         return session;
     }
 
+    /**
+     * Gets a new not connected store of the mailbox.
+     *
+     * @return a new store of the mailbox.
+     * @deprecated operations of this service use connections of the store pool. Use {@link #getStorePool()} instead.
+     */
+    @Deprecated
     public Store getStore() {
-        return store;
+        try {
+            return this.session.getStore(protocol.getProtocolName());
+        } catch (NoSuchProviderException e) {
+            throw new EmailMessagingException(e);
+        }
+    }
+
+    /**
+     * Gets pool of authenticated store connections that are used by this service. The pool is shared between
+     * services that work with the same mailbox account.
+     *
+     * @return pool of store connections.
+     */
+    public StorePool getStorePool() {
+        return storePool;
     }
 
     public MessageConverter<Message> getMessageConverter() {
@@ -127,7 +220,17 @@ public class ImapPop3EmailService implements InboundEmailService {
         return batchSize;
     }
 
+    /**
+     * Sets amount of messages which data is prefetched from the server by one request when several messages
+     * are retrieved at once.
+     *
+     * @param batchSize amount of messages in one prefetch request.
+     * @throws IllegalArgumentException if batch size is not positive.
+     */
     public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than zero.");
+        }
         this.batchSize = batchSize;
     }
 
@@ -142,15 +245,34 @@ public class ImapPop3EmailService implements InboundEmailService {
         });
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Folders where messages have been seen last time are cached. So the message is looked up in the cached folder
+     * first and all folders are viewed only if it's not found there.
+     */
     @Override
     public EmailMessage getMessage(String messageId) {
+        String cachedFolderName = messageLocations.get(messageId);
+        if (cachedFolderName != null) {
+            try {
+                EmailMessage message = getMessage(messageId, cachedFolderName);
+                if (message != null) {
+                    return message;
+                }
+            } catch (EmailMessagingException e) {
+                // The folder doesn't exist anymore
+            }
+            messageLocations.remove(messageId);
+        }
+
         long uid = Long.parseLong(messageId);
         return walkOverAllFolders(folder -> {
             try {
                 UIDFolder uidFolder = (UIDFolder) folder;
                 Message message = uidFolder.getMessageByUID(uid);
                 if (message != null) {
-                    return messageConverter.convertToEmailMessage(message);
+                    return toEmailMessage(message);
                 }
                 return null;
             } catch (MessagingException e) {
@@ -167,7 +289,7 @@ public class ImapPop3EmailService implements InboundEmailService {
                 UIDFolder uidFolder = (UIDFolder) folder;
                 Message message = uidFolder.getMessageByUID(uid);
                 if (message != null) {
-                    return messageConverter.convertToEmailMessage(message);
+                    return toEmailMessage(message);
                 }
                 return null;
             } catch (MessagingException e) {
@@ -177,16 +299,11 @@ public class ImapPop3EmailService implements InboundEmailService {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public List<EmailMessage> fetchMessages(String folderName, SearchQuery searchQuery) {
         Function<Folder, List<EmailMessage>> searchAction = folder -> {
             try {
-                Message[] messages;
-                if (searchQuery != null) {
-                    messages = folder.search(searchTermConverter.convert(searchQuery));
-                } else {
-                    messages = folder.getMessages();
-                }
-                return messageConverter.convertAllToEmailMessages(messages);
+                return convertAllToEmailMessages(folder, searchMessages(folder, searchQuery, null));
             } catch (MessagingException e) {
                 throw new EmailMessagingException(e);
             }
@@ -197,13 +314,104 @@ public class ImapPop3EmailService implements InboundEmailService {
         }
 
         List<EmailMessage> result = new ArrayList<>();
-        walkOverAllFolders(folder -> {
-            result.addAll(searchAction.apply(folder));
-            return false;
-        });
+        for (Object messages : walkOverAllFolders(searchAction, false)) {
+            result.addAll((List<EmailMessage>) messages);
+        }
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Identifiers of satisfying messages are collected per folder at once when the folder is reached first time.
+     * Messages themselves are retrieved from the server by pages of {@link #getBatchSize()} messages only when
+     * they are requested from the stream. So only one page of messages is kept in memory and the retrieving
+     * stops as soon as the stream processing is finished, e.g. by <code>findFirst()</code> or <code>limit()</code>.
+     */
+    @Override
+    public Stream<EmailMessage> streamMessages(String folderName, SearchQuery searchQuery) {
+        Iterator<EmailMessage> iterator = new PagedMessageIterator(folderName, searchQuery);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * New messages are messages with UIDs greater than the last UID of the checkpoint. Changed messages are
+     * found using <code>CHANGEDSINCE</code> modifier of CONDSTORE extension if the server supports it.
+     *
+     * @throws UnsupportedOperationException if the folder is not IMAP folder.
+     */
+    @Override
+    public SyncResult syncMessages(String folderName, FolderCheckpoint checkpoint) {
+        return storePool.perform(store -> {
+            try {
+                IMAPStore imapStore = store.getStore() instanceof IMAPStore ? (IMAPStore) store.getStore() : null;
+                if (imapStore == null) {
+                    throw new UnsupportedOperationException("Incremental synchronization is supported only for IMAP folders.");
+                }
+                // Modification sequence is taken before fetching of changes to not miss changes made in between
+                long highestModSeq = imapStore.hasCapability("CONDSTORE")
+                        ? ((IMAPFolder) imapStore.getFolder(folderName)).getHighestModSeq()
+                        : -1;
+
+                return store.performInFolder(folderName, Folder.READ_ONLY, folder -> {
+                    try {
+                        IMAPFolder imapFolder = (IMAPFolder) folder;
+                        long uidValidity = imapFolder.getUIDValidity();
+                        boolean fullSync = checkpoint == null || checkpoint.getUidValidity() != uidValidity;
+                        long lastUid = fullSync ? 0 : checkpoint.getLastUid();
+
+                        Message[] changedMessages = new Message[0];
+                        if (!fullSync && highestModSeq > 0 && checkpoint.getHighestModSeq() > 0 && lastUid > 0) {
+                            changedMessages = imapFolder.getMessagesByUIDChangedSince(1, lastUid,
+                                    checkpoint.getHighestModSeq());
+                        }
+
+                        Message[] newMessages = getMessagesAfterUid(imapFolder, lastUid);
+                        for (Message message : newMessages) {
+                            lastUid = Math.max(lastUid, imapFolder.getUID(message));
+                        }
+
+                        FolderCheckpoint newCheckpoint = new FolderCheckpoint(folderName, uidValidity, lastUid,
+                                highestModSeq);
+                        return new SyncResult(newCheckpoint, convertAllToEmailMessages(folder, newMessages),
+                                convertAllToEmailMessages(folder, changedMessages), fullSync);
+                    } catch (MessagingException e) {
+                        throw new EmailMessagingException(e);
+                    }
+                });
+            } catch (MessagingException e) {
+                throw new EmailMessagingException(e);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The server part is described using IMAP SEARCH syntax. POP3 servers don't support searching, so for them
+     * the whole query is evaluated on the client side.
+     */
+    @Override
+    public String explainSearch(SearchQuery searchQuery) {
+        SearchPlan plan = searchTermConverter.plan(searchQuery);
+        if (protocol.getProtocolName().startsWith("pop3")) {
+            plan = new SearchPlan(null, searchTermConverter.convert(searchQuery));
+        }
+        return plan.explain();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * For IMAP servers that support IDLE command the specific folder is watched using a separate connection
+     * which is shared between all waitings for this folder. As soon as the server notifies about new messages
+     * only these messages are checked and the waiting ends immediately if any of them satisfy to the condition.
+     * In this case <code>checkInterval</code> is not used. For POP3, servers without IDLE support and
+     * waiting of messages throwout whole mailbox new messages are searched each <code>checkInterval</code>.
+     */
     @Override
     public CompletableFuture<List<EmailMessage>> waitMessages(String folderName, SearchQuery searchQuery,
                                                               Duration timeout, Duration checkInterval) {
@@ -213,38 +421,28 @@ public class ImapPop3EmailService implements InboundEmailService {
         if (checkInterval == null) {
             throw new IllegalArgumentException("Check interval must be specified.");
         }
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                long endTime = System.currentTimeMillis() + timeout.toMillis();
-
-                List<EmailMessage> result = fetchMessages(folderName, searchQuery);
-                if (!result.isEmpty()) {
-                    return result;
-                }
+        CompletableFuture<List<EmailMessage>> result = new CompletableFuture<>();
 
-                SearchQuery query = searchQuery != null
-                        ? searchQuery.and().date().after(new Date())
-                        : SearchQuery.date().after(new Date());
+        // Watching is started before the first search to not miss messages that come in between
+        boolean isWatching = folderName != null && watchFolder(folderName, searchQuery, result);
 
-                ScheduledExecutorService ex = Executors.newSingleThreadScheduledExecutor();
-                ScheduledFuture<?> scheduledFuture = ex.scheduleAtFixedRate(() -> {
-                    if (result.isEmpty()) {
-                        result.addAll(fetchMessages(folderName, query));
-                    }
-                }, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
-
-                while (true) {
-                    Thread.sleep(1000);
-                    if (System.currentTimeMillis() > endTime || !result.isEmpty()) {
-                        scheduledFuture.cancel(true);
-                        ex.shutdown();
-                        return result;
-                    }
+        WAIT_EXECUTOR.execute(() -> {
+            try {
+                List<EmailMessage> messages = fetchMessages(folderName, searchQuery);
+                if (!messages.isEmpty()) {
+                    result.complete(messages);
+                } else if (!isWatching) {
+                    pollFolder(folderName, searchQuery, checkInterval, result);
                 }
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+            } catch (Exception e) {
+                result.completeExceptionally(e);
             }
         });
+
+        ScheduledFuture<?> timeoutTask = WAIT_TIMER.schedule(() -> result.complete(new ArrayList<>()),
+                timeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((messages, e) -> timeoutTask.cancel(false));
+        return result;
     }
 
     @Override
@@ -254,7 +452,7 @@ public class ImapPop3EmailService implements InboundEmailService {
                 IMAPFolder imapFolder = (IMAPFolder) folder;
                 Message[] added = imapFolder.addMessages(new Message[]{messageConverter.convertToNativeMessage(message)});
                 if (added.length == 1) {
-                    return messageConverter.convertToEmailMessage(added[0]);
+                    return toEmailMessage(added[0]);
                 }
                 return null;
             } catch (MessagingException e) {
@@ -273,7 +471,7 @@ public class ImapPop3EmailService implements InboundEmailService {
                     try {
                         Message[] copied = target.addMessages(new Message[]{msg});
                         if (copied.length == 1) {
-                            return messageConverter.convertToEmailMessage(copied[0]);
+                            return toEmailMessage(copied[0]);
                         }
                         return null;
                     } finally {
@@ -300,7 +498,8 @@ public class ImapPop3EmailService implements InboundEmailService {
                         if (moved.length == 1) {
                             msg.setFlag(Flags.Flag.DELETED, true);
                             msg.getFolder().expunge();
-                            return messageConverter.convertToEmailMessage(moved[0]);
+                            forgetLocation(message);
+                            return toEmailMessage(moved[0]);
                         }
                         return null;
                     } finally {
@@ -329,13 +528,20 @@ public class ImapPop3EmailService implements InboundEmailService {
 
     @Override
     public void updateMessages(List<EmailMessage> messages) {
-        findAllMessagesAndPerform(messages, (message, msg) -> {
-            try {
-                msg.setFlag(Flags.Flag.SEEN, message.isRead());
-            } catch (MessagingException e) {
-                throw new EmailMessagingException(e);
+        performForAllMessages(messages, Folder.READ_WRITE, (folder, emailMessages, nativeMessages) -> {
+            List<Message> readMessages = new ArrayList<>();
+            List<Message> unreadMessages = new ArrayList<>();
+            for (int i = 0; i < nativeMessages.length; i++) {
+                if (nativeMessages[i] != null) {
+                    (emailMessages.get(i).isRead() ? readMessages : unreadMessages).add(nativeMessages[i]);
+                }
+            }
+            if (!readMessages.isEmpty()) {
+                folder.setFlags(readMessages.toArray(new Message[0]), new Flags(Flags.Flag.SEEN), true);
+            }
+            if (!unreadMessages.isEmpty()) {
+                folder.setFlags(unreadMessages.toArray(new Message[0]), new Flags(Flags.Flag.SEEN), false);
             }
-            return false;
         });
     }
 
@@ -346,6 +552,7 @@ public class ImapPop3EmailService implements InboundEmailService {
                 Folder folder = msg.getFolder();
                 msg.setFlag(Flags.Flag.DELETED, true);
                 folder.expunge();
+                forgetLocation(message);
                 return true;
             } catch (MessagingException e) {
                 throw new EmailMessagingException(e);
@@ -355,16 +562,37 @@ public class ImapPop3EmailService implements InboundEmailService {
 
     @Override
     public void deleteMessages(List<EmailMessage> messages) {
-        findAllMessagesAndPerform(messages, (message, msg) -> {
-            try {
-                msg.setFlag(Flags.Flag.DELETED, true);
-            } catch (MessagingException e) {
-                throw new EmailMessagingException(e);
+        performForAllMessages(messages, Folder.READ_WRITE, (folder, emailMessages, nativeMessages) -> {
+            Message[] existingMessages = Arrays.stream(nativeMessages).filter(Objects::nonNull).toArray(Message[]::new);
+            if (existingMessages.length > 0) {
+                folder.setFlags(existingMessages, new Flags(Flags.Flag.DELETED), true);
+                expunge(folder, existingMessages);
             }
-            return false;
+            emailMessages.forEach(this::forgetLocation);
         });
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Messages are grouped by folders and copied by one request for each folder.
+     */
+    @Override
+    public void copyMessages(List<EmailMessage> messages, String targetFolder) {
+        transferMessages(messages, targetFolder, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Messages are grouped by folders and moved by one UID MOVE request for each folder if the server supports
+     * MOVE extension. Otherwise they are copied by one request, marked as deleted by one request and expunged.
+     */
+    @Override
+    public void moveMessages(List<EmailMessage> messages, String targetFolder) {
+        transferMessages(messages, targetFolder, true);
+    }
+
     @Override
     public List<String> listFolders() {
         return connectAndPerform(store -> {
@@ -423,36 +651,319 @@ public class ImapPop3EmailService implements InboundEmailService {
         });
     }
 
-    private void findAllMessagesAndPerform(List<EmailMessage> messages, BiFunction<EmailMessage, Message, Boolean> action) {
+    /**
+     * Converts given messages of the folder. Data of messages is prefetched from the server in batches
+     * instead of separate requests for each message.
+     */
+    private List<EmailMessage> convertAllToEmailMessages(Folder folder, Message[] messages) throws MessagingException {
+        FetchProfile fetchProfile = getFetchProfile(folder);
+        List<EmailMessage> result = new ArrayList<>(messages.length);
+        for (int from = 0; from < messages.length; from += batchSize) {
+            Message[] batch = Arrays.copyOfRange(messages, from, Math.min(from + batchSize, messages.length));
+            folder.fetch(batch, fetchProfile);
+            prefetchContent(folder, batch);
+            result.addAll(messageConverter.convertAllToEmailMessages(batch));
+        }
+        result.forEach(this::rememberLocation);
+        return result;
+    }
+
+    /**
+     * Searches messages of the folder that satisfy to given query. The part of query that cannot be evaluated by
+     * the server is checked for found messages on the client side. Necessary data of these messages is prefetched
+     * in batches.
+     *
+     * @param candidates messages among which the search is performed or <code>null</code> to search among all
+     *                   messages of the folder.
+     */
+    private Message[] searchMessages(Folder folder, SearchQuery searchQuery, Message[] candidates)
+            throws MessagingException {
+        if (searchQuery == null) {
+            return candidates != null ? candidates : folder.getMessages();
+        }
+        SearchPlan plan = searchTermConverter.plan(searchQuery);
+        Message[] messages;
+        if (plan.getServerTerm() != null) {
+            messages = candidates != null
+                    ? folder.search(plan.getServerTerm(), candidates)
+                    : folder.search(plan.getServerTerm());
+        } else {
+            messages = candidates != null ? candidates : folder.getMessages();
+        }
+        if (plan.getClientTerm() == null) {
+            return messages;
+        }
 
-        Map<String, List<EmailMessage>> groupedMessages = messages.stream()
-                .filter(m -> m.getParentFolder() != null && m.getId() != null)
-                .collect(Collectors.groupingBy(EmailMessage::getParentFolder));
+        FetchProfile fetchProfile;
+        if (plan.isContentRequired()) {
+            fetchProfile = getFetchProfile(folder);
+        } else {
+            fetchProfile = new FetchProfile();
+            fetchProfile.add(FetchProfile.Item.ENVELOPE);
+            fetchProfile.add(FetchProfile.Item.FLAGS);
+        }
+        List<Message> result = new ArrayList<>();
+        for (int from = 0; from < messages.length; from += batchSize) {
+            Message[] batch = Arrays.copyOfRange(messages, from, Math.min(from + batchSize, messages.length));
+            folder.fetch(batch, fetchProfile);
+            if (plan.isContentRequired()) {
+                prefetchContent(folder, batch);
+            }
+            for (Message message : batch) {
+                if (plan.getClientTerm().match(message)) {
+                    result.add(message);
+                }
+            }
+        }
+        return result.toArray(new Message[0]);
+    }
 
-        for (String folderName : groupedMessages.keySet()) {
-            List<EmailMessage> msgGroup = groupedMessages.get(folderName);
-            boolean res = openFolderAndPerform(folderName, Folder.READ_WRITE, folder -> {
-                try {
-                    UIDFolder uidFolder = (UIDFolder) folder;
-                    for (EmailMessage msg : msgGroup) {
-                        Message m = uidFolder.getMessageByUID(Long.parseLong(msg.getId()));
-                        if (m != null) {
-                            if (action.apply(msg, m)) {
-                                return true;
-                            }
+    private FetchProfile getFetchProfile(Folder folder) {
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.ENVELOPE);
+        fetchProfile.add(FetchProfile.Item.FLAGS);
+        fetchProfile.add(FetchProfile.Item.CONTENT_INFO);
+        fetchProfile.add(FetchProfile.Item.SIZE);
+        if (folder instanceof UIDFolder) {
+            fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        }
+        return fetchProfile;
+    }
+
+    /**
+     * Prefetches the whole content of small IMAP messages by one request since converter copies it anyway.
+     * Content of big messages is not prefetched to avoid keeping of it in memory. It's streamed from the server
+     * and spooled to disk when such messages are converted.
+     */
+    private void prefetchContent(Folder folder, Message[] messages) throws MessagingException {
+        if (!(folder instanceof IMAPFolder)) {
+            return;
+        }
+        List<Message> smallMessages = new ArrayList<>(messages.length);
+        for (Message message : messages) {
+            if (message.getSize() <= FileData.DEFAULT_SPOOL_THRESHOLD) {
+                smallMessages.add(message);
+            }
+        }
+        if (!smallMessages.isEmpty()) {
+            FetchProfile fetchProfile = new FetchProfile();
+            fetchProfile.add(IMAPFolder.FetchProfileItem.MESSAGE);
+            folder.fetch(smallMessages.toArray(new Message[0]), fetchProfile);
+        }
+    }
+
+    /**
+     * Subscribes given waiting to notifications about new messages in the folder using IDLE command.
+     *
+     * @return <code>false</code> if IDLE command is not supported by the server.
+     */
+    private boolean watchFolder(String folderName, SearchQuery searchQuery, CompletableFuture<List<EmailMessage>> result) {
+        if (!isIdleSupported()) {
+            return false;
+        }
+
+        Consumer<long[]> listener = uids -> WAIT_EXECUTOR.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                List<EmailMessage> messages = openFolderAndPerform(folderName, Folder.READ_ONLY, folder -> {
+                    try {
+                        Message[] newMessages = Arrays.stream(((UIDFolder) folder).getMessagesByUID(uids))
+                                .filter(Objects::nonNull).toArray(Message[]::new);
+                        if (newMessages.length > 0) {
+                            newMessages = searchMessages(folder, searchQuery, newMessages);
                         }
+                        return convertAllToEmailMessages(folder, newMessages);
+                    } catch (MessagingException e) {
+                        throw new EmailMessagingException(e);
                     }
-                    return false;
+                });
+                if (!messages.isEmpty()) {
+                    result.complete(messages);
+                }
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        String watcherKey = poolKey + "/" + folderName;
+        FolderWatcher watcher = FOLDER_WATCHERS.compute(watcherKey, (key, w) -> {
+            if (w == null || !w.addListener(listener)) {
+                w = new FolderWatcher(storePool, folderName);
+                w.addListener(listener);
+            }
+            return w;
+        });
+        try {
+            watcher.start();
+        } catch (EmailMessagingException e) {
+            removeFolderListener(watcherKey, watcher, listener);
+            return false;
+        }
+        result.whenComplete((messages, e) -> removeFolderListener(watcherKey, watcher, listener));
+        return true;
+    }
+
+    private void removeFolderListener(String watcherKey, FolderWatcher watcher, Consumer<long[]> listener) {
+        watcher.removeListener(listener);
+        if (watcher.isStopped()) {
+            FOLDER_WATCHERS.remove(watcherKey, watcher);
+        }
+    }
+
+    private boolean isIdleSupported() {
+        if (idleSupported == null) {
+            idleSupported = connectAndPerform(store -> {
+                try {
+                    return store instanceof IMAPStore && ((IMAPStore) store).hasCapability("IDLE");
                 } catch (MessagingException e) {
                     throw new EmailMessagingException(e);
                 }
             });
-            if (res) {
+        }
+        return idleSupported;
+    }
+
+    /**
+     * Periodically searches messages that satisfy to the condition and have come after this method call.
+     */
+    private void pollFolder(String folderName, SearchQuery searchQuery, Duration checkInterval,
+                            CompletableFuture<List<EmailMessage>> result) {
+        SearchQuery query = searchQuery != null
+                ? searchQuery.and().date().after(new Date())
+                : SearchQuery.date().after(new Date());
+
+        AtomicReference<ScheduledFuture<?>> pollingTask = new AtomicReference<>();
+        Runnable poll = new Runnable() {
+            @Override
+            public void run() {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    List<EmailMessage> messages = fetchMessages(folderName, query);
+                    if (!messages.isEmpty()) {
+                        result.complete(messages);
+                    }
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+                if (!result.isDone()) {
+                    // The next check is scheduled only when the current one is finished, as it's done by fixed delay
+                    Runnable task = this;
+                    pollingTask.set(WAIT_TIMER.schedule(() -> WAIT_EXECUTOR.execute(task),
+                            checkInterval.toMillis(), TimeUnit.MILLISECONDS));
+                }
+            }
+        };
+        pollingTask.set(WAIT_TIMER.schedule(() -> WAIT_EXECUTOR.execute(poll),
+                checkInterval.toMillis(), TimeUnit.MILLISECONDS));
+        result.whenComplete((messages, e) -> pollingTask.get().cancel(false));
+    }
+
+    private Message[] getMessagesAfterUid(IMAPFolder folder, long uid) throws MessagingException {
+        // Range "n:*" always includes the last message even if its UID is less than n
+        List<Message> messages = new ArrayList<>();
+        for (Message message : folder.getMessagesByUID(uid + 1, UIDFolder.LASTUID)) {
+            if (message != null && folder.getUID(message) > uid) {
+                messages.add(message);
+            }
+        }
+        return messages.toArray(new Message[0]);
+    }
+
+    private List<String> getMessageFolderNames() {
+        return connectAndPerform(store -> {
+            try {
+                List<String> folderNames = new ArrayList<>();
+                for (Folder folder : store.getDefaultFolder().list("*")) {
+                    if (folder.exists() && (folder.getType() & Folder.HOLDS_MESSAGES) > 0) {
+                        folderNames.add(folder.getFullName());
+                    }
+                }
+                return folderNames;
+            } catch (MessagingException e) {
+                throw new EmailMessagingException(e);
+            }
+        });
+    }
+
+    /**
+     * Groups given messages by folders and performs given action for each folder. Native messages of the folder
+     * are retrieved by one request and passed to the action in the same order as corresponding email messages.
+     * For messages that don't exist anymore <code>null</code> is passed.
+     */
+    private void performForAllMessages(List<EmailMessage> messages, int mode, FolderMessagesAction action) {
+        Map<String, List<EmailMessage>> groupedMessages = messages.stream()
+                .filter(m -> m.getParentFolder() != null && m.getId() != null)
+                .collect(Collectors.groupingBy(EmailMessage::getParentFolder));
+        if (groupedMessages.isEmpty()) {
+            return;
+        }
+
+        storePool.perform(store -> {
+            for (Map.Entry<String, List<EmailMessage>> group : groupedMessages.entrySet()) {
+                store.performInFolder(group.getKey(), mode, folder -> {
+                    try {
+                        long[] uids = group.getValue().stream().mapToLong(m -> Long.parseLong(m.getId())).toArray();
+                        Message[] nativeMessages = ((UIDFolder) folder).getMessagesByUID(uids);
+                        action.perform(folder, group.getValue(), nativeMessages);
+                        return null;
+                    } catch (MessagingException e) {
+                        throw new EmailMessagingException(e);
+                    }
+                });
+            }
+            return null;
+        });
+    }
+
+    private void transferMessages(List<EmailMessage> messages, String targetFolder, boolean isMove) {
+        performForAllMessages(messages, isMove ? Folder.READ_WRITE : Folder.READ_ONLY, (folder, emailMessages, nativeMessages) -> {
+            Folder target = folder.getStore().getFolder(targetFolder);
+            if (!target.exists()) {
+                throw new EmailMessagingException(String.format("Target folder '%s' does not exist.", targetFolder));
+            }
+            Message[] existingMessages = Arrays.stream(nativeMessages).filter(Objects::nonNull).toArray(Message[]::new);
+            if (existingMessages.length == 0) {
                 return;
             }
+            if (isMove && hasCapability(folder, "MOVE")) {
+                ((IMAPFolder) folder).moveMessages(existingMessages, target);
+            } else {
+                folder.copyMessages(existingMessages, target);
+                if (isMove) {
+                    folder.setFlags(existingMessages, new Flags(Flags.Flag.DELETED), true);
+                    expunge(folder, existingMessages);
+                }
+            }
+            if (isMove) {
+                emailMessages.forEach(this::forgetLocation);
+            }
+        });
+    }
+
+    /**
+     * Removes given messages marked as deleted from IMAP folder. If the server supports UIDPLUS extension only
+     * given messages are removed using UID EXPUNGE. Otherwise all messages of the folder marked as deleted
+     * are removed.
+     */
+    private void expunge(Folder folder, Message[] messages) throws MessagingException {
+        if (!(folder instanceof IMAPFolder)) {
+            return;
+        }
+        if (hasCapability(folder, "UIDPLUS")) {
+            ((IMAPFolder) folder).expunge(messages);
+        } else {
+            folder.expunge();
         }
     }
 
+    private boolean hasCapability(Folder folder, String capability) throws MessagingException {
+        return folder.getStore() instanceof IMAPStore && ((IMAPStore) folder.getStore()).hasCapability(capability);
+    }
+
     private <T> T findMessageAndPerform(EmailMessage message, int mode, Function<Message, T> action) {
         if (message.getParentFolder() == null) {
             throw new EmailMessagingException("Message does not have a folder specified.");
@@ -476,70 +987,247 @@ public class ImapPop3EmailService implements InboundEmailService {
         });
     }
 
-    private <T> T openFolderAndPerform(String folderName, int mode, Function<Folder, T> action) {
-        return connectAndPerform(store -> {
-            try {
-                Folder folder = store.getFolder(folderName);
-                if (folder.exists()) {
-                    folder.open(mode);
-                    try {
-                        return action.apply(folder);
-                    } finally {
-                        folder.close(false);
-                    }
-                } else {
-                    throw new EmailMessagingException(String.format("Folder '%s' does not exist.", folderName));
-                }
-            } catch (MessagingException e) {
-                throw new EmailMessagingException(e);
+    /**
+     * Performs given action for each folder of the mailbox until the action returns non-null result that is not
+     * <code>false</code>. Folders are processed in parallel using several connections of the store pool.
+     *
+     * @return the result of the action for the first folder in the list of folders for which the action has
+     * returned non-null result that is not <code>false</code>.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T walkOverAllFolders(Function<Folder, T> action) {
+        Object[] results = walkOverAllFolders(action, true);
+        for (Object result : results) {
+            if (isFound(result)) {
+                return (T) result;
             }
-        });
+        }
+        return null;
     }
 
-    private <T> T walkOverAllFolders(Function<Folder, T> action) {
-        return connectAndPerform(store -> {
+    /**
+     * Performs given action for folders of the mailbox in parallel. Amount of parallel workers is limited by
+     * amount of connections of the store pool. Each worker uses one connection for all folders processed by it.
+     *
+     * @param stopAtFirst whether it should stop processing of rest folders when the action returns non-null result
+     *                    that is not <code>false</code>.
+     * @return results of the action for folders in the order of folders in the mailbox.
+     */
+    private Object[] walkOverAllFolders(Function<Folder, ?> action, boolean stopAtFirst) {
+        List<String> folderNames = getMessageFolderNames();
+        Object[] results = new Object[folderNames.size()];
+        int parallelism = Math.min(folderNames.size(), storePool.getMaxConnections());
+        if (parallelism == 0) {
+            return results;
+        }
+
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicInteger lastIndex = new AtomicInteger(folderNames.size() - 1);
+        Runnable worker = () -> storePool.perform(store -> {
             try {
-                Folder[] folders = store.getDefaultFolder().list("*");
-                for (Folder folder : folders) {
-                    if (folder.exists() && (folder.getType() & Folder.HOLDS_MESSAGES) > 0) {
-                        folder.open(Folder.READ_ONLY);
-                        try {
-                            T result = action.apply(folder);
-                            if (result != null && (!(result instanceof Boolean) || ((Boolean) result))) {
-                                return result;
-                            }
-                        } finally {
-                            folder.close(false);
-                        }
+                int index;
+                while ((index = nextIndex.getAndIncrement()) <= lastIndex.get()) {
+                    Object result = store.performInFolder(folderNames.get(index), Folder.READ_ONLY, action);
+                    results[index] = result;
+                    if (stopAtFirst && isFound(result)) {
+                        // Folders before found one still should be processed to keep the order of folders
+                        lastIndex.accumulateAndGet(index, Math::min);
                     }
                 }
                 return null;
-            } catch (MessagingException e) {
-                throw new EmailMessagingException(e);
+            } catch (RuntimeException e) {
+                lastIndex.set(-1);
+                throw e;
             }
         });
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < parallelism; i++) {
+            futures.add(WALK_EXECUTOR.submit(worker));
+        }
+        RuntimeException error = null;
+        try {
+            worker.run();
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new EmailMessagingException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                lastIndex.set(-1);
+                Thread.currentThread().interrupt();
+                throw new EmailMessagingException("Walking over mailbox folders is interrupted.");
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return results;
+    }
+
+    private boolean isFound(Object result) {
+        return result != null && (!(result instanceof Boolean) || ((Boolean) result));
+    }
+
+    private EmailMessage toEmailMessage(Message message) {
+        EmailMessage emailMessage = messageConverter.convertToEmailMessage(message);
+        rememberLocation(emailMessage);
+        return emailMessage;
+    }
+
+    private void rememberLocation(EmailMessage message) {
+        if (message.getId() != null && message.getParentFolder() != null) {
+            messageLocations.put(message.getId(), message.getParentFolder());
+        }
+    }
+
+    private void forgetLocation(EmailMessage message) {
+        if (message.getId() != null) {
+            messageLocations.remove(message.getId(), message.getParentFolder());
+        }
+    }
+
+    private <T> T openFolderAndPerform(String folderName, int mode, Function<Folder, T> action) {
+        return storePool.performInFolder(folderName, mode, action);
     }
 
     private <T> T connectAndPerform(Function<Store, T> action) {
-        try {
-            if (!this.store.isConnected()) {
-                this.store.connect(user, password);
+        return storePool.perform(store -> action.apply(store.getStore()));
+    }
+
+    private interface FolderMessagesAction {
+        void perform(Folder folder, List<EmailMessage> emailMessages, Message[] nativeMessages) throws MessagingException;
+    }
+
+    /**
+     * Iterates over satisfying messages of one or all folders of the mailbox retrieving them page by page.
+     * Messages are identified by UIDs for IMAP folders and by message numbers for POP3 folders.
+     */
+    private class PagedMessageIterator implements Iterator<EmailMessage> {
+
+        private final String rootFolderName;
+
+        private final SearchQuery searchQuery;
+
+        private Deque<String> folderNames;
+
+        private String folderName;
+
+        private long[] messageIds;
+
+        private int position;
+
+        private Iterator<EmailMessage> page = Collections.emptyIterator();
+
+        private PagedMessageIterator(String folderName, SearchQuery searchQuery) {
+            this.rootFolderName = folderName;
+            this.searchQuery = searchQuery;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext()) {
+                if (messageIds != null && position < messageIds.length) {
+                    page = fetchPage().iterator();
+                } else if (!nextFolder()) {
+                    return false;
+                }
             }
-            if (!this.store.isConnected()) {
-                throw new EmailMessagingException("Email store connection failed.");
+            return true;
+        }
+
+        @Override
+        public EmailMessage next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-            return action.apply(this.store);
-        } catch (MessagingException e) {
-            throw new EmailMessagingException(e);
-        } finally {
-            try {
-                if (this.store.isConnected()) {
-                    this.store.close();
-                }
-            } catch (MessagingException e) {
-                //do nothing
+            return page.next();
+        }
+
+        private boolean nextFolder() {
+            if (folderNames == null) {
+                folderNames = new ArrayDeque<>(rootFolderName != null
+                        ? Collections.singletonList(rootFolderName)
+                        : getMessageFolderNames());
             }
+            folderName = folderNames.poll();
+            messageIds = null;
+            position = 0;
+            if (folderName == null) {
+                return false;
+            }
+            messageIds = openFolderAndPerform(folderName, Folder.READ_ONLY, folder -> {
+                try {
+                    Message[] messages = searchMessages(folder, searchQuery, null);
+                    long[] ids = new long[messages.length];
+                    if (folder instanceof UIDFolder) {
+                        FetchProfile fetchProfile = new FetchProfile();
+                        fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+                        folder.fetch(messages, fetchProfile);
+                        for (int i = 0; i < messages.length; i++) {
+                            ids[i] = ((UIDFolder) folder).getUID(messages[i]);
+                        }
+                    } else {
+                        for (int i = 0; i < messages.length; i++) {
+                            ids[i] = messages[i].getMessageNumber();
+                        }
+                    }
+                    return ids;
+                } catch (MessagingException e) {
+                    throw new EmailMessagingException(e);
+                }
+            });
+            return true;
         }
+
+        private List<EmailMessage> fetchPage() {
+            long[] pageIds = Arrays.copyOfRange(messageIds, position, Math.min(position + batchSize, messageIds.length));
+            position += pageIds.length;
+            return openFolderAndPerform(folderName, Folder.READ_ONLY, folder -> {
+                try {
+                    Message[] messages;
+                    if (folder instanceof UIDFolder) {
+                        messages = ((UIDFolder) folder).getMessagesByUID(pageIds);
+                    } else {
+                        messages = folder.getMessages(Arrays.stream(pageIds).mapToInt(id -> (int) id).toArray());
+                    }
+                    // Messages that have been deleted in the meantime are skipped
+                    messages = Arrays.stream(messages).filter(Objects::nonNull).toArray(Message[]::new);
+                    return convertAllToEmailMessages(folder, messages);
+                } catch (MessagingException e) {
+                    throw new EmailMessagingException(e);
+                }
+            });
+        }
+    }
+
+    private static ExecutorService createWalkExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_WALKER_THREADS, MAX_WALKER_THREADS,
+                1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "email-folder-walker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService createWaitExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_WAIT_THREADS, MAX_WAIT_THREADS,
+                1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "email-wait");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     private Properties getConfigurationFor(InboundEmailProtocol protocol) {
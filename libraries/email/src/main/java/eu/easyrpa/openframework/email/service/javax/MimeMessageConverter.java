@@ -8,6 +8,8 @@ import eu.easyrpa.openframework.email.message.EmailBodyPart;
 import eu.easyrpa.openframework.email.service.MessageConverter;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
 import javax.mail.BodyPart;
 import javax.mail.Flags;
 import javax.mail.Message;
@@ -22,11 +24,13 @@ import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -355,13 +359,13 @@ public class MimeMessageConverter extends MessageConverter<Message> {
     }
 
     public static MimeBodyPart createAttachmentPart(EmailAttachment attachment, String disposition) throws MessagingException {
-        byte[] attachmentBytesBase64 = Base64.getEncoder().encode(attachment.getContent());
-        InternetHeaders headers = new InternetHeaders();
-        headers.setHeader(HEADER_CONTENT_ID, formatContentId(attachment));
-        headers.setHeader(HEADER_CONTENT_TYPE, formatContentType(attachment));
-        headers.setHeader(HEADER_CONTENT_TRANSFER_ENCODING, "base64");
-        headers.setHeader(HEADER_CONTENT_DISPOSITION, formatContentDisposition(attachment, disposition));
-        MimeBodyPart filePart = new MimeBodyPart(headers, attachmentBytesBase64);
+        MimeBodyPart filePart = new MimeBodyPart();
+        // Content of attachment is encoded on the fly when the message is written without loading it into memory
+        filePart.setDataHandler(new DataHandler(new AttachmentDataSource(attachment)));
+        filePart.setHeader(HEADER_CONTENT_ID, formatContentId(attachment));
+        filePart.setHeader(HEADER_CONTENT_TYPE, formatContentType(attachment));
+        filePart.setHeader(HEADER_CONTENT_TRANSFER_ENCODING, "base64");
+        filePart.setHeader(HEADER_CONTENT_DISPOSITION, formatContentDisposition(attachment, disposition));
         filePart.setFileName(attachment.getFileName());
         filePart.setDisposition(disposition);
         return filePart;
@@ -388,7 +392,8 @@ public class MimeMessageConverter extends MessageConverter<Message> {
             if (mimeType.contains(";")) {
                 mimeType = mimeType.substring(0, mimeType.indexOf(";"));
             }
-            result.add(new EmailAttachment(part.getFileName(), part.getInputStream(), mimeType));
+            // Content of attachment is read from the part only when it's requested
+            result.add(new EmailAttachment(part.getFileName(), () -> openStream(part), -1, mimeType));
 
         } else if (part.getContent() instanceof Part) {
             result.addAll(extractAttachments((Part) part.getContent()));
@@ -485,6 +490,14 @@ public class MimeMessageConverter extends MessageConverter<Message> {
         return charset;
     }
 
+    private static InputStream openStream(Part part) throws IOException {
+        try {
+            return part.getInputStream();
+        } catch (MessagingException e) {
+            throw new IOException(e);
+        }
+    }
+
     private static String formatContentId(EmailAttachment attachment) {
         return "<" + attachment.getFileName() + ">";
     }
@@ -532,4 +545,37 @@ public class MimeMessageConverter extends MessageConverter<Message> {
                 String.format("<div>%s</div>", String.join("\n<br>\n", header))
                 : String.join("\n", header);
     }
+
+    private static class AttachmentDataSource implements DataSource {
+
+        private final EmailAttachment attachment;
+
+        AttachmentDataSource(EmailAttachment attachment) {
+            this.attachment = attachment;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return attachment.getInputStream();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            throw new UnsupportedOperationException("Content of attachment cannot be modified.");
+        }
+
+        @Override
+        public String getContentType() {
+            return attachment.getMimeType();
+        }
+
+        @Override
+        public String getName() {
+            return attachment.getFileName();
+        }
+    }
 }
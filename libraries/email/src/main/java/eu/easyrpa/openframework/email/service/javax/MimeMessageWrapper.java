@@ -1,6 +1,8 @@
 package eu.easyrpa.openframework.email.service.javax;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import eu.easyrpa.openframework.core.model.FileData;
+import eu.easyrpa.openframework.core.utils.SpoolingOutputStream;
 import eu.easyrpa.openframework.email.EmailMessage;
 import eu.easyrpa.openframework.email.EmailSender;
 import eu.easyrpa.openframework.email.exception.EmailMessagingException;
@@ -23,11 +25,17 @@ import javax.mail.MessagingException;
 import javax.mail.UIDFolder;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
+import javax.mail.util.SharedByteArrayInputStream;
+import javax.mail.util.SharedFileInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,6 +44,8 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Special implementation of {@link EmailMessage} that wraps related {@link MimeMessage} and provides read-only
@@ -46,6 +56,33 @@ public class MimeMessageWrapper extends EmailMessage {
     @JsonIgnore
     private MimeMessage mimeMessage;
 
+    /**
+     * Spooled contents of big messages that are not released yet. The content is released explicitly when
+     * the wrapper is closed, otherwise when the message parsed from the content is garbage collected or
+     * at JVM exit at the latest.
+     */
+    private static final Set<SpoolReference> SPOOL_REFERENCES = ConcurrentHashMap.newKeySet();
+
+    private static final ReferenceQueue<MimeMessage> COLLECTED_MESSAGES = new ReferenceQueue<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (SpoolReference reference : SPOOL_REFERENCES) {
+                reference.release();
+            }
+        }, "email-spool-cleanup"));
+    }
+
+    /**
+     * Message parsed from spooled content. It's kept here since parts of the message refer to the spooled content
+     * even if the message has been replaced with converted one.
+     */
+    @JsonIgnore
+    private MimeMessage spooledMessage;
+
+    @JsonIgnore
+    private SpoolReference spoolReference;
+
     public MimeMessageWrapper(MimeMessage message) {
         try {
             Folder folder = message.getFolder();
@@ -53,7 +90,7 @@ public class MimeMessageWrapper extends EmailMessage {
                 id = String.valueOf(((UIDFolder) folder).getUID(message));
                 parentFolder = folder.getFullName();
             }
-            this.mimeMessage = new MimeMessage(message);
+            this.mimeMessage = copyMessage(message);
 
             List<EmailAttachment> attachments = MimeMessageConverter.extractAttachments(this.mimeMessage);
             if (attachments.size() == 1 && TNEFUtils.isTNEFMimeType(attachments.get(0).getMimeType())) {
@@ -62,10 +99,53 @@ public class MimeMessageWrapper extends EmailMessage {
                         new TNEFInputStream(attachments.get(0).getInputStream()));
             }
         } catch (Exception e) {
+            try {
+                close();
+            } catch (Exception ex) {
+                e.addSuppressed(ex);
+            }
             throw new EmailMessagingException(e);
         }
     }
 
+    /**
+     * Makes detached copy of given message. The copy is parsed from shared stream so its parts refer to ranges
+     * of this stream instead of keeping own copies of content. Content of big messages is spooled into
+     * temporary file to avoid keeping of it in memory. The file is deleted when this wrapper is closed or
+     * the copy is garbage collected.
+     */
+    private MimeMessage copyMessage(MimeMessage message) throws MessagingException, IOException {
+        releaseCollectedSpools();
+
+        SpoolingOutputStream spool = new SpoolingOutputStream(FileData.DEFAULT_SPOOL_THRESHOLD);
+        try {
+            message.writeTo(spool);
+        } finally {
+            spool.close();
+        }
+
+        MimeMessage copy;
+        if (spool.isInMemory()) {
+            copy = new MimeMessage(message.getSession(), new SharedByteArrayInputStream(spool.toByteArray()));
+        } else {
+            SharedFileInputStream sharedStream = null;
+            try {
+                sharedStream = new SharedFileInputStream(spool.getFile().toFile());
+                copy = new MimeMessage(message.getSession(), sharedStream);
+            } catch (MessagingException | IOException | RuntimeException e) {
+                if (sharedStream != null) {
+                    sharedStream.close();
+                }
+                Files.deleteIfExists(spool.getFile());
+                throw e;
+            }
+            spooledMessage = copy;
+            spoolReference = new SpoolReference(copy, sharedStream, spool.getFile());
+        }
+        copy.setFlags(message.getFlags(), true);
+        return copy;
+    }
+
     @Override
     public Date getDate() {
         if (date == null) {
@@ -561,6 +641,78 @@ public class MimeMessageWrapper extends EmailMessage {
         throw new UnsupportedOperationException("Retrieved from mailbox message cannot be resend.");
     }
 
+    /**
+     * Closes the stream with content of the message and deletes temporary file with spooled content if any.
+     * Content of the message that has not been read yet is not accessible after that. If the wrapper is not closed
+     * explicitly, these resources are released after the message and its attachments are garbage collected.
+     *
+     * @throws EmailMessagingException if some of resources cannot be released.
+     */
+    @Override
+    public void close() {
+        super.close();
+        if (spoolReference != null) {
+            try {
+                spoolReference.release();
+            } finally {
+                spoolReference = null;
+                spooledMessage = null;
+            }
+        }
+    }
+
+    /**
+     * Releases spooled contents of messages that have been garbage collected without closing of their wrappers.
+     */
+    private static void releaseCollectedSpools() {
+        Reference<? extends MimeMessage> reference;
+        while ((reference = COLLECTED_MESSAGES.poll()) != null) {
+            try {
+                ((SpoolReference) reference).release();
+            } catch (Exception e) {
+                //do nothing
+            }
+        }
+    }
+
+    /**
+     * Spooled content of big message that is tracked until the message parsed from it becomes unreachable.
+     */
+    private static class SpoolReference extends PhantomReference<MimeMessage> {
+
+        private final SharedFileInputStream sharedStream;
+
+        private final Path spoolFile;
+
+        private SpoolReference(MimeMessage message, SharedFileInputStream sharedStream, Path spoolFile) {
+            super(message, COLLECTED_MESSAGES);
+            this.sharedStream = sharedStream;
+            this.spoolFile = spoolFile;
+            SPOOL_REFERENCES.add(this);
+        }
+
+        /**
+         * Closes the stream with spooled content and deletes the temporary file.
+         *
+         * @throws EmailMessagingException if some of resources cannot be released.
+         */
+        private void release() {
+            if (!SPOOL_REFERENCES.remove(this)) {
+                return;
+            }
+            clear();
+            try {
+                try {
+                    sharedStream.close();
+                } finally {
+                    Files.deleteIfExists(spoolFile);
+                }
+            } catch (IOException e) {
+                throw new EmailMessagingException(e);
+            }
+        }
+    }
+
     MimeMessage getMimeMessage() {
         return mimeMessage;
     }
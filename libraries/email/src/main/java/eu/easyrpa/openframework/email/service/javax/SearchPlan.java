@@ -0,0 +1,199 @@
+package eu.easyrpa.openframework.email.service.javax;
+
+import eu.easyrpa.openframework.email.search.SearchQuery;
+
+import javax.mail.Flags;
+import javax.mail.Message;
+import javax.mail.search.AndTerm;
+import javax.mail.search.BodyTerm;
+import javax.mail.search.ComparisonTerm;
+import javax.mail.search.DateTerm;
+import javax.mail.search.FlagTerm;
+import javax.mail.search.FromStringTerm;
+import javax.mail.search.HeaderTerm;
+import javax.mail.search.NotTerm;
+import javax.mail.search.OrTerm;
+import javax.mail.search.RecipientStringTerm;
+import javax.mail.search.SearchTerm;
+import javax.mail.search.StringTerm;
+import javax.mail.search.SubjectTerm;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Describes how {@link SearchQuery} is evaluated. The server term is sent to the server as IMAP SEARCH command
+ * and selects superset of satisfying messages. The client term is checked for each message selected by
+ * the server and filters out the rest of unsatisfying messages.
+ */
+public class SearchPlan {
+
+    private final SearchTerm serverTerm;
+
+    private final SearchTerm clientTerm;
+
+    public SearchPlan(SearchTerm serverTerm, SearchTerm clientTerm) {
+        this.serverTerm = serverTerm;
+        this.clientTerm = clientTerm;
+    }
+
+    /**
+     * @return term evaluated by the server or <code>null</code> if all messages should be taken.
+     */
+    public SearchTerm getServerTerm() {
+        return serverTerm;
+    }
+
+    /**
+     * @return term evaluated on the client side or <code>null</code> if messages selected by the server don't
+     * require additional checking.
+     */
+    public SearchTerm getClientTerm() {
+        return clientTerm;
+    }
+
+    /**
+     * Checks whether the client term requires whole content of messages. Otherwise it's evaluated based on
+     * envelope and flags of messages.
+     *
+     * @return <code>true</code> if the whole content of messages should be retrieved for client side checking.
+     */
+    public boolean isContentRequired() {
+        return clientTerm != null && isContentRequired(clientTerm);
+    }
+
+    /**
+     * Gets human readable description of this plan. The server part is described using IMAP SEARCH syntax.
+     *
+     * @return description of this plan.
+     */
+    public String explain() {
+        return String.format("Server: %s%nClient: %s",
+                serverTerm != null ? describe(serverTerm, true) : "ALL",
+                clientTerm != null ? describe(clientTerm, false) : "none");
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    private static boolean isContentRequired(SearchTerm term) {
+        if (term instanceof AndTerm) {
+            return Arrays.stream(((AndTerm) term).getTerms()).anyMatch(SearchPlan::isContentRequired);
+        } else if (term instanceof OrTerm) {
+            return Arrays.stream(((OrTerm) term).getTerms()).anyMatch(SearchPlan::isContentRequired);
+        } else if (term instanceof NotTerm) {
+            return isContentRequired(((NotTerm) term).getTerm());
+        }
+        return !(term instanceof DateTerm || term instanceof FlagTerm || term instanceof FromStringTerm
+                || term instanceof RecipientStringTerm || term instanceof SubjectTerm);
+    }
+
+    private static String describe(SearchTerm term, boolean onServer) {
+        if (term instanceof AndTerm) {
+            return Arrays.stream(((AndTerm) term).getTerms()).map(t -> describe(t, onServer))
+                    .collect(Collectors.joining(" ", "(", ")"));
+        } else if (term instanceof OrTerm) {
+            SearchTerm[] terms = ((OrTerm) term).getTerms();
+            String result = describe(terms[0], onServer);
+            for (int i = 1; i < terms.length; i++) {
+                result = String.format("OR %s %s", result, describe(terms[i], onServer));
+            }
+            return result;
+        } else if (term instanceof NotTerm) {
+            return "NOT " + describe(((NotTerm) term).getTerm(), onServer);
+        } else if (term instanceof FromStringTerm) {
+            return String.format("FROM \"%s\"", ((StringTerm) term).getPattern());
+        } else if (term instanceof RecipientStringTerm) {
+            RecipientStringTerm recipientTerm = (RecipientStringTerm) term;
+            String field = recipientTerm.getRecipientType() == Message.RecipientType.CC ? "CC"
+                    : recipientTerm.getRecipientType() == Message.RecipientType.BCC ? "BCC" : "TO";
+            return String.format("%s \"%s\"", field, recipientTerm.getPattern());
+        } else if (term instanceof HeaderTerm) {
+            HeaderTerm headerTerm = (HeaderTerm) term;
+            return String.format("HEADER %s \"%s\"", headerTerm.getHeaderName(), headerTerm.getPattern());
+        } else if (term instanceof SubjectTerm) {
+            return String.format("SUBJECT \"%s\"", ((StringTerm) term).getPattern());
+        } else if (term instanceof BodyTerm) {
+            return String.format("BODY \"%s\"", ((StringTerm) term).getPattern());
+        } else if (term instanceof FlagTerm) {
+            return describe((FlagTerm) term);
+        } else if (term instanceof DateTerm) {
+            return describe((DateTerm) term, onServer);
+        } else if (term instanceof SearchTermConverter.ComplexSearchTerm) {
+            return "<complex condition>";
+        }
+        return String.format("<%s>", term.getClass().getSimpleName());
+    }
+
+    private static String describe(FlagTerm term) {
+        boolean isSet = term.getTestSet();
+        List<String> keys = new ArrayList<>();
+        for (Flags.Flag flag : term.getFlags().getSystemFlags()) {
+            if (flag == Flags.Flag.RECENT) {
+                keys.add(isSet ? "RECENT" : "OLD");
+            } else if (flag != Flags.Flag.USER) {
+                String key = flag == Flags.Flag.ANSWERED ? "ANSWERED"
+                        : flag == Flags.Flag.DELETED ? "DELETED"
+                        : flag == Flags.Flag.DRAFT ? "DRAFT"
+                        : flag == Flags.Flag.FLAGGED ? "FLAGGED"
+                        : "SEEN";
+                keys.add(isSet ? key : "UN" + key);
+            }
+        }
+        for (String userFlag : term.getFlags().getUserFlags()) {
+            keys.add((isSet ? "KEYWORD " : "UNKEYWORD ") + userFlag);
+        }
+        if (keys.isEmpty()) {
+            return "ALL";
+        }
+        return keys.size() == 1 ? keys.get(0) : keys.stream().collect(Collectors.joining(" ", "(", ")"));
+    }
+
+    private static String describe(DateTerm term, boolean onServer) {
+        if (onServer) {
+            // The server compares dates only without time
+            String date = new SimpleDateFormat("d-MMM-yyyy", Locale.ENGLISH).format(term.getDate());
+            switch (term.getComparison()) {
+                case ComparisonTerm.LT:
+                    return "BEFORE " + date;
+                case ComparisonTerm.GE:
+                    return "SINCE " + date;
+                case ComparisonTerm.EQ:
+                    return "ON " + date;
+                case ComparisonTerm.LE:
+                    return String.format("OR BEFORE %s ON %s", date, date);
+                case ComparisonTerm.GT:
+                    return String.format("NOT ON %s SINCE %s", date, date);
+                default:
+                    return "NOT ON " + date;
+            }
+        }
+        String operator;
+        switch (term.getComparison()) {
+            case ComparisonTerm.LT:
+                operator = "<";
+                break;
+            case ComparisonTerm.LE:
+                operator = "<=";
+                break;
+            case ComparisonTerm.GT:
+                operator = ">";
+                break;
+            case ComparisonTerm.GE:
+                operator = ">=";
+                break;
+            case ComparisonTerm.NE:
+                operator = "!=";
+                break;
+            default:
+                operator = "=";
+        }
+        return String.format("RECEIVED %s %s", operator,
+                new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(term.getDate()));
+    }
+}
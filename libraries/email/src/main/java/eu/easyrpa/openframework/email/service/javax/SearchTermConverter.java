@@ -2,6 +2,7 @@ package eu.easyrpa.openframework.email.service.javax;
 
 import eu.easyrpa.openframework.email.EmailMessage;
 import eu.easyrpa.openframework.email.search.ComparisonCondition;
+import eu.easyrpa.openframework.email.search.ComplexCondition;
 import eu.easyrpa.openframework.email.search.LogicalCondition;
 import eu.easyrpa.openframework.email.search.SearchCondition;
 import eu.easyrpa.openframework.email.search.SearchQuery;
@@ -20,6 +21,10 @@ import java.util.function.Predicate;
 
 /**
  * Converts of {@link SearchQuery} to {@link SearchTerm}.
+ * <p>
+ * Conditions are converted into terms that are evaluated by IMAP server as far as possible. Only conditions that
+ * cannot be evaluated by the server exactly are checked on the client side for messages selected by the server.
+ * These are complex conditions and date conditions since the server compares dates without time.
  */
 public class SearchTermConverter {
 
@@ -29,22 +34,37 @@ public class SearchTermConverter {
         this.messageConverter = messageConverter;
     }
 
+    /**
+     * Converts given query into single term that is evaluated by the server and on the client side.
+     *
+     * @param query the query to convert.
+     * @return the term corresponding to the query or <code>null</code> if the query doesn't contain any conditions.
+     */
     public SearchTerm convert(SearchQuery query) {
-        if (query.getComplexCondition() != null) {
-            return new ComplexSearchTerm(query.getComplexCondition());
-        }
-        return convert(query.getCondition());
+        SearchPlan plan = plan(query);
+        return and(plan.getServerTerm(), plan.getClientTerm());
+    }
+
+    /**
+     * Splits given query into the part evaluated by the server and the part evaluated on the client side.
+     *
+     * @param query the query to convert.
+     * @return the plan of query evaluation.
+     */
+    public SearchPlan plan(SearchQuery query) {
+        Translation translation = translate(query.getCondition());
+        return new SearchPlan(translation.serverTerm, translation.clientTerm);
     }
 
-    private SearchTerm convert(SearchCondition searchCondition) {
-        SearchTerm searchTerm = null;
+    private Translation translate(SearchCondition searchCondition) {
         if (searchCondition instanceof ComparisonCondition) {
             ComparisonCondition condition = (ComparisonCondition) searchCondition;
 
             if (condition.getValue() == null) {
-                return null;
+                return Translation.ANY;
             }
 
+            SearchTerm searchTerm = null;
             switch (condition.getField()) {
                 case FROM:
                     searchTerm = getCaseInsensitiveContainsTerm(condition, FromStringTerm::new);
@@ -62,8 +82,7 @@ public class SearchTermConverter {
                     searchTerm = getCaseInsensitiveContainsTerm(condition, v -> new HeaderTerm(condition.getFieldName(), v));
                     break;
                 case DATE:
-                    searchTerm = getDateTerm(condition);
-                    break;
+                    return getDateTranslation(condition);
                 case SUBJECT:
                     searchTerm = getCaseInsensitiveContainsTerm(condition, SubjectTerm::new);
                     break;
@@ -78,30 +97,48 @@ public class SearchTermConverter {
                     break;
             }
 
+            if (searchTerm == null) {
+                return Translation.ANY;
+            }
             if (condition.isNegative()) {
                 searchTerm = new NotTerm(searchTerm);
             }
+            return new Translation(searchTerm, null);
 
         } else if (searchCondition instanceof LogicalCondition) {
             LogicalCondition condition = (LogicalCondition) searchCondition;
 
-            SearchTerm leftTerm = convert(condition.getLeft());
-            SearchTerm rightTerm = convert(condition.getRight());
+            Translation left = translate(condition.getLeft());
+            Translation right = translate(condition.getRight());
 
-            switch (condition.getLogicalType()) {
-                case AND:
-                    searchTerm = new AndTerm(leftTerm, rightTerm);
-                    break;
-                case OR:
-                    searchTerm = new OrTerm(leftTerm, rightTerm);
-                    break;
+            if (condition.getLogicalType() == LogicalCondition.LogicalType.AND) {
+                return new Translation(and(left.serverTerm, right.serverTerm), and(left.clientTerm, right.clientTerm));
             }
+
+            if (left.clientTerm == null && right.clientTerm == null) {
+                return new Translation(or(left.serverTerm, right.serverTerm), null);
+            }
+            // The server selects superset of messages satisfying to any part. Since client checking of one part
+            // cannot be separated from server checking of it the whole condition is checked on the client side.
+            SearchTerm leftTerm = left.toTerm();
+            SearchTerm rightTerm = right.toTerm();
+            if (leftTerm == null || rightTerm == null) {
+                return Translation.ANY;
+            }
+            return new Translation(or(left.serverTerm, right.serverTerm), new OrTerm(leftTerm, rightTerm));
+
+        } else if (searchCondition instanceof ComplexCondition) {
+            return new Translation(null, new ComplexSearchTerm(((ComplexCondition) searchCondition).getPredicate()));
         }
 
-        return searchTerm;
+        return Translation.ANY;
     }
 
-    private SearchTerm getDateTerm(ComparisonCondition condition) {
+    /**
+     * The server compares dates without time and using its own time zone. So the server selects messages using
+     * one day margin and exact comparison is performed on the client side.
+     */
+    private Translation getDateTranslation(ComparisonCondition condition) {
         Date date = null;
         Object value = condition.getValue();
 
@@ -115,11 +152,45 @@ public class SearchTermConverter {
             date = Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
         }
 
-        int comparison = condition.getComparisonType() == ComparisonCondition.ComparisonType.BEFORE
-                ? ReceivedDateTerm.LE
-                : ReceivedDateTerm.GE;
+        if (date == null) {
+            return Translation.ANY;
+        }
+
+        // BEFORE means received at given time or earlier and AFTER means received at given time or later.
+        // Negated conditions are strict complements of them.
+        boolean isBefore = condition.getComparisonType() == ComparisonCondition.ComparisonType.BEFORE;
+        int comparison;
+        if (condition.isNegative()) {
+            comparison = isBefore ? ComparisonTerm.GT : ComparisonTerm.LT;
+            isBefore = !isBefore;
+        } else {
+            comparison = isBefore ? ComparisonTerm.LE : ComparisonTerm.GE;
+        }
 
-        return new ReceivedDateTerm(comparison, date);
+        LocalDate day = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        if (isBefore) {
+            Date serverDate = Date.from(day.plusDays(2).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            return new Translation(new ReceivedDateTerm(ComparisonTerm.LT, serverDate),
+                    new ReceivedDateTerm(comparison, date));
+        }
+        Date serverDate = Date.from(day.minusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return new Translation(new ReceivedDateTerm(ComparisonTerm.GE, serverDate),
+                new ReceivedDateTerm(comparison, date));
+    }
+
+    private static SearchTerm and(SearchTerm left, SearchTerm right) {
+        if (left == null) {
+            return right;
+        }
+        return right != null ? new AndTerm(left, right) : left;
+    }
+
+    /**
+     * @return <code>null</code> if any of terms is <code>null</code> since it means that all messages satisfy
+     * to it.
+     */
+    private static SearchTerm or(SearchTerm left, SearchTerm right) {
+        return left != null && right != null ? new OrTerm(left, right) : null;
     }
 
     private SearchTerm getCaseInsensitiveContainsTerm(ComparisonCondition condition,
@@ -154,6 +225,28 @@ public class SearchTermConverter {
         }
     }
 
+    /**
+     * Result of translation of search condition. The condition is satisfied if both terms are satisfied.
+     * <code>null</code> term is satisfied by any message.
+     */
+    private static class Translation {
+
+        private static final Translation ANY = new Translation(null, null);
+
+        private final SearchTerm serverTerm;
+
+        private final SearchTerm clientTerm;
+
+        private Translation(SearchTerm serverTerm, SearchTerm clientTerm) {
+            this.serverTerm = serverTerm;
+            this.clientTerm = clientTerm;
+        }
+
+        private SearchTerm toTerm() {
+            return and(serverTerm, clientTerm);
+        }
+    }
+
     public class ComplexSearchTerm extends SearchTerm {
 
         private final Predicate<EmailMessage> condition;
@@ -164,7 +257,10 @@ public class SearchTermConverter {
 
         @Override
         public boolean match(Message msg) {
-            return condition.test(SearchTermConverter.this.messageConverter.convertToEmailMessage(msg));
+            // The message is converted only to check the condition so its content is released right after that
+            try (EmailMessage message = SearchTermConverter.this.messageConverter.convertToEmailMessage(msg)) {
+                return condition.test(message);
+            }
         }
     }
 
@@ -2,21 +2,55 @@ package eu.easyrpa.openframework.email.service.javax;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPSenderFailedException;
 import eu.easyrpa.openframework.email.EmailMessage;
 import eu.easyrpa.openframework.email.exception.EmailMessagingException;
 import eu.easyrpa.openframework.email.service.EmailServiceSecret;
 import eu.easyrpa.openframework.email.service.MessageConverter;
 import eu.easyrpa.openframework.email.service.OutboundEmailProtocol;
 import eu.easyrpa.openframework.email.service.OutboundEmailService;
+import eu.easyrpa.openframework.email.service.SendResult;
 
 import javax.mail.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Implementation of outbound email service that is working based on SMTP protocol.
  */
 public class SmtpEmailService implements OutboundEmailService {
 
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    public static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    /**
+     * Pools of transport connections shared between services that work with the same email account.
+     */
+    private static final Map<String, TransportPool> TRANSPORT_POOLS = new ConcurrentHashMap<>();
+
+    private static final int MAX_SENDER_THREADS = 16;
+
+    private static final ExecutorService SEND_EXECUTOR = createSendExecutor();
+
     private final String host;
 
     private final String port;
@@ -29,8 +63,14 @@ public class SmtpEmailService implements OutboundEmailService {
 
     private final Session session;
 
+    private final TransportPool transportPool;
+
     private MessageConverter<Message> messageConverter;
 
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+
+    private Duration retryBackoff = DEFAULT_RETRY_BACKOFF;
+
     public SmtpEmailService(String server, OutboundEmailProtocol protocol, String secret) {
 
         if (server.contains(":")) {
@@ -54,6 +94,12 @@ public class SmtpEmailService implements OutboundEmailService {
 
         this.session = Session.getInstance(getConfigurationFor(protocol), null);
         this.messageConverter = new MimeMessageConverter(this.session);
+
+        String poolKey = String.format("%s://%s@%s:%s#%s", protocol.getProtocolName(), user, host, port,
+                password != null ? password.hashCode() : 0);
+        this.transportPool = TRANSPORT_POOLS.compute(poolKey, (key, pool) -> pool != null && !pool.isClosed()
+                ? pool
+                : new TransportPool(this.session, protocol.getProtocolName(), user, password));
     }
 
     public String getHost() {
@@ -80,26 +126,238 @@ public class SmtpEmailService implements OutboundEmailService {
         this.messageConverter = messageConverter;
     }
 
+    /**
+     * Gets pool of authenticated transport connections that are used by this service. The pool is shared between
+     * services that work with the same email account. It allows to configure amount of parallel connections and
+     * limit the rate of sending.
+     *
+     * @return pool of transport connections.
+     */
+    public TransportPool getTransportPool() {
+        return transportPool;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets amount of repeated attempts to send the message when the server rejects it temporarily
+     * (4xx response) or the connection is broken.
+     *
+     * @param maxRetries amount of repeated attempts. 0 disables retrying.
+     * @throws IllegalArgumentException if amount is negative.
+     */
+    public void setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Max retries must not be negative.");
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * Sets delay before the first repeated attempt to send the message. The delay is doubled for each next attempt.
+     *
+     * @param retryBackoff the delay before the first repeated attempt.
+     * @throws IllegalArgumentException if delay is not specified or negative.
+     */
+    public void setRetryBackoff(Duration retryBackoff) {
+        if (retryBackoff == null || retryBackoff.isNegative()) {
+            throw new IllegalArgumentException("Retry backoff must not be negative.");
+        }
+        this.retryBackoff = retryBackoff;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The message is sent using connection of the transport pool. Temporary failures are retried with backoff.
+     */
     @Override
     public void send(EmailMessage message) throws EmailMessagingException {
-        if (message.getSender() == null) {
-            message.setSender(this.user);
-            message.excludeFromRecipients(this.user);
-            message.excludeFromCcRecipients(this.user);
+        SendResult result = sendWithRetries(message, null);
+        if (!result.isSent()) {
+            throw result.getError();
         }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Messages are sent in parallel through connections of the transport pool. Amount of parallel workers is
+     * limited by amount of connections of the pool. Each message is converted only when it's taken by a worker
+     * so only few messages are kept in native form at a time. Temporary failures are retried with backoff and
+     * the rate of sending is limited according to settings of the pool. Preparation of messages is performed by
+     * workers as well.
+     */
+    @Override
+    public List<SendResult> send(Collection<? extends EmailMessage> messages, Consumer<EmailMessage> preparation) {
+        List<EmailMessage> messageList = new ArrayList<>(messages);
+        SendResult[] results = new SendResult[messageList.size()];
+        int parallelism = Math.min(messageList.size(), transportPool.getMaxConnections());
+        if (parallelism == 0) {
+            return new ArrayList<>();
+        }
+
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        Runnable worker = () -> {
+            int index;
+            while (!stopped.get() && (index = nextIndex.getAndIncrement()) < messageList.size()) {
+                results[index] = sendWithRetries(messageList.get(index), preparation);
+            }
+        };
 
-        Message nativeMessage = this.messageConverter.convertToNativeMessage(message);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < parallelism; i++) {
+            futures.add(SEND_EXECUTOR.submit(worker));
+        }
+        RuntimeException error = null;
+        try {
+            worker.run();
+        } catch (RuntimeException e) {
+            stopped.set(true);
+            error = e;
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                stopped.set(true);
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new EmailMessagingException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                stopped.set(true);
+                Thread.currentThread().interrupt();
+                throw new EmailMessagingException("Sending of email messages is interrupted.");
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return Arrays.asList(results);
+    }
 
-        try (Transport transport = this.session.getTransport(protocol.getProtocolName())) {
-            Address[] recipients = nativeMessage.getAllRecipients();
-            if (recipients == null || recipients.length == 0) {
-                throw new EmailMessagingException("No email recipients specified.");
+    /**
+     * Prepares and sends given message retrying temporary failures. Errors of preparation and sending are returned
+     * within the result.
+     *
+     * @throws EmailMessagingException if waiting between attempts is interrupted.
+     */
+    private SendResult sendWithRetries(EmailMessage message, Consumer<EmailMessage> preparation) {
+        Message nativeMessage;
+        Address[] recipients;
+        try {
+            if (preparation != null) {
+                preparation.accept(message);
+            }
+            if (message.getSender() == null) {
+                message.setSender(this.user);
+                message.excludeFromRecipients(this.user);
+                message.excludeFromCcRecipients(this.user);
             }
-            transport.connect(this.user, this.password);
-            transport.sendMessage(nativeMessage, recipients);
+            nativeMessage = this.messageConverter.convertToNativeMessage(message);
+            recipients = nativeMessage.getAllRecipients();
         } catch (MessagingException e) {
-            throw new EmailMessagingException(e);
+            return new SendResult(message, 0, new EmailMessagingException(e));
+        } catch (RuntimeException e) {
+            return new SendResult(message, 0, OutboundEmailService.toEmailMessagingException(e));
+        }
+        if (recipients == null || recipients.length == 0) {
+            return new SendResult(message, 0, new EmailMessagingException("No email recipients specified."));
         }
+
+        long backoff = retryBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            transportPool.awaitSendPermit();
+            try {
+                transportPool.perform(transport -> {
+                    try {
+                        transport.getTransport().sendMessage(nativeMessage, recipients);
+                        return null;
+                    } catch (MessagingException e) {
+                        int returnCode = getReturnCode(e);
+                        if (returnCode < 0 || returnCode == 421) {
+                            // The connection is broken or closed by the server
+                            transport.invalidate();
+                        }
+                        throw new EmailMessagingException(e);
+                    }
+                });
+                return new SendResult(message, attempt, null);
+            } catch (EmailMessagingException e) {
+                if (attempt > maxRetries || !isTemporaryFailure(e)) {
+                    return new SendResult(message, attempt, e);
+                }
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EmailMessagingException("Waiting before retry of sending of email message is interrupted.");
+            }
+            backoff *= 2;
+        }
+    }
+
+    /**
+     * Checks whether sending has failed because of temporary reasons and can be retried. It's the case when
+     * the server responds with 4xx code or the connection has been broken.
+     */
+    private boolean isTemporaryFailure(EmailMessagingException error) {
+        if (!(error.getCause() instanceof MessagingException)) {
+            return false;
+        }
+        MessagingException cause = (MessagingException) error.getCause();
+        int returnCode = getReturnCode(cause);
+        if (returnCode >= 0) {
+            return returnCode >= 400 && returnCode < 500;
+        }
+        for (Throwable e = cause; e != null; e = e.getCause()) {
+            if (e instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the worst SMTP return code among given exception and exceptions chained to it. Failed recipients are
+     * reported as chain of exceptions with own return codes.
+     *
+     * @return the highest return code or -1 if the failure is not related to response of the server.
+     */
+    private int getReturnCode(MessagingException error) {
+        int returnCode = -1;
+        for (Exception e = error; e != null;
+             e = e instanceof MessagingException ? ((MessagingException) e).getNextException() : null) {
+            if (e instanceof SMTPSendFailedException) {
+                returnCode = Math.max(returnCode, ((SMTPSendFailedException) e).getReturnCode());
+            } else if (e instanceof SMTPAddressFailedException) {
+                returnCode = Math.max(returnCode, ((SMTPAddressFailedException) e).getReturnCode());
+            } else if (e instanceof SMTPSenderFailedException) {
+                returnCode = Math.max(returnCode, ((SMTPSenderFailedException) e).getReturnCode());
+            }
+        }
+        return returnCode;
+    }
+
+    private static ExecutorService createSendExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_SENDER_THREADS, MAX_SENDER_THREADS,
+                1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "email-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     private Properties getConfigurationFor(OutboundEmailProtocol protocol) {
@@ -0,0 +1,485 @@
+package eu.easyrpa.openframework.email.service.javax;
+
+import com.sun.mail.imap.IMAPFolder;
+import eu.easyrpa.openframework.email.exception.EmailMessagingException;
+
+import javax.mail.Folder;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Store;
+import javax.mail.StoreClosedException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Pool of authenticated connections to the mailbox store that keeps opened folders of IMAP stores between
+ * operations.
+ * <p>
+ * Each connection is used by one thread at a time. Connections that are not used longer than idle timeout are
+ * closed. Idle connections and their opened folders are checked periodically which keeps them alive on the server
+ * (IMAP store and folders send NOOP command for this). To avoid extra requests to the server for each operation,
+ * connections are checked before they are given out only if they have not been used or checked within keep alive
+ * interval. Connections that have been lost during an operation are discarded instead of returning into the pool,
+ * so they are reopened transparently by the next operation.
+ * <p>
+ * Folders of POP3 stores are not kept opened since POP3 folder doesn't see new messages until it's reopened.
+ */
+public class StorePool implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+    public static final int DEFAULT_MAX_OPEN_FOLDERS = 2;
+
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    public static final Duration DEFAULT_KEEP_ALIVE_INTERVAL = Duration.ofMinutes(1);
+
+    public static final Duration DEFAULT_BORROW_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Session session;
+
+    private final String protocolName;
+
+    private final String user;
+
+    private final String password;
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+    private int maxOpenFolders = DEFAULT_MAX_OPEN_FOLDERS;
+
+    private Duration idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    private Duration keepAliveInterval = DEFAULT_KEEP_ALIVE_INTERVAL;
+
+    private Duration borrowTimeout = DEFAULT_BORROW_TIMEOUT;
+
+    private final Deque<PooledStore> idleStores = new ArrayDeque<>();
+
+    private int storesCount;
+
+    private ScheduledExecutorService keepAliveExecutor;
+
+    private boolean closed;
+
+    public StorePool(Session session, String protocolName, String user, String password) {
+        this.session = session;
+        this.protocolName = protocolName;
+        this.user = user;
+        this.password = password;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("Max connections must be greater than zero.");
+        }
+        synchronized (this) {
+            this.maxConnections = maxConnections;
+            notifyAll();
+        }
+    }
+
+    public int getMaxOpenFolders() {
+        return maxOpenFolders;
+    }
+
+    public void setMaxOpenFolders(int maxOpenFolders) {
+        if (maxOpenFolders < 0) {
+            throw new IllegalArgumentException("Max open folders must not be negative.");
+        }
+        this.maxOpenFolders = maxOpenFolders;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        if (idleTimeout == null) {
+            throw new IllegalArgumentException("Idle timeout must be specified.");
+        }
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+
+    /**
+     * Sets period of checking of idle connections. Changes take effect when the pool is used next time after
+     * all its connections have been closed.
+     */
+    public void setKeepAliveInterval(Duration keepAliveInterval) {
+        if (keepAliveInterval == null || keepAliveInterval.isZero() || keepAliveInterval.isNegative()) {
+            throw new IllegalArgumentException("Keep alive interval must be positive.");
+        }
+        this.keepAliveInterval = keepAliveInterval;
+    }
+
+    public Duration getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    public void setBorrowTimeout(Duration borrowTimeout) {
+        if (borrowTimeout == null) {
+            throw new IllegalArgumentException("Borrow timeout must be specified.");
+        }
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Performs given action with connected store taken from this pool.
+     *
+     * @param action the action to perform.
+     * @param <T>    type of the action result.
+     * @return result of the action.
+     * @throws EmailMessagingException if connection to the store failed or there is no free connection within
+     *                                 borrow timeout.
+     */
+    public <T> T perform(Function<PooledStore, T> action) {
+        PooledStore store = borrow();
+        try {
+            return action.apply(store);
+        } catch (RuntimeException e) {
+            if (isCausedBy(e, StoreClosedException.class)) {
+                store.lost = true;
+            }
+            throw e;
+        } finally {
+            if (store.lost) {
+                discard(store);
+            } else {
+                release(store);
+            }
+        }
+    }
+
+    /**
+     * Performs given action with opened folder of connected store taken from this pool.
+     *
+     * @param folderName the full name of folder to open.
+     * @param mode       the mode in which the folder should be opened. {@link Folder#READ_ONLY} or
+     *                   {@link Folder#READ_WRITE}.
+     * @param action     the action to perform.
+     * @param <T>        type of the action result.
+     * @return result of the action.
+     * @throws EmailMessagingException if the folder doesn't exist or connection failed.
+     */
+    public <T> T performInFolder(String folderName, int mode, Function<Folder, T> action) {
+        return perform(store -> store.performInFolder(folderName, mode, action));
+    }
+
+    /**
+     * Closes all idle connections and stops keeping them alive. Connections that are used at the moment are
+     * closed when they are released.
+     */
+    @Override
+    public void close() {
+        List<PooledStore> stores;
+        synchronized (this) {
+            closed = true;
+            stores = new ArrayList<>(idleStores);
+            idleStores.clear();
+            storesCount -= stores.size();
+            stopKeepAlive();
+            notifyAll();
+        }
+        stores.forEach(PooledStore::close);
+    }
+
+    /**
+     * Opens a new connection to the store which is not managed by this pool. It's intended for long-running
+     * operations that would hold a pooled connection too long, e.g. watching of folders.
+     *
+     * @return a new connected store. It should be closed by the caller.
+     * @throws EmailMessagingException if connection to the store failed.
+     */
+    Store openStore() {
+        return connect();
+    }
+
+    private PooledStore borrow() {
+        long deadline = System.currentTimeMillis() + borrowTimeout.toMillis();
+        while (true) {
+            PooledStore store = null;
+            synchronized (this) {
+                while (true) {
+                    if (closed) {
+                        throw new EmailMessagingException("Email store pool is closed.");
+                    }
+                    store = idleStores.pollFirst();
+                    if (store != null || storesCount < maxConnections) {
+                        break;
+                    }
+                    long waitTime = deadline - System.currentTimeMillis();
+                    if (waitTime <= 0) {
+                        throw new EmailMessagingException(String.format(
+                                "There is no free email store connection within %s.", borrowTimeout));
+                    }
+                    try {
+                        wait(waitTime);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new EmailMessagingException("Waiting of free email store connection is interrupted.");
+                    }
+                }
+                if (store == null) {
+                    storesCount++;
+                    startKeepAlive();
+                }
+            }
+
+            if (store == null) {
+                try {
+                    return new PooledStore(connect());
+                } catch (RuntimeException e) {
+                    discard(null);
+                    throw e;
+                }
+            }
+            if (System.currentTimeMillis() - store.lastChecked < keepAliveInterval.toMillis() || store.isAlive()) {
+                return store;
+            }
+            discard(store);
+        }
+    }
+
+    private void release(PooledStore store) {
+        store.lastUsed = store.lastChecked = System.currentTimeMillis();
+        synchronized (this) {
+            if (!closed) {
+                idleStores.offerFirst(store);
+                notifyAll();
+                return;
+            }
+        }
+        discard(store);
+    }
+
+    private void discard(PooledStore store) {
+        if (store != null) {
+            store.close();
+        }
+        synchronized (this) {
+            storesCount--;
+            notifyAll();
+        }
+    }
+
+    private static boolean isCausedBy(Throwable error, Class<? extends Throwable> causeType) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (causeType.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Store connect() {
+        try {
+            Store store = session.getStore(protocolName);
+            store.connect(user, password);
+            if (!store.isConnected()) {
+                throw new EmailMessagingException("Email store connection failed.");
+            }
+            return store;
+        } catch (MessagingException e) {
+            throw new EmailMessagingException(e);
+        }
+    }
+
+    private void startKeepAlive() {
+        if (keepAliveExecutor == null) {
+            keepAliveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "email-store-pool");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = keepAliveInterval.toMillis();
+            keepAliveExecutor.scheduleWithFixedDelay(this::keepAlive, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void stopKeepAlive() {
+        if (keepAliveExecutor != null) {
+            keepAliveExecutor.shutdownNow();
+            keepAliveExecutor = null;
+        }
+    }
+
+    private void keepAlive() {
+        List<PooledStore> stores;
+        synchronized (this) {
+            stores = new ArrayList<>(idleStores);
+            idleStores.clear();
+        }
+        long expirationTime = System.currentTimeMillis() - idleTimeout.toMillis();
+        List<PooledStore> aliveStores = new ArrayList<>();
+        boolean isClosed;
+        for (PooledStore store : stores) {
+            if (store.lastUsed > expirationTime && store.isAlive()) {
+                aliveStores.add(store);
+            } else {
+                store.close();
+            }
+        }
+        synchronized (this) {
+            isClosed = closed;
+            storesCount -= stores.size() - aliveStores.size();
+            if (isClosed) {
+                storesCount -= aliveStores.size();
+            } else {
+                // Keep most recently used stores at the head
+                for (int i = aliveStores.size() - 1; i >= 0; i--) {
+                    idleStores.offerFirst(aliveStores.get(i));
+                }
+            }
+            notifyAll();
+        }
+        if (isClosed) {
+            aliveStores.forEach(PooledStore::close);
+        }
+        synchronized (this) {
+            if (storesCount == 0) {
+                stopKeepAlive();
+            }
+        }
+    }
+
+    /**
+     * Connected store of the pool with cache of its opened folders.
+     */
+    public class PooledStore {
+
+        private final Store store;
+
+        private final Map<String, Folder> openFolders = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long lastUsed = System.currentTimeMillis();
+
+        /**
+         * Time when the connection has been known to be alive last time.
+         */
+        private long lastChecked = lastUsed;
+
+        private boolean lost;
+
+        private PooledStore(Store store) {
+            this.store = store;
+        }
+
+        public Store getStore() {
+            return store;
+        }
+
+        /**
+         * Performs given action with opened folder of this store. The folder is kept opened after the action
+         * if it's possible. Kept opened folder is reused without checking since its connection is checked together
+         * with the store connection. If the folder has been closed by the server during the action it's
+         * not kept.
+         *
+         * @param folderName the full name of folder to open.
+         * @param mode       the mode in which the folder should be opened. {@link Folder#READ_ONLY} or
+         *                   {@link Folder#READ_WRITE}.
+         * @param action     the action to perform.
+         * @param <T>        type of the action result.
+         * @return result of the action.
+         * @throws EmailMessagingException if the folder doesn't exist.
+         */
+        public <T> T performInFolder(String folderName, int mode, Function<Folder, T> action) {
+            String key = mode + ":" + folderName;
+            Folder folder = openFolders.remove(key);
+            try {
+                if (folder == null) {
+                    folder = store.getFolder(folderName);
+                    if (!folder.exists()) {
+                        throw new EmailMessagingException(String.format("Folder '%s' does not exist.", folderName));
+                    }
+                    folder.open(mode);
+                }
+            } catch (MessagingException e) {
+                throw new EmailMessagingException(e);
+            }
+
+            try {
+                return action.apply(folder);
+            } finally {
+                if (folder instanceof IMAPFolder && maxOpenFolders > 0 && folder.isOpen()) {
+                    openFolders.put(key, folder);
+                    Iterator<Folder> it = openFolders.values().iterator();
+                    while (openFolders.size() > maxOpenFolders && it.hasNext()) {
+                        closeFolder(it.next());
+                        it.remove();
+                    }
+                } else {
+                    closeFolder(folder);
+                }
+            }
+        }
+
+        private boolean isAlive() {
+            if (!store.isConnected()) {
+                return false;
+            }
+            openFolders.values().removeIf(folder -> {
+                if (isAlive(folder)) {
+                    return false;
+                }
+                closeFolder(folder);
+                return true;
+            });
+            lastChecked = System.currentTimeMillis();
+            return true;
+        }
+
+        private boolean isAlive(Folder folder) {
+            try {
+                // For opened IMAP folder it sends NOOP to the server and refreshes amount of messages
+                folder.getMessageCount();
+                return folder.isOpen();
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private void closeFolder(Folder folder) {
+            try {
+                if (folder.isOpen()) {
+                    folder.close(false);
+                }
+            } catch (Exception e) {
+                //do nothing
+            }
+        }
+
+        private void close() {
+            openFolders.values().forEach(this::closeFolder);
+            openFolders.clear();
+            try {
+                if (store.isConnected()) {
+                    store.close();
+                }
+            } catch (Exception e) {
+                //do nothing
+            }
+        }
+    }
+}
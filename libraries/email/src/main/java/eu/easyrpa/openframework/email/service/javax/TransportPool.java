@@ -0,0 +1,357 @@
+package eu.easyrpa.openframework.email.service.javax;
+
+import eu.easyrpa.openframework.email.exception.EmailMessagingException;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Pool of authenticated connections to the outbound email server that are reused for sending of several messages
+ * instead of connecting and authenticating for each message.
+ * <p>
+ * Each connection is used by one thread at a time. Connections that are not used longer than idle timeout are
+ * closed. Connections are not checked before they are given out since it requires an extra request to the server
+ * for each message. Instead, the connection that has failed during sending should be invalidated by the caller
+ * to be closed and replaced with a new one.
+ * <p>
+ * The pool limits also the rate of sending of messages through all its connections to keep within quotas of
+ * the email provider.
+ */
+public class TransportPool implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(1);
+
+    public static final Duration DEFAULT_BORROW_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Session session;
+
+    private final String protocolName;
+
+    private final String user;
+
+    private final String password;
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+    private Duration idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    private Duration borrowTimeout = DEFAULT_BORROW_TIMEOUT;
+
+    private final Deque<PooledTransport> idleTransports = new ArrayDeque<>();
+
+    private int transportsCount;
+
+    private ScheduledExecutorService cleanupExecutor;
+
+    private boolean closed;
+
+    private final Object rateLock = new Object();
+
+    private volatile Duration minSendInterval = Duration.ZERO;
+
+    private long nextSendTime = System.nanoTime();
+
+    public TransportPool(Session session, String protocolName, String user, String password) {
+        this.session = session;
+        this.protocolName = protocolName;
+        this.user = user;
+        this.password = password;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("Max connections must be greater than zero.");
+        }
+        synchronized (this) {
+            this.maxConnections = maxConnections;
+            notifyAll();
+        }
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets time after which not used connections are closed. Changes take effect when the pool is used next time
+     * after all its connections have been closed.
+     */
+    public void setIdleTimeout(Duration idleTimeout) {
+        if (idleTimeout == null || idleTimeout.isZero() || idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Idle timeout must be positive.");
+        }
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    public void setBorrowTimeout(Duration borrowTimeout) {
+        if (borrowTimeout == null) {
+            throw new IllegalArgumentException("Borrow timeout must be specified.");
+        }
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    /**
+     * Gets min interval between sendings of two messages through all connections of this pool.
+     *
+     * @return min interval between sendings or {@link Duration#ZERO} if the rate of sending is not limited.
+     */
+    public Duration getMinSendInterval() {
+        return minSendInterval;
+    }
+
+    /**
+     * Limits the rate of sending of messages through all connections of this pool. Sendings are spread evenly
+     * over the period so bursts of messages are not sent.
+     *
+     * @param maxMessages max amount of messages that can be sent within the period or 0 to remove the limit.
+     * @param period      the period of time.
+     * @throws IllegalArgumentException if max amount of messages is negative or period is not positive.
+     */
+    public void setSendRateLimit(int maxMessages, Duration period) {
+        if (maxMessages < 0) {
+            throw new IllegalArgumentException("Max messages must not be negative.");
+        }
+        if (period == null || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+        this.minSendInterval = maxMessages > 0 ? period.dividedBy(maxMessages) : Duration.ZERO;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Performs given action with connected transport taken from this pool.
+     *
+     * @param action the action to perform.
+     * @param <T>    type of the action result.
+     * @return result of the action.
+     * @throws EmailMessagingException if connection to the server failed or there is no free connection within
+     *                                 borrow timeout.
+     */
+    public <T> T perform(Function<PooledTransport, T> action) {
+        PooledTransport transport = borrow();
+        try {
+            return action.apply(transport);
+        } finally {
+            if (transport.invalid) {
+                discard(transport);
+            } else {
+                release(transport);
+            }
+        }
+    }
+
+    /**
+     * Waits until the next message can be sent without exceeding of the send rate limit.
+     *
+     * @throws EmailMessagingException if waiting is interrupted.
+     */
+    public void awaitSendPermit() {
+        long interval = minSendInterval.toNanos();
+        if (interval == 0) {
+            return;
+        }
+        long waitTime;
+        synchronized (rateLock) {
+            long now = System.nanoTime();
+            long sendTime = Math.max(now, nextSendTime);
+            nextSendTime = sendTime + interval;
+            waitTime = sendTime - now;
+        }
+        if (waitTime > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EmailMessagingException("Waiting of permit to send email message is interrupted.");
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections. Connections that are used at the moment are closed when they are released.
+     */
+    @Override
+    public void close() {
+        List<PooledTransport> transports;
+        synchronized (this) {
+            closed = true;
+            transports = new ArrayList<>(idleTransports);
+            idleTransports.clear();
+            transportsCount -= transports.size();
+            stopCleanup();
+            notifyAll();
+        }
+        transports.forEach(PooledTransport::close);
+    }
+
+    private PooledTransport borrow() {
+        long deadline = System.currentTimeMillis() + borrowTimeout.toMillis();
+        PooledTransport transport;
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    throw new EmailMessagingException("Email transport pool is closed.");
+                }
+                transport = idleTransports.pollFirst();
+                if (transport != null || transportsCount < maxConnections) {
+                    break;
+                }
+                long waitTime = deadline - System.currentTimeMillis();
+                if (waitTime <= 0) {
+                    throw new EmailMessagingException(String.format(
+                            "There is no free email transport connection within %s.", borrowTimeout));
+                }
+                try {
+                    wait(waitTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new EmailMessagingException("Waiting of free email transport connection is interrupted.");
+                }
+            }
+            if (transport != null) {
+                return transport;
+            }
+            transportsCount++;
+            startCleanup();
+        }
+
+        try {
+            return new PooledTransport(connect());
+        } catch (RuntimeException e) {
+            discard(null);
+            throw e;
+        }
+    }
+
+    private void release(PooledTransport transport) {
+        transport.lastUsed = System.currentTimeMillis();
+        synchronized (this) {
+            if (!closed) {
+                idleTransports.offerFirst(transport);
+                notifyAll();
+                return;
+            }
+        }
+        discard(transport);
+    }
+
+    private void discard(PooledTransport transport) {
+        if (transport != null) {
+            transport.close();
+        }
+        synchronized (this) {
+            transportsCount--;
+            notifyAll();
+        }
+    }
+
+    private Transport connect() {
+        try {
+            Transport transport = session.getTransport(protocolName);
+            transport.connect(user, password);
+            return transport;
+        } catch (MessagingException e) {
+            throw new EmailMessagingException(e);
+        }
+    }
+
+    private void startCleanup() {
+        if (cleanupExecutor == null) {
+            cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "email-transport-pool");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = idleTimeout.toMillis();
+            cleanupExecutor.scheduleWithFixedDelay(this::closeExpired, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void stopCleanup() {
+        if (cleanupExecutor != null) {
+            cleanupExecutor.shutdownNow();
+            cleanupExecutor = null;
+        }
+    }
+
+    private void closeExpired() {
+        long expirationTime = System.currentTimeMillis() - idleTimeout.toMillis();
+        List<PooledTransport> expired = new ArrayList<>();
+        synchronized (this) {
+            idleTransports.removeIf(transport -> {
+                if (transport.lastUsed <= expirationTime) {
+                    expired.add(transport);
+                    return true;
+                }
+                return false;
+            });
+            transportsCount -= expired.size();
+            if (transportsCount == 0) {
+                stopCleanup();
+            }
+            notifyAll();
+        }
+        expired.forEach(PooledTransport::close);
+    }
+
+    /**
+     * Connected transport of the pool.
+     */
+    public static class PooledTransport {
+
+        private final Transport transport;
+
+        private long lastUsed = System.currentTimeMillis();
+
+        private boolean invalid;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        public Transport getTransport() {
+            return transport;
+        }
+
+        /**
+         * Marks this transport as broken. It's closed instead of returning into the pool when the action
+         * is finished.
+         */
+        public void invalidate() {
+            this.invalid = true;
+        }
+
+        private void close() {
+            try {
+                if (transport.isConnected()) {
+                    transport.close();
+                }
+            } catch (Exception e) {
+                //do nothing
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package eu.easyrpa.openframework.email.sync;
+
+/**
+ * Storage of checkpoints of mailbox folders between synchronizations.
+ * <p>
+ * Checkpoints are identified by mailbox and folder names, since folders with the same name in different mailboxes
+ * have independent UIDs. So one store can be shared between several mailboxes.
+ */
+public interface CheckpointStore {
+
+    /**
+     * Loads the checkpoint of given mailbox folder.
+     *
+     * @param mailbox    the identifier of mailbox, e.g. <code>user@host:port</code>.
+     * @param folderName the full name of mailbox folder.
+     * @return the last saved checkpoint of the folder or <code>null</code> if the folder has not been synchronized
+     * yet.
+     */
+    FolderCheckpoint load(String mailbox, String folderName);
+
+    /**
+     * Saves the checkpoint of mailbox folder. It replaces previously saved checkpoint of the same folder.
+     *
+     * @param mailbox    the identifier of mailbox, e.g. <code>user@host:port</code>.
+     * @param checkpoint the checkpoint to save.
+     */
+    void save(String mailbox, FolderCheckpoint checkpoint);
+}
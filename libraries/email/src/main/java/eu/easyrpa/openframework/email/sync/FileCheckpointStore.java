@@ -0,0 +1,76 @@
+package eu.easyrpa.openframework.email.sync;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.easyrpa.openframework.email.exception.EmailMessagingException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps checkpoints of mailbox folders in JSON file grouped by mailboxes. The file is rewritten atomically each
+ * time when a checkpoint is saved.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Constructs a new FileCheckpointStore.
+     *
+     * @param file the path to JSON file with checkpoints. It's created if it doesn't exist.
+     */
+    public FileCheckpointStore(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File must be specified.");
+        }
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized FolderCheckpoint load(String mailbox, String folderName) {
+        Map<String, FolderCheckpoint> mailboxCheckpoints = readCheckpoints().get(mailbox);
+        return mailboxCheckpoints != null ? mailboxCheckpoints.get(folderName) : null;
+    }
+
+    @Override
+    public synchronized void save(String mailbox, FolderCheckpoint checkpoint) {
+        Map<String, Map<String, FolderCheckpoint>> checkpoints = readCheckpoints();
+        checkpoints.computeIfAbsent(mailbox, k -> new LinkedHashMap<>()).put(checkpoint.getFolderName(), checkpoint);
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmpFile.toFile(), checkpoints);
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmpFile);
+            }
+        } catch (IOException e) {
+            throw new EmailMessagingException(String.format("Saving of checkpoint to '%s' has failed.", file), e);
+        }
+    }
+
+    private Map<String, Map<String, FolderCheckpoint>> readCheckpoints() {
+        if (!Files.exists(file)) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), new TypeReference<Map<String, Map<String, FolderCheckpoint>>>() {
+            });
+        } catch (IOException e) {
+            throw new EmailMessagingException(String.format("Reading of checkpoints from '%s' has failed.", file), e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package eu.easyrpa.openframework.email.sync;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents the state of mailbox folder at the moment of its last synchronization.
+ * <p>
+ * Messages of IMAP folder are identified by UIDs that are growing for newly come messages and are valid as long
+ * as UIDVALIDITY value of the folder is not changed. If the server supports CONDSTORE extension each change of
+ * message flags increases the modification sequence (MODSEQ) of the folder.
+ */
+public class FolderCheckpoint {
+
+    /**
+     * The full name of mailbox folder.
+     */
+    private final String folderName;
+
+    /**
+     * UIDVALIDITY value of the folder.
+     */
+    private final long uidValidity;
+
+    /**
+     * The highest UID of messages that have been seen in the folder.
+     */
+    private final long lastUid;
+
+    /**
+     * The highest modification sequence of the folder or <code>-1</code> if CONDSTORE is not supported.
+     */
+    private final long highestModSeq;
+
+    /**
+     * Constructs a new FolderCheckpoint.
+     *
+     * @param folderName    the full name of mailbox folder.
+     * @param uidValidity   UIDVALIDITY value of the folder.
+     * @param lastUid       the highest UID of messages that have been seen in the folder.
+     * @param highestModSeq the highest modification sequence of the folder or <code>-1</code> if CONDSTORE is not
+     *                      supported by the server.
+     */
+    @JsonCreator
+    public FolderCheckpoint(@JsonProperty("folderName") String folderName,
+                            @JsonProperty("uidValidity") long uidValidity,
+                            @JsonProperty("lastUid") long lastUid,
+                            @JsonProperty("highestModSeq") long highestModSeq) {
+        this.folderName = folderName;
+        this.uidValidity = uidValidity;
+        this.lastUid = lastUid;
+        this.highestModSeq = highestModSeq;
+    }
+
+    public String getFolderName() {
+        return folderName;
+    }
+
+    public long getUidValidity() {
+        return uidValidity;
+    }
+
+    public long getLastUid() {
+        return lastUid;
+    }
+
+    public long getHighestModSeq() {
+        return highestModSeq;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FolderCheckpoint{folderName='%s', uidValidity=%s, lastUid=%s, highestModSeq=%s}",
+                folderName, uidValidity, lastUid, highestModSeq);
+    }
+}
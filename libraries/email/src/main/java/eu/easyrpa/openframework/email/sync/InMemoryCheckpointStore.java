@@ -0,0 +1,23 @@
+package eu.easyrpa.openframework.email.sync;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps checkpoints of mailbox folders in memory. Checkpoints are lost when the process ends.
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+
+    private final Map<String, Map<String, FolderCheckpoint>> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public FolderCheckpoint load(String mailbox, String folderName) {
+        Map<String, FolderCheckpoint> mailboxCheckpoints = checkpoints.get(mailbox);
+        return mailboxCheckpoints != null ? mailboxCheckpoints.get(folderName) : null;
+    }
+
+    @Override
+    public void save(String mailbox, FolderCheckpoint checkpoint) {
+        checkpoints.computeIfAbsent(mailbox, k -> new ConcurrentHashMap<>()).put(checkpoint.getFolderName(), checkpoint);
+    }
+}
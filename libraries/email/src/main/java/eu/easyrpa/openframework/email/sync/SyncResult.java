@@ -0,0 +1,76 @@
+package eu.easyrpa.openframework.email.sync;
+
+import eu.easyrpa.openframework.email.EmailMessage;
+
+import java.util.List;
+
+/**
+ * Result of incremental synchronization of mailbox folder.
+ */
+public class SyncResult {
+
+    private final FolderCheckpoint checkpoint;
+
+    private final List<EmailMessage> newMessages;
+
+    private final List<EmailMessage> changedMessages;
+
+    private final boolean fullSync;
+
+    /**
+     * Constructs a new SyncResult.
+     *
+     * @param checkpoint      the checkpoint of the folder after this synchronization.
+     * @param newMessages     the list of messages that have come since the previous synchronization.
+     * @param changedMessages the list of previously seen messages whose flags have been changed since the
+     *                        previous synchronization.
+     * @param fullSync        whether all messages of the folder have been taken as new.
+     */
+    public SyncResult(FolderCheckpoint checkpoint, List<EmailMessage> newMessages, List<EmailMessage> changedMessages,
+                      boolean fullSync) {
+        this.checkpoint = checkpoint;
+        this.newMessages = newMessages;
+        this.changedMessages = changedMessages;
+        this.fullSync = fullSync;
+    }
+
+    /**
+     * Gets the checkpoint of the folder after this synchronization. It should be passed to the next
+     * synchronization of the folder.
+     *
+     * @return the checkpoint of the folder.
+     */
+    public FolderCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Gets messages that have come to the folder since the previous synchronization.
+     *
+     * @return list of new messages ordered by UID.
+     */
+    public List<EmailMessage> getNewMessages() {
+        return newMessages;
+    }
+
+    /**
+     * Gets messages seen by previous synchronization whose flags have been changed after it. Changes are
+     * detected only if the server supports CONDSTORE extension. Otherwise the list is always empty.
+     *
+     * @return list of changed messages.
+     */
+    public List<EmailMessage> getChangedMessages() {
+        return changedMessages;
+    }
+
+    /**
+     * Checks whether all messages of the folder have been taken as new. It happens during the first
+     * synchronization of the folder or when UIDVALIDITY of the folder has been changed and the previous
+     * checkpoint cannot be used.
+     *
+     * @return <code>true</code> if all messages of the folder are returned as new.
+     */
+    public boolean isFullSync() {
+        return fullSync;
+    }
+}
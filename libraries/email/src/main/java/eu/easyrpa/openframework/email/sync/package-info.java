@@ -0,0 +1,4 @@
+/**
+ * Incremental synchronization of mailbox folders based on checkpoints.
+ */
+package eu.easyrpa.openframework.email.sync;
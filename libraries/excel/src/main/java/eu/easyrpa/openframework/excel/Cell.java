@@ -1,6 +1,7 @@
 package eu.easyrpa.openframework.excel;
 
 import eu.easyrpa.openframework.excel.internal.poi.POIElementsCache;
+import eu.easyrpa.openframework.excel.internal.poi.SharedStringsIndex;
 import eu.easyrpa.openframework.excel.style.ExcelCellStyle;
 import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -170,15 +171,8 @@ public class Cell {
      * @throws ClassCastException if <code>T</code> is different from String or Double and the value of cell cannot be
      *                            cast to <code>T</code>.
      */
-    @SuppressWarnings("unchecked")
     public <T> T getValue(Class<T> valueType) {
-        if (String.class.isAssignableFrom(valueType)) {
-            return (T) getValueAsString();
-        } else if (Number.class.isAssignableFrom(valueType)) {
-            //TODO Fix conversion of Double to other "numbers"
-            return (T) getValueAsNumeric();
-        }
-        return (T) getTypedValue();
+        return getValue(getPoiCell(), documentId, valueType);
     }
 
     /**
@@ -187,25 +181,7 @@ public class Cell {
      * @param value the value to set.
      */
     public void setValue(Object value) {
-        org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell();
-        if (value == null) {
-            poiCell.setBlank();
-
-        } else if (value instanceof Date) {
-            poiCell.setCellValue((Date) value);
-
-        } else if (value instanceof Number) {
-            poiCell.setCellValue(((Number) value).doubleValue());
-
-        } else if (value instanceof Boolean) {
-            poiCell.setCellValue((Boolean) value);
-
-        } else if (value instanceof String && value.toString().startsWith("=")) {
-            poiCell.setCellFormula(((String) value).substring(1));
-
-        } else {
-            poiCell.setCellValue(value.toString());
-        }
+        setValue(getPoiCell(), documentId, value);
     }
 
     /**
@@ -354,15 +330,70 @@ public class Cell {
     }
 
     /**
-     * Gets the value of this cell based on its type.
+     * Gets the value of given POI cell and converts it to the type specified by <code>valueType</code>.
+     * <p>
+     * Allows to read values of POI cells directly without creating of intermediate <code>Cell</code> objects.
+     * The conversion rules are the same as for {@link #getValue(Class)}.
+     *
+     * @param poiCell    Apache POI cell to read. Merged regions are not taken into consideration here.
+     * @param documentId unique id of Excel document the cell belongs to.
+     * @param valueType  class instance of return value.
+     * @param <T>        type of return value. Defined by value of <code>valueType</code>.
+     * @return value of given POI cell converted to <code>valueType</code>.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T getValue(org.apache.poi.ss.usermodel.Cell poiCell, int documentId, Class<T> valueType) {
+        if (String.class.isAssignableFrom(valueType)) {
+            return (T) getValueAsString(poiCell, documentId);
+        } else if (Number.class.isAssignableFrom(valueType)) {
+            //TODO Fix conversion of Double to other "numbers"
+            return (T) getValueAsNumeric(poiCell, documentId);
+        }
+        return (T) getTypedValue(poiCell, documentId);
+    }
+
+    /**
+     * Sets the value for given POI cell.
+     *
+     * @param poiCell    Apache POI cell to update. Merged regions are not taken into consideration here.
+     * @param documentId unique id of Excel document the cell belongs to.
+     * @param value      the value to set.
+     */
+    static void setValue(org.apache.poi.ss.usermodel.Cell poiCell, int documentId, Object value) {
+        if (value == null) {
+            poiCell.setBlank();
+
+        } else if (value instanceof Date) {
+            poiCell.setCellValue((Date) value);
+
+        } else if (value instanceof Number) {
+            poiCell.setCellValue(((Number) value).doubleValue());
+
+        } else if (value instanceof Boolean) {
+            poiCell.setCellValue((Boolean) value);
+
+        } else if (value instanceof String && value.toString().startsWith("=")) {
+            poiCell.setCellFormula(((String) value).substring(1));
+
+        } else {
+            SharedStringsIndex sharedStringsIndex = POIElementsCache.getSharedStringsIndex(documentId);
+            if (sharedStringsIndex == null || !sharedStringsIndex.setCellValue(poiCell, value.toString())) {
+                poiCell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    /**
+     * Gets the value of given POI cell based on its type.
      * <p>
      * If the cell has formula, then this formula will be calculated before returning of value.
      *
-     * @return current value of this cell. The actual class of value is depend on cell type. Can be returned
+     * @param poiCell    Apache POI cell to read.
+     * @param documentId unique id of Excel document the cell belongs to.
+     * @return current value of the cell. The actual class of value is depend on cell type. Can be returned
      * <code>Double</code>, <code>Boolean</code>, <code>Date</code> or <code>String</code>.
      */
-    private Object getTypedValue() {
-        org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell();
+    private static Object getTypedValue(org.apache.poi.ss.usermodel.Cell poiCell, int documentId) {
         if (poiCell == null) {
             return null;
         }
@@ -436,16 +467,17 @@ public class Cell {
     }
 
     /**
-     * Gets the value of this cell converted as string.
+     * Gets the value of given POI cell converted as string.
      * <p>
      * The result string value looks the same as human can see it in the cell of MS Excel application. Its taken into
      * consideration cell type and specified data format. If the cell has formula, then this formula will
      * be calculated before returning of value.
      *
-     * @return current value of this cell as string.
+     * @param poiCell    Apache POI cell to read.
+     * @param documentId unique id of Excel document the cell belongs to.
+     * @return current value of the cell as string.
      */
-    private String getValueAsString() {
-        org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell();
+    private static String getValueAsString(org.apache.poi.ss.usermodel.Cell poiCell, int documentId) {
         if (poiCell == null) {
             return "";
         }
@@ -495,14 +527,15 @@ public class Cell {
     }
 
     /**
-     * Gets the value of this cell converted as numeric.
+     * Gets the value of given POI cell converted as numeric.
      * <p>
      * If the cell has formula, then this formula will be calculated before returning of value.
      *
-     * @return current value of this cell as numeric or <code>null</code> if the value cannot be converted to numeric.
+     * @param poiCell    Apache POI cell to read.
+     * @param documentId unique id of Excel document the cell belongs to.
+     * @return current value of the cell as numeric or <code>null</code> if the value cannot be converted to numeric.
      */
-    private Double getValueAsNumeric() {
-        org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell();
+    private static Double getValueAsNumeric(org.apache.poi.ss.usermodel.Cell poiCell, int documentId) {
         if (poiCell == null) {
             return null;
         }
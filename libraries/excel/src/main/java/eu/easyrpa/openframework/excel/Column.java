@@ -1,8 +1,25 @@
 package eu.easyrpa.openframework.excel;
 
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
+import org.apache.poi.ss.formula.FormulaShifter;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Represents specific column of Excel document and provides functionality to work with it.
@@ -306,9 +323,17 @@ public class Column implements Iterable<Cell> {
 
         int r1 = Math.min(startRow, endRow);
         int r2 = Math.max(startRow, endRow);
+        if (r2 < 0) {
+            return values;
+        }
+
+        org.apache.poi.ss.usermodel.Sheet poiSheet = parent.getPoiSheet();
+        List<CellRangeAddress> mergedRegions = getMergedRegions(poiSheet);
+        int documentId = parent.getDocument().getId();
 
         for (int row = r1; row <= r2; row++) {
-            values.add(getValue(row, valueType));
+            org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell(poiSheet, row, mergedRegions);
+            values.add(poiCell != null ? Cell.getValue(poiCell, documentId, valueType) : null);
         }
         return values;
     }
@@ -335,14 +360,247 @@ public class Column implements Iterable<Cell> {
      * @param values   list of values to set.
      */
     public void putRange(int startRow, List<?> values) {
-        if (values != null) {
+        if (values != null && startRow >= 0) {
+            org.apache.poi.ss.usermodel.Sheet poiSheet = parent.getPoiSheet();
+            List<CellRangeAddress> mergedRegions = getMergedRegions(poiSheet);
+            int documentId = parent.getDocument().getId();
             int row = startRow;
             for (Object cellValue : values) {
-                setValue(row++, cellValue);
+                Cell.setValue(getOrCreatePoiCell(poiSheet, row++, mergedRegions), documentId, cellValue);
+            }
+        }
+    }
+
+    /**
+     * Applies given function to values of all cells of this column and sets results back into these cells.
+     * <p>
+     * It's an equivalent to mapping of range between first and last cells of this column.
+     *
+     * @param valueType class instance of values that should be passed into <code>mapper</code>.
+     * @param mapper    function that takes current value of cell and returns a new value that should be set into it.
+     * @param <T>       type of values passed into <code>mapper</code>. Defined by value of <code>valueType</code>.
+     * @see #map(int, int, Class, Function)
+     */
+    public <T> void map(Class<T> valueType, Function<? super T, ?> mapper) {
+        map(getFirstRowIndex(), getLastRowIndex(), valueType, mapper);
+    }
+
+    /**
+     * Applies given function to values of cells range of this column and sets results back into these cells.
+     * The range is defined by given top and bottom row indexes.
+     * <p>
+     * Underlying rows are walked only once. Cells that are not defined are skipped. E.g. trimming of all
+     * values of the column:
+     * <pre>
+     *     column.map(String.class, String::trim);
+     * </pre>
+     *
+     * @param startRow  0-based index of top row of the range.
+     * @param endRow    0-based index of bottom row of the range.
+     * @param valueType class instance of values that should be passed into <code>mapper</code>. The same
+     *                  conversion rules as for {@link #getValue(int, Class)} are applied.
+     * @param mapper    function that takes current value of cell and returns a new value that should be set into it.
+     * @param <T>       type of values passed into <code>mapper</code>. Defined by value of <code>valueType</code>.
+     * @throws ClassCastException if <code>T</code> is different from String or Double and value of cells
+     *                            cannot be cast to <code>T</code>.
+     */
+    public <T> void map(int startRow, int endRow, Class<T> valueType, Function<? super T, ?> mapper) {
+        int r1 = Math.max(Math.min(startRow, endRow), 0);
+        int r2 = Math.max(startRow, endRow);
+        if (mapper == null || r2 < 0) {
+            return;
+        }
+
+        org.apache.poi.ss.usermodel.Sheet poiSheet = parent.getPoiSheet();
+        List<CellRangeAddress> mergedRegions = getMergedRegions(poiSheet);
+        int documentId = parent.getDocument().getId();
+
+        for (int row = r1; row <= r2; row++) {
+            org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell(poiSheet, row, mergedRegions);
+            if (poiCell != null) {
+                Cell.setValue(poiCell, documentId, mapper.apply(Cell.getValue(poiCell, documentId, valueType)));
+            }
+        }
+    }
+
+    /**
+     * Sets given value into all cells of this column range. The range is defined by given top and bottom
+     * row indexes.
+     * <p>
+     * If the value is a formula (string that starts with "=") it's considered as formula of the top cell of
+     * the range. For rest of cells relative references of this formula are shifted accordingly in the same
+     * way as MS Excel does it during fill-down. E.g. for <code>fill(1, 3, "=A2*2")</code> cells get formulas
+     * "=A2*2", "=A3*2" and "=A4*2".
+     *
+     * @param startRow 0-based index of top row of the range.
+     * @param endRow   0-based index of bottom row of the range.
+     * @param value    the value to set.
+     */
+    public void fill(int startRow, int endRow, Object value) {
+        int r1 = Math.max(Math.min(startRow, endRow), 0);
+        int r2 = Math.max(startRow, endRow);
+        if (r2 < 0) {
+            return;
+        }
+
+        org.apache.poi.ss.usermodel.Sheet poiSheet = parent.getPoiSheet();
+        List<CellRangeAddress> mergedRegions = getMergedRegions(poiSheet);
+
+        if (value instanceof String && value.toString().startsWith("=")) {
+            fillFormula(poiSheet, r1, r2, ((String) value).substring(1), mergedRegions);
+        } else {
+            int documentId = parent.getDocument().getId();
+            for (int row = r1; row <= r2; row++) {
+                Cell.setValue(getOrCreatePoiCell(poiSheet, row, mergedRegions), documentId, value);
             }
         }
     }
 
+    /**
+     * Copies values of all cells of this column into given column. Destination column can be located
+     * on another sheet or in another Excel document.
+     * <p>
+     * Values are copied to the same rows of destination column.
+     *
+     * @param destColumn object representing destination column.
+     * @see #copyTo(int, int, Column, int)
+     */
+    public void copyTo(Column destColumn) {
+        copyTo(getFirstRowIndex(), getLastRowIndex(), destColumn, getFirstRowIndex());
+    }
+
+    /**
+     * Copies values of cells range of this column into given column. Destination column can be located
+     * on another sheet or in another Excel document.
+     * <p>
+     * Values are taken in the same way as {@link #getValue(int)} does it. Undefined cells of this column
+     * are not copied.
+     *
+     * @param startRow     0-based index of top row of the range to copy.
+     * @param endRow       0-based index of bottom row of the range to copy.
+     * @param destColumn   object representing destination column.
+     * @param destStartRow 0-based index of row of destination column where copied values should be put starting
+     *                     from.
+     */
+    public void copyTo(int startRow, int endRow, Column destColumn, int destStartRow) {
+        int r1 = Math.max(Math.min(startRow, endRow), 0);
+        int r2 = Math.max(startRow, endRow);
+        if (destColumn == null || r2 < 0 || destStartRow < 0) {
+            return;
+        }
+
+        org.apache.poi.ss.usermodel.Sheet poiSheet = parent.getPoiSheet();
+        List<CellRangeAddress> mergedRegions = getMergedRegions(poiSheet);
+        int documentId = parent.getDocument().getId();
+
+        Object[] values = new Object[r2 - r1 + 1];
+        boolean[] defined = new boolean[values.length];
+        for (int row = r1; row <= r2; row++) {
+            org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell(poiSheet, row, mergedRegions);
+            if (poiCell != null) {
+                values[row - r1] = Cell.getValue(poiCell, documentId, Object.class);
+                defined[row - r1] = true;
+            }
+        }
+
+        org.apache.poi.ss.usermodel.Sheet destPoiSheet = destColumn.getSheet().getPoiSheet();
+        List<CellRangeAddress> destMergedRegions = destColumn.getMergedRegions(destPoiSheet);
+        int destDocumentId = destColumn.getSheet().getDocument().getId();
+        for (int i = 0; i < values.length; i++) {
+            if (defined[i]) {
+                Cell.setValue(destColumn.getOrCreatePoiCell(destPoiSheet, destStartRow + i, destMergedRegions), destDocumentId, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Calculates sum of numeric values of all cells of this column.
+     *
+     * @return sum of numeric values of this column cells. Cells with values that cannot be converted to numeric
+     * are ignored.
+     * @see #sum(int, int)
+     */
+    public double sum() {
+        return sum(getFirstRowIndex(), getLastRowIndex());
+    }
+
+    /**
+     * Calculates sum of numeric values of cells range of this column. The range is defined by given top and
+     * bottom row indexes.
+     *
+     * @param startRow 0-based index of top row of the range.
+     * @param endRow   0-based index of bottom row of the range.
+     * @return sum of numeric values of the cells range. Cells with values that cannot be converted to numeric
+     * are ignored.
+     */
+    public double sum(int startRow, int endRow) {
+        double sum = 0;
+        for (double value : getNumericValues(startRow, endRow)) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Gets minimal numeric value among all cells of this column.
+     *
+     * @return minimal numeric value of this column cells or <code>null</code> if column has no numeric values.
+     * @see #min(int, int)
+     */
+    public Double min() {
+        return min(getFirstRowIndex(), getLastRowIndex());
+    }
+
+    /**
+     * Gets minimal numeric value among cells range of this column. The range is defined by given top and
+     * bottom row indexes.
+     *
+     * @param startRow 0-based index of top row of the range.
+     * @param endRow   0-based index of bottom row of the range.
+     * @return minimal numeric value of the cells range or <code>null</code> if the range has no numeric values.
+     */
+    public Double min(int startRow, int endRow) {
+        double[] values = getNumericValues(startRow, endRow);
+        if (values.length == 0) {
+            return null;
+        }
+        double min = values[0];
+        for (int i = 1; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Gets maximal numeric value among all cells of this column.
+     *
+     * @return maximal numeric value of this column cells or <code>null</code> if column has no numeric values.
+     * @see #max(int, int)
+     */
+    public Double max() {
+        return max(getFirstRowIndex(), getLastRowIndex());
+    }
+
+    /**
+     * Gets maximal numeric value among cells range of this column. The range is defined by given top and
+     * bottom row indexes.
+     *
+     * @param startRow 0-based index of top row of the range.
+     * @param endRow   0-based index of bottom row of the range.
+     * @return maximal numeric value of the cells range or <code>null</code> if the range has no numeric values.
+     */
+    public Double max(int startRow, int endRow) {
+        double[] values = getNumericValues(startRow, endRow);
+        if (values.length == 0) {
+            return null;
+        }
+        double max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
     /**
      * Gets the cell of this column represented by given reference.
      *
@@ -463,6 +721,161 @@ public class Column implements Iterable<Cell> {
         return new CellIterator(parent.getPoiSheet());
     }
 
+    /**
+     * Gets numeric values of cells range of this column walking the underlying rows only once.
+     *
+     * @param startRow 0-based index of top row of the range.
+     * @param endRow   0-based index of bottom row of the range.
+     * @return array with numeric values of the cells range. Cells with values that cannot be converted to
+     * numeric are skipped.
+     */
+    private double[] getNumericValues(int startRow, int endRow) {
+        int r1 = Math.max(Math.min(startRow, endRow), 0);
+        int r2 = Math.max(startRow, endRow);
+        if (r2 < 0) {
+            return new double[0];
+        }
+
+        org.apache.poi.ss.usermodel.Sheet poiSheet = parent.getPoiSheet();
+        List<CellRangeAddress> mergedRegions = getMergedRegions(poiSheet);
+        int documentId = parent.getDocument().getId();
+
+        double[] values = new double[r2 - r1 + 1];
+        int count = 0;
+        for (int row = r1; row <= r2; row++) {
+            org.apache.poi.ss.usermodel.Cell poiCell = getPoiCell(poiSheet, row, mergedRegions);
+            if (poiCell != null) {
+                Double value = Cell.getValue(poiCell, documentId, Double.class);
+                if (value != null) {
+                    values[count++] = value;
+                }
+            }
+        }
+        return count < values.length ? Arrays.copyOf(values, count) : values;
+    }
+
+    /**
+     * Sets formula into cells range of this column with shifting of its relative references for each
+     * next row.
+     *
+     * @param poiSheet      underlying POI sheet.
+     * @param startRow      0-based index of top row of the range.
+     * @param endRow        0-based index of bottom row of the range.
+     * @param formula       formula of the top cell of the range without leading "=".
+     * @param mergedRegions merged regions that intersect this column.
+     */
+    private void fillFormula(org.apache.poi.ss.usermodel.Sheet poiSheet, int startRow, int endRow, String formula,
+                             List<CellRangeAddress> mergedRegions) {
+        Workbook workbook = poiSheet.getWorkbook();
+        FormulaParsingWorkbook fpb = null;
+        if (workbook instanceof XSSFWorkbook) {
+            fpb = XSSFEvaluationWorkbook.create((XSSFWorkbook) workbook);
+        } else if (workbook instanceof HSSFWorkbook) {
+            fpb = HSSFEvaluationWorkbook.create((HSSFWorkbook) workbook);
+        }
+        if (fpb == null) {
+            for (int row = startRow; row <= endRow; row++) {
+                getOrCreatePoiCell(poiSheet, row, mergedRegions).setCellFormula(formula);
+            }
+            return;
+        }
+
+        int sheetIndex = workbook.getSheetIndex(poiSheet);
+        SpreadsheetVersion version = workbook.getSpreadsheetVersion();
+        Ptg[] ptgs = FormulaParser.parse(formula, fpb, FormulaType.CELL, sheetIndex, startRow);
+        FormulaShifter nextRowShifter = FormulaShifter.createForRowCopy(sheetIndex, poiSheet.getSheetName(),
+                startRow, endRow, 1, version);
+
+        getOrCreatePoiCell(poiSheet, startRow, mergedRegions).setCellFormula(formula);
+        for (int row = startRow + 1; row <= endRow; row++) {
+            if (nextRowShifter.adjustFormula(ptgs, sheetIndex)) {
+                formula = FormulaRenderer.toFormulaString((FormulaRenderingWorkbook) fpb, ptgs);
+            }
+            getOrCreatePoiCell(poiSheet, row, mergedRegions).setCellFormula(formula);
+        }
+    }
+
+    /**
+     * Gets merged regions of given sheet that intersect this column.
+     *
+     * @param poiSheet underlying POI sheet.
+     * @return list of merged regions that intersect this column.
+     */
+    private List<CellRangeAddress> getMergedRegions(org.apache.poi.ss.usermodel.Sheet poiSheet) {
+        List<CellRangeAddress> regions = new ArrayList<>();
+        if (poiSheet.getNumMergedRegions() > 0) {
+            for (CellRangeAddress region : poiSheet.getMergedRegions()) {
+                if (region.getFirstColumn() <= columnIndex && columnIndex <= region.getLastColumn()) {
+                    regions.add(region);
+                }
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Gets POI cell of this column at given row. If the cell belongs to merged region the top-left cell
+     * of this region is returned instead.
+     *
+     * @param poiSheet      underlying POI sheet.
+     * @param rowIndex      0-based row index of the cell.
+     * @param mergedRegions merged regions that intersect this column.
+     * @return POI cell or <code>null</code> if cell is not defined.
+     */
+    private org.apache.poi.ss.usermodel.Cell getPoiCell(org.apache.poi.ss.usermodel.Sheet poiSheet, int rowIndex,
+                                                        List<CellRangeAddress> mergedRegions) {
+        org.apache.poi.ss.usermodel.Row poiRow = rowIndex >= 0 ? poiSheet.getRow(rowIndex) : null;
+        org.apache.poi.ss.usermodel.Cell poiCell = poiRow != null ? poiRow.getCell(columnIndex) : null;
+        return poiCell != null ? getMergedRegionPoiCell(poiSheet, poiCell, mergedRegions) : null;
+    }
+
+    /**
+     * Gets POI cell of this column at given row. Creates the row and the cell if they are not defined.
+     * If the cell belongs to merged region the top-left cell of this region is returned instead.
+     *
+     * @param poiSheet      underlying POI sheet.
+     * @param rowIndex      0-based row index of the cell.
+     * @param mergedRegions merged regions that intersect this column.
+     * @return POI cell.
+     */
+    private org.apache.poi.ss.usermodel.Cell getOrCreatePoiCell(org.apache.poi.ss.usermodel.Sheet poiSheet,
+                                                                int rowIndex, List<CellRangeAddress> mergedRegions) {
+        org.apache.poi.ss.usermodel.Row poiRow = poiSheet.getRow(rowIndex);
+        if (poiRow == null) {
+            poiRow = poiSheet.createRow(rowIndex);
+        }
+        org.apache.poi.ss.usermodel.Cell poiCell = poiRow.getCell(columnIndex);
+        if (poiCell == null) {
+            poiCell = poiRow.createCell(columnIndex);
+        }
+        return getMergedRegionPoiCell(poiSheet, poiCell, mergedRegions);
+    }
+
+    /**
+     * Gets top-left cell of merged region where given POI cell is hit.
+     *
+     * @param poiSheet      underlying POI sheet.
+     * @param poiCell       POI cell of this column.
+     * @param mergedRegions merged regions that intersect this column.
+     * @return top-left POI cell of merged region or given POI cell if it's not merged with other cells.
+     */
+    private org.apache.poi.ss.usermodel.Cell getMergedRegionPoiCell(org.apache.poi.ss.usermodel.Sheet poiSheet,
+                                                                    org.apache.poi.ss.usermodel.Cell poiCell,
+                                                                    List<CellRangeAddress> mergedRegions) {
+        int rowIndex = poiCell.getRowIndex();
+        for (CellRangeAddress region : mergedRegions) {
+            if (region.isInRange(rowIndex, columnIndex)) {
+                if (region.getFirstRow() == rowIndex && region.getFirstColumn() == columnIndex) {
+                    return poiCell;
+                }
+                org.apache.poi.ss.usermodel.Row topRow = poiSheet.getRow(region.getFirstRow());
+                org.apache.poi.ss.usermodel.Cell topLeftCell = topRow != null ? topRow.getCell(region.getFirstColumn()) : null;
+                return topLeftCell != null ? topLeftCell : poiCell;
+            }
+        }
+        return poiCell;
+    }
+
     /**
      * Cells iterator. Allows iteration over all existing cells of this column using "for" loop.
      */
@@ -2,13 +2,18 @@ package eu.easyrpa.openframework.excel;
 
 import eu.easyrpa.openframework.excel.style.ExcelCellStyle;
 import eu.easyrpa.openframework.excel.internal.poi.POIElementsCache;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.DataValidation;
 import org.apache.poi.ss.usermodel.DataValidationConstraint;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellRangeAddressList;
+import org.apache.poi.xssf.usermodel.XSSFCell;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>Represents format of some cells range.</p>
@@ -235,29 +240,85 @@ public class ExcelCellsFormat {
 
     /**
      * Applies contained cell styles to given cells range of sheet.
+     * <p>
+     * Each distinct style is resolved to POI cell style of target Excel document only once by applying it to
+     * the first covered cell. After that the index of resolved style is set directly to each other covered cell.
      */
     private void applyCellStyles(Sheet sheet, int firstRow, int firstCol, int lastRow, int lastCol) {
         if (cellStyles.length == 0) {
             return;
         }
+        org.apache.poi.ss.usermodel.Sheet poiSheet = sheet.getPoiSheet();
+
+        Map<ExcelCellStyle, CellStyle> resolvedStyles = new IdentityHashMap<>();
         for (int rInd = firstRow, i = 0; rInd <= lastRow; rInd++, i++) {
             if (i == cellStyles.length) i = 0;
             ExcelCellStyle[] rowStyles = cellStyles[i];
 
-            Row row = sheet.getRow(rInd);
-            if (row != null) {
+            org.apache.poi.ss.usermodel.Row poiRow = poiSheet.getRow(rInd);
+            if (poiRow != null) {
                 for (int cInd = firstCol, j = 0; cInd <= lastCol; cInd++, j++) {
                     if (j == rowStyles.length) j = 0;
                     ExcelCellStyle cellStyle = rowStyles[j];
-                    Cell cell = row.getCell(cInd);
-                    if (cellStyle != null && cell != null) {
-                        cellStyle.applyTo(cell);
+                    org.apache.poi.ss.usermodel.Cell poiCell = poiRow.getCell(cInd);
+                    if (cellStyle == null || poiCell == null) {
+                        continue;
+                    }
+                    CellStyle poiStyle = resolvedStyles.get(cellStyle);
+                    if (poiStyle == null) {
+                        cellStyle.applyTo(sheet.getCell(rInd, cInd));
+                        resolvedStyles.put(cellStyle, poiCell.getCellStyle());
+                    } else {
+                        setPoiCellStyle(poiCell, poiStyle);
+                    }
+                }
+            }
+        }
+
+        // Style of merged cell is spread over the whole merged region. The last styled cell of the region
+        // defines the style of region.
+        for (CellRangeAddress region : poiSheet.getMergedRegions()) {
+            if (!region.intersects(new CellRangeAddress(firstRow, lastRow, firstCol, lastCol))) {
+                continue;
+            }
+            CellStyle regionStyle = null;
+            for (int rInd = Math.max(firstRow, region.getFirstRow()); rInd <= Math.min(lastRow, region.getLastRow()); rInd++) {
+                org.apache.poi.ss.usermodel.Row poiRow = poiSheet.getRow(rInd);
+                if (poiRow != null) {
+                    ExcelCellStyle[] rowStyles = cellStyles[(rInd - firstRow) % cellStyles.length];
+                    for (int cInd = Math.max(firstCol, region.getFirstColumn()); cInd <= Math.min(lastCol, region.getLastColumn()); cInd++) {
+                        ExcelCellStyle cellStyle = rowStyles[(cInd - firstCol) % rowStyles.length];
+                        if (cellStyle != null && poiRow.getCell(cInd) != null) {
+                            regionStyle = resolvedStyles.get(cellStyle);
+                        }
+                    }
+                }
+            }
+            if (regionStyle != null) {
+                for (int rInd = region.getFirstRow(); rInd <= region.getLastRow(); rInd++) {
+                    org.apache.poi.ss.usermodel.Row poiRow = poiSheet.getRow(rInd);
+                    if (poiRow != null) {
+                        for (int cInd = region.getFirstColumn(); cInd <= region.getLastColumn(); cInd++) {
+                            setPoiCellStyle(poiRow.getCell(cInd), regionStyle);
+                        }
                     }
                 }
             }
         }
     }
 
+    /**
+     * Sets given resolved POI cell style to POI cell. For XSSF cells the style index is set directly
+     * avoiding of lookup of the style in styles table of the workbook.
+     */
+    private void setPoiCellStyle(org.apache.poi.ss.usermodel.Cell poiCell, CellStyle poiStyle) {
+        if (poiCell instanceof XSSFCell) {
+            ((XSSFCell) poiCell).getCTCell().setS(poiStyle.getIndex());
+        } else if (poiCell != null) {
+            poiCell.setCellStyle(poiStyle);
+        }
+    }
+
     /**
      * Applies contained merged regions to given cells range of sheet.
      */
@@ -323,13 +384,21 @@ public class ExcelCellsFormat {
      */
     private void readCellStyles(Sheet sheet, int firstRow, int firstCol, int lastRow, int lastCol) {
         cellStyles = new ExcelCellStyle[rowsCount][columnsCount];
+        // Cells with the same POI cell style share the same style object
+        Map<Short, ExcelCellStyle> stylesCache = new HashMap<>();
         for (int rInd = firstRow, i = 0; rInd <= lastRow; rInd++, i++) {
             Row row = sheet.getRow(rInd);
             if (row != null) {
                 for (int cInd = firstCol, j = 0; cInd <= lastCol; cInd++, j++) {
                     Cell cell = row.getCell(cInd);
                     if (cell != null) {
-                        cellStyles[i][j] = row.getCell(cInd).getStyle();
+                        short poiStyleIndex = cell.getPoiCell().getCellStyle().getIndex();
+                        ExcelCellStyle cellStyle = stylesCache.get(poiStyleIndex);
+                        if (cellStyle == null) {
+                            cellStyle = cell.getStyle();
+                            stylesCache.put(poiStyleIndex, cellStyle);
+                        }
+                        cellStyles[i][j] = cellStyle;
                     }
                 }
             }
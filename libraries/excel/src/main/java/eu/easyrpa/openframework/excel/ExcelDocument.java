@@ -4,11 +4,18 @@ import eu.easyrpa.openframework.excel.vbscript.MacroRunner;
 import eu.easyrpa.openframework.excel.vbscript.VBScript;
 import eu.easyrpa.openframework.excel.constants.MatchMethod;
 import eu.easyrpa.openframework.excel.exceptions.VBScriptExecutionException;
+import eu.easyrpa.openframework.excel.function.SaveProgressListener;
 import eu.easyrpa.openframework.excel.internal.poi.POIElementsCache;
+import eu.easyrpa.openframework.excel.internal.poi.ParallelZipOutputStream;
 import eu.easyrpa.openframework.excel.internal.poi.POISaveMemoryExtension;
+import eu.easyrpa.openframework.excel.internal.poi.SharedStringsIndex;
+import eu.easyrpa.openframework.excel.internal.poi.XSSFSheetExt;
 import eu.easyrpa.openframework.core.utils.FilePathUtils;
 import eu.easyrpa.openframework.excel.vbscript.VBScriptProcessor;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.PackagePart;
 import org.apache.poi.poifs.macros.Module;
 import org.apache.poi.poifs.macros.VBAMacroReader;
 import org.apache.poi.ss.formula.CollaboratingWorkbooksEnvironment;
@@ -17,23 +24,38 @@ import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 
 /**
  * Represents Excel document and provides functionality to work with it and its content.
  */
 public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
 
+    /**
+     * Executor that is used for asynchronous saving and opening of documents if other is not specified.
+     */
+    private static Executor defaultAsyncExecutor;
+
     /**
      * Unique Excel document identified.
      */
@@ -50,7 +72,21 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
      */
     private Workbook workbook;
 
-    private Set<String> availableMacros = new HashSet<>();
+    /**
+     * Names of macros available in this document. Extracted lazily on first request.
+     */
+    private Set<String> availableMacros;
+
+    /**
+     * Compression level of parts of this document when it's saved.
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Executor used for parallel compression of parts of this document when it's saved.
+     */
+    private Executor compressionExecutor;
+
     private Map<String, FormulaEvaluator> collaboratingEvaluators = new HashMap<>();
 
     private Pattern macroNamesExtractor = Pattern.compile("^Sub (\\w+).*$", Pattern.MULTILINE);
@@ -178,6 +214,64 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
         }
     }
 
+    /**
+     * Creates new Excel document for specified file with content from given input stream.
+     */
+    private ExcelDocument(String filePath, InputStream is, boolean saveMemoryMode) {
+        setFilePath(filePath);
+        initWorkbook(is, saveMemoryMode);
+    }
+
+    /**
+     * Opens Excel document for specified file asynchronously.
+     *
+     * @param filePath the path to input Excel file that needs to accessed via this document.
+     * @return {@link CompletableFuture} object with opened Excel document.
+     * @see #openAsync(String, boolean, Executor)
+     */
+    public static CompletableFuture<ExcelDocument> openAsync(String filePath) {
+        return openAsync(filePath, false, null);
+    }
+
+    /**
+     * Opens Excel document for specified file asynchronously.
+     * <p>
+     * The reading of the file is performed by given executor. If executor is not specified it's performed by
+     * virtual threads when they are supported by current Java runtime or by daemon threads otherwise.
+     * The opening can be interrupted by cancellation of returned future.
+     *
+     * @param filePath       the path to input Excel file that needs to accessed via this document.
+     * @param saveMemoryMode switch on the mode which works slowly but allows to work with large files.
+     * @param executor       executor to perform the opening or <code>null</code> to use default one.
+     * @return {@link CompletableFuture} object with opened Excel document. It's completed exceptionally with
+     * {@link IllegalArgumentException} if <code>filePath</code> is <code>null</code> or point to nonexistent file.
+     */
+    public static CompletableFuture<ExcelDocument> openAsync(String filePath, boolean saveMemoryMode, Executor executor) {
+        CompletableFuture<ExcelDocument> future = new CompletableFuture<>();
+        runAsync(future, executor, () -> {
+            if (filePath == null) {
+                throw new IllegalArgumentException("File path cannot be null.");
+            }
+            File file = FilePathUtils.getFile(filePath);
+            InputStream fileStream;
+            try {
+                fileStream = new FileInputStream(file);
+            } catch (FileNotFoundException e) {
+                throw new IllegalArgumentException(String.format("File '%s' is not exist.", filePath), e);
+            }
+            ExcelDocument document;
+            try (InputStream is = new CancellableInputStream(fileStream, future::isCancelled)) {
+                document = new ExcelDocument(file.getAbsolutePath(), is, saveMemoryMode);
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Failed to read file '%s'.", filePath), e);
+            }
+            if (!future.complete(document)) {
+                document.close();
+            }
+        });
+        return future;
+    }
+
     /**
      * Gets this Excel document unique identifier.
      *
@@ -254,23 +348,48 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
      * @return <code>true</code> if document has macros.
      */
     public boolean hasMacros() {
-        return availableMacros.size() > 0;
+        return getAvailableMacros().size() > 0;
     }
 
     /**
      * Gets actual content of this Excel document as input stream.
+     * <p>
+     * The content is not buffered in memory. It's written by separate thread directly into returned stream
+     * while it's being read. This document must not be modified until the stream is fully read or closed.
+     * The stream should be closed after use to stop the writing if not all content has been read.
      *
-     * @return byte array input stream with Excel document content.
+     * @return input stream with Excel document content.
      */
     public InputStream getInputStream() {
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            workbook.write(bos);
-            return new ByteArrayInputStream(bos.toByteArray());
+        try {
+            compactSharedStrings();
+            return new WorkbookInputStream(this);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Writes actual content of this Excel document into given channel.
+     * <p>
+     * The content is written directly into the channel without intermediate buffering of whole document
+     * in memory. The channel is not closed after writing.
+     *
+     * @param channel the channel to write.
+     * @throws RuntimeException if writing to the channel has failed.
+     */
+    public void saveTo(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null.");
+        }
+        try {
+            compactSharedStrings();
+            writeWorkbook(CloseShieldOutputStream.wrap(Channels.newOutputStream(channel)));
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to write excel document '%s' to channel.", getFileName()), e);
+        }
+    }
+
     /**
      * Overwrites the original file specified by <code>filePath</code> with actual content of this Excel document.
      */
@@ -300,14 +419,77 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
                     throw new RuntimeException(String.format("Failed to create a new file at '%s'. Something went wrong.", filePath));
                 }
             }
+            compactSharedStrings();
             try (FileOutputStream out = new FileOutputStream(file, false)) {
-                workbook.write(out);
+                writeWorkbook(out);
             }
         } catch (IOException e) {
             throw new RuntimeException(String.format("Failed to save excel document to file located at '%s'.", filePath), e);
         }
     }
 
+    /**
+     * Overwrites the original file specified by <code>filePath</code> with actual content of this Excel document
+     * asynchronously.
+     *
+     * @return {@link CompletableFuture} object that is completed when the saving is finished.
+     * @see #saveAsync(String, Executor, SaveProgressListener)
+     */
+    public CompletableFuture<Void> saveAsync() {
+        if (filePath == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return saveAsync(filePath, null, null);
+    }
+
+    /**
+     * Saves this Excel document to specified file asynchronously.
+     *
+     * @param filePath the path of the file to write.
+     * @return {@link CompletableFuture} object that is completed when the saving is finished.
+     * @see #saveAsync(String, Executor, SaveProgressListener)
+     */
+    public CompletableFuture<Void> saveAsync(String filePath) {
+        return saveAsync(filePath, null, null);
+    }
+
+    /**
+     * Saves this Excel document to specified file asynchronously.
+     *
+     * @param filePath the path of the file to write.
+     * @param executor executor to perform the saving or <code>null</code> to use default one.
+     * @return {@link CompletableFuture} object that is completed when the saving is finished.
+     * @see #saveAsync(String, Executor, SaveProgressListener)
+     */
+    public CompletableFuture<Void> saveAsync(String filePath, Executor executor) {
+        return saveAsync(filePath, executor, null);
+    }
+
+    /**
+     * Saves this Excel document to specified file asynchronously.
+     * <p>
+     * The saving is performed by given executor. If executor is not specified it's performed by virtual threads
+     * when they are supported by current Java runtime or by daemon threads otherwise. This document must not be
+     * modified until returned future is completed.
+     * <p>
+     * The content is written into temporary file that replaces specified file only when the saving is finished
+     * successfully. So the saving can be interrupted by cancellation of returned future without damage
+     * of specified file.
+     *
+     * @param filePath         the path of the file to write.
+     * @param executor         executor to perform the saving or <code>null</code> to use default one.
+     * @param progressListener listener to receive the progress of saving or <code>null</code>.
+     * @return {@link CompletableFuture} object that is completed when the saving is finished.
+     */
+    public CompletableFuture<Void> saveAsync(String filePath, Executor executor, SaveProgressListener progressListener) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        runAsync(future, executor, () -> {
+            saveAs(filePath, progressListener, future::isCancelled);
+            future.complete(null);
+        });
+        return future;
+    }
+
     /**
      * Gets Apache POI workbook of this Excel document.
      *
@@ -382,6 +564,56 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
         return POIElementsCache.getDataFormatter(id);
     }
 
+    /**
+     * Sets compression level of parts of this document when it's saved.
+     * <p>
+     * Lower levels make saving faster for the cost of file size. E.g. {@link Deflater#NO_COMPRESSION} or
+     * {@link Deflater#BEST_SPEED} are suitable for intermediate files that are only passed to the next step
+     * of the process. Works only for .xlsx and .xlsm documents.
+     *
+     * @param compressionLevel compression level from <code>0</code> to <code>9</code> or
+     *                         {@link Deflater#DEFAULT_COMPRESSION}.
+     * @throws IllegalArgumentException if compression level is out of range.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException(String.format("Invalid compression level: %s", compressionLevel));
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Gets compression level of parts of this document when it's saved.
+     *
+     * @return compression level from <code>0</code> to <code>9</code> or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets executor that is used for parallel compression of parts of this document when it's saved.
+     * <p>
+     * Content of each part is split into blocks of 1 MB which are compressed by the executor in parallel.
+     * It gives a significant speed up of saving for large documents. Works only for .xlsx and .xlsm documents.
+     * The executor is not shut down by this document.
+     *
+     * @param compressionExecutor executor to use or <code>null</code> to compress parts in the calling thread.
+     */
+    public void setCompressionExecutor(Executor compressionExecutor) {
+        this.compressionExecutor = compressionExecutor;
+    }
+
+    /**
+     * Gets executor that is used for parallel compression of parts of this document when it's saved.
+     *
+     * @return executor or <code>null</code> if it's not set.
+     */
+    public Executor getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
 
     /*--------------------------------------------------------
                 Methods to work with sheets
@@ -520,6 +752,7 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
     public void runMacro(String... macros) {
         List<String> absentMacros = Arrays.asList(macros);
         if (hasMacros()) {
+            Set<String> availableMacros = getAvailableMacros();
             absentMacros = Arrays.stream(macros).filter(m -> !availableMacros.contains(m)).collect(Collectors.toList());
             if (absentMacros.isEmpty()) {
                 VBScriptProcessor processor = new VBScriptProcessor(this);
@@ -604,7 +837,7 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
                 workbook.setActiveSheet(0);
             }
 
-            extractAvailableMacros(is);
+            availableMacros = null;
 
             if (id > 0) {
                 POIElementsCache.unregister(id);
@@ -623,30 +856,340 @@ public class ExcelDocument implements Iterable<Sheet>, AutoCloseable {
     }
 
     /**
-     * Reads content of input stream and looks up modules with macros. Then extract names of available macros
+     * Removes from shared strings table of the workbook all strings that are no longer referenced by cells.
+     * It's performed before each writing of the document.
+     */
+    private void compactSharedStrings() {
+        SharedStringsIndex sharedStringsIndex = POIElementsCache.getSharedStringsIndex(id);
+        if (sharedStringsIndex != null) {
+            sharedStringsIndex.compact();
+        }
+    }
+
+    /**
+     * Saves this Excel document to specified file via temporary file with tracking of progress and cancellation.
+     */
+    private void saveAs(String filePath, SaveProgressListener progressListener, BooleanSupplier cancelled) {
+        File tmpFile = null;
+        try {
+            filePath = FilePathUtils.normalizeFilePath(filePath);
+            File file = new File(filePath).getAbsoluteFile();
+            //noinspection ResultOfMethodCallIgnored
+            file.getParentFile().mkdirs();
+            tmpFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            compactSharedStrings();
+            try (ProgressOutputStream out = new ProgressOutputStream(new FileOutputStream(tmpFile), progressListener, cancelled)) {
+                // Without listener the stream is used only to check cancellation and the workbook is written as usual
+                writeWorkbook(out, progressListener != null ? out : null);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to save excel document to file located at '%s'.", filePath), e);
+        } finally {
+            if (tmpFile != null) {
+                //noinspection ResultOfMethodCallIgnored
+                tmpFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Writes content of the workbook into given stream. Parts of .xlsx and .xlsm documents are compressed
+     * using specified compression level and executor if any of them is set.
+     */
+    private void writeWorkbook(OutputStream out) throws IOException {
+        writeWorkbook(out, null);
+    }
+
+    /**
+     * Writes content of the workbook into given stream and reports amount of written rows to given progress
+     * stream. For .xlsx and .xlsm documents rows of each sheet are reported as soon as the sheet part is written.
+     */
+    private void writeWorkbook(OutputStream out, ProgressOutputStream progress) throws IOException {
+        if (workbook instanceof XSSFWorkbook && (progress != null
+                || compressionLevel != Deflater.DEFAULT_COMPRESSION || compressionExecutor != null)) {
+            try (ParallelZipOutputStream zos = new ParallelZipOutputStream(out, compressionLevel, compressionExecutor)) {
+                if (progress != null) {
+                    Map<String, Integer> sheetRows = new HashMap<>();
+                    for (org.apache.poi.ss.usermodel.Sheet sheet : workbook) {
+                        if (!(sheet instanceof XSSFSheetExt) || ((XSSFSheetExt) sheet).isMaterialized()) {
+                            String partName = ((XSSFSheet) sheet).getPackagePart().getPartName().getName();
+                            sheetRows.put(partName.substring(1), sheet.getPhysicalNumberOfRows());
+                        }
+                    }
+                    zos.setEntryListener(entry -> progress.addRows(sheetRows.getOrDefault(entry.getName(), 0)));
+                }
+                workbook.write(zos);
+            }
+        } else {
+            workbook.write(out);
+            if (progress != null) {
+                for (org.apache.poi.ss.usermodel.Sheet sheet : workbook) {
+                    progress.addRows(sheet.getPhysicalNumberOfRows());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs given task using specified executor or default one and completes given future exceptionally if the
+     * task has failed.
+     */
+    private static void runAsync(CompletableFuture<?> future, Executor executor, Runnable task) {
+        try {
+            (executor != null ? executor : getDefaultAsyncExecutor()).execute(() -> {
+                if (!future.isDone()) {
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Gets executor that runs each task in a new virtual thread if it's supported by current Java runtime.
+     * Otherwise it runs tasks in daemon threads of cached thread pool.
+     */
+    private static synchronized Executor getDefaultAsyncExecutor() {
+        if (defaultAsyncExecutor == null) {
+            try {
+                defaultAsyncExecutor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (Exception e) {
+                defaultAsyncExecutor = Executors.newCachedThreadPool(r -> {
+                    Thread thread = new Thread(r, "excel-document-io");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        return defaultAsyncExecutor;
+    }
+
+    /**
+     * Gets names of macros available in this document. Names are extracted only once on the first call.
+     *
+     * @return set of available macro names.
+     */
+    private Set<String> getAvailableMacros() {
+        if (availableMacros == null) {
+            availableMacros = extractAvailableMacros();
+        }
+        return availableMacros;
+    }
+
+    /**
+     * Looks up modules with macros within already opened workbook. Then extract names of available macros
      * from them using regexp.
+     * <p>
+     * For XLSX workbooks only the VBA project part of the package is read. If the package has no such part
+     * nothing is read at all.
+     *
+     * @return set of available macro names.
+     */
+    private Set<String> extractAvailableMacros() {
+        Set<String> macroNames = new HashSet<>();
+        try {
+            if (workbook instanceof XSSFWorkbook) {
+                List<PackagePart> vbaParts = ((XSSFWorkbook) workbook).getPackage()
+                        .getPartsByContentType(XSSFRelation.VBA_MACROS.getContentType());
+                if (!vbaParts.isEmpty()) {
+                    try (VBAMacroReader reader = new VBAMacroReader(vbaParts.get(0).getInputStream())) {
+                        extractMacroNames(reader, macroNames);
+                    }
+                }
+            } else if (workbook instanceof HSSFWorkbook) {
+                // The file system belongs to the workbook so the reader must not be closed here
+                VBAMacroReader reader = new VBAMacroReader(((HSSFWorkbook) workbook).getDirectory().getFileSystem());
+                extractMacroNames(reader, macroNames);
+            }
+        } catch (Exception e) {
+            //do nothing
+        }
+        return macroNames;
+    }
+
+    /**
+     * Reads modules with macros using given reader and puts names of found macros into given set.
      *
-     * @param is Excel file input stream
+     * @param reader     VBA macro reader of the document.
+     * @param macroNames set where found macro names should be put.
+     * @throws IOException if reading of VBA modules has failed.
      */
-    private void extractAvailableMacros(InputStream is) throws IOException {
-        availableMacros.clear();
-        if (is != null) {
-            if (is instanceof FileInputStream) {
-                ((FileInputStream) is).getChannel().position(0);
+    private void extractMacroNames(VBAMacroReader reader, Set<String> macroNames) throws IOException {
+        List<Module> modules = reader.readMacroModules().values().stream()
+                .filter(m -> m.geModuleType() == Module.ModuleType.Module)
+                .collect(Collectors.toList());
+
+        for (Module module : modules) {
+            Matcher matcher = macroNamesExtractor.matcher(module.getContent());
+            while (matcher.find()) {
+                macroNames.add(matcher.group(1));
             }
-            try (VBAMacroReader reader = new VBAMacroReader(is)) {
-                List<Module> modules = reader.readMacroModules().values().stream()
-                        .filter(m -> m.geModuleType() == Module.ModuleType.Module)
-                        .collect(Collectors.toList());
-
-                for (Module module : modules) {
-                    Matcher matcher = macroNamesExtractor.matcher(module.getContent());
-                    while (matcher.find()) {
-                        availableMacros.add(matcher.group(1));
+        }
+    }
+
+    /**
+     * Input stream with content of workbook that is written into it by separate thread on the fly.
+     */
+    private static class WorkbookInputStream extends FilterInputStream {
+
+        private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+        private volatile Throwable writeError;
+
+        private boolean writeErrorReported;
+
+        public WorkbookInputStream(ExcelDocument document) throws IOException {
+            super(new PipedInputStream(PIPE_BUFFER_SIZE));
+            PipedOutputStream out = new PipedOutputStream((PipedInputStream) in);
+            Thread writer = new Thread(() -> {
+                try {
+                    document.writeWorkbook(out);
+                } catch (Throwable e) {
+                    // The error must be set before closing of the pipe to be visible once the reader gets its end
+                    writeError = e;
+                } finally {
+                    try {
+                        out.close();
+                    } catch (IOException e) {
+                        //do nothing
                     }
                 }
-            } catch (Exception e) {
-                //do nothing
+            }, "excel-document-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                checkWriteError();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count < 0) {
+                checkWriteError();
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            checkWriteError();
+        }
+
+        private void checkWriteError() throws IOException {
+            if (writeError != null && !writeErrorReported) {
+                writeErrorReported = true;
+                throw new IOException("Writing of workbook content has failed.", writeError);
+            }
+        }
+    }
+
+    /**
+     * Output stream that counts written bytes, reports progress and stops writing when it's cancelled.
+     */
+    private static class ProgressOutputStream extends FilterOutputStream {
+
+        private static final long REPORT_INTERVAL = 1024 * 1024;
+
+        private final SaveProgressListener listener;
+        private final BooleanSupplier cancelled;
+
+        private long rowsWritten;
+        private long bytesWritten;
+        private long lastReportedBytes;
+
+        public ProgressOutputStream(OutputStream out, SaveProgressListener listener, BooleanSupplier cancelled) {
+            super(out);
+            this.listener = listener;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCancelled();
+            out.write(b);
+            addBytes(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            out.write(b, off, len);
+            addBytes(len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            report();
+        }
+
+        public void addRows(int rows) {
+            rowsWritten += rows;
+            report();
+        }
+
+        private void addBytes(int count) {
+            bytesWritten += count;
+            if (bytesWritten - lastReportedBytes >= REPORT_INTERVAL) {
+                report();
+            }
+        }
+
+        private void report() {
+            lastReportedBytes = bytesWritten;
+            if (listener != null) {
+                listener.onProgress(rowsWritten, bytesWritten);
+            }
+        }
+
+        private void checkCancelled() throws IOException {
+            if (cancelled.getAsBoolean()) {
+                throw new InterruptedIOException("Saving of excel document has been cancelled.");
+            }
+        }
+    }
+
+    /**
+     * Input stream that stops reading when it's cancelled.
+     */
+    private static class CancellableInputStream extends FilterInputStream {
+
+        private final BooleanSupplier cancelled;
+
+        public CancellableInputStream(InputStream in, BooleanSupplier cancelled) {
+            super(in);
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkCancelled();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            return super.read(b, off, len);
+        }
+
+        private void checkCancelled() throws IOException {
+            if (cancelled.getAsBoolean()) {
+                throw new InterruptedIOException("Opening of excel document has been cancelled.");
             }
         }
     }
@@ -17,6 +17,7 @@ import eu.easyrpa.openframework.excel.vbscript.PivotTableScript;
 import org.apache.commons.io.IOUtils;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.ClientAnchor;
 import org.apache.poi.ss.usermodel.DataValidation;
 import org.apache.poi.ss.usermodel.Drawing;
@@ -41,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -1344,26 +1346,95 @@ public class Sheet implements Iterable<eu.easyrpa.openframework.excel.Row> {
             matchMethod = MatchMethod.EXACT;
         }
         eu.easyrpa.openframework.excel.Row headerRow = findRow(matchMethod, keywords);
-        if (headerRow != null) {
-            int topRow = Integer.MAX_VALUE, leftCol = Integer.MAX_VALUE;
-            int botRow = -1, rightCol = -1;
-            for (Cell cell : headerRow) {
-                CellRange region = cell.getMergedRegion();
-                if (region != null) {
-                    topRow = Math.min(topRow, region.getFirstRow());
-                    leftCol = Math.min(leftCol, region.getFirstCol());
-                    botRow = Math.max(botRow, region.getLastRow());
-                    rightCol = Math.max(rightCol, region.getLastCol());
-                } else {
-                    topRow = Math.min(topRow, cell.getRowIndex());
-                    leftCol = Math.min(leftCol, cell.getColumnIndex());
-                    botRow = Math.max(botRow, cell.getRowIndex());
-                    rightCol = Math.max(rightCol, cell.getColumnIndex());
+        return headerRow != null ? getTable(headerRow, recordType) : null;
+    }
+
+    /**
+     * Searches table on the sheet with given keywords in header. Only rows within given range are analyzed.
+     * <p>
+     * This is a fast alternative of {@link #findTable(Class, MatchMethod, String...)} for large sheets. Keywords
+     * are compared only with values of string cells as they are, without any data formatting. Numeric, date,
+     * boolean and formula cells are skipped. The lookup stops on the first row that matches all keywords.
+     * In save memory mode rows are analyzed directly in their XML form without deserialization.
+     *
+     * @param recordType  class instance of records that this table works with.
+     * @param matchMethod the way how given keywords will be matched with table column names. If <code>matchMethod</code>
+     *                    is <code>null</code> the {@link MatchMethod#EXACT} is used as default.
+     * @param firstRow    0-based index of the first row to analyze.
+     * @param lastRow     0-based index of the last row to analyze.
+     * @param keywords    keywords to localize table header
+     * @return object representing the table or <code>null</code> if nothing was found.
+     * @throws IllegalArgumentException if keywords are not specified or some of them is empty.
+     */
+    public <T> eu.easyrpa.openframework.excel.Table<T> findTable(Class<T> recordType, MatchMethod matchMethod,
+                                                                 int firstRow, int lastRow, String... keywords) {
+        if (keywords == null || keywords.length == 0) {
+            throw new IllegalArgumentException("Keywords must be specified.");
+        }
+        for (String key : keywords) {
+            if (key == null || key.trim().isEmpty()) {
+                throw new IllegalArgumentException("Keywords cannot be empty.");
+            }
+        }
+        MatchMethod method = matchMethod != null ? matchMethod : MatchMethod.EXACT;
+        Predicate<List<String>> headerMatcher = strings -> {
+            for (String key : keywords) {
+                if (strings.stream().noneMatch(str -> method.match(str, key))) {
+                    return false;
+                }
+            }
+            return true;
+        };
+
+        int headerRowIndex = -1;
+        org.apache.poi.ss.usermodel.Sheet poiSheet = getPoiSheet();
+        if (poiSheet instanceof XSSFSheetExt) {
+            headerRowIndex = ((XSSFSheetExt) poiSheet).findRow(Math.max(firstRow, 0), lastRow, headerMatcher);
+        } else {
+            int endRow = Math.min(lastRow, poiSheet.getLastRowNum());
+            for (int rowIndex = Math.max(firstRow, 0); rowIndex <= endRow && headerRowIndex < 0; rowIndex++) {
+                org.apache.poi.ss.usermodel.Row poiRow = poiSheet.getRow(rowIndex);
+                if (poiRow != null) {
+                    List<String> strings = new ArrayList<>();
+                    for (org.apache.poi.ss.usermodel.Cell poiCell : poiRow) {
+                        if (poiCell.getCellType() == CellType.STRING) {
+                            strings.add(poiCell.getStringCellValue());
+                        }
+                    }
+                    if (headerMatcher.test(strings)) {
+                        headerRowIndex = rowIndex;
+                    }
                 }
             }
-            return getTable(topRow, leftCol, botRow, rightCol, recordType);
         }
-        return null;
+        return headerRowIndex >= 0 ? getTable(new eu.easyrpa.openframework.excel.Row(this, headerRowIndex), recordType) : null;
+    }
+
+    /**
+     * Gets table which header occupies given row. Merged regions of header cells are taken into account.
+     *
+     * @param headerRow  the row that contains header of the table.
+     * @param recordType class instance of records that this table works with.
+     * @return object representing the table.
+     */
+    private <T> eu.easyrpa.openframework.excel.Table<T> getTable(eu.easyrpa.openframework.excel.Row headerRow, Class<T> recordType) {
+        int topRow = Integer.MAX_VALUE, leftCol = Integer.MAX_VALUE;
+        int botRow = -1, rightCol = -1;
+        for (Cell cell : headerRow) {
+            CellRange region = cell.getMergedRegion();
+            if (region != null) {
+                topRow = Math.min(topRow, region.getFirstRow());
+                leftCol = Math.min(leftCol, region.getFirstCol());
+                botRow = Math.max(botRow, region.getLastRow());
+                rightCol = Math.max(rightCol, region.getLastCol());
+            } else {
+                topRow = Math.min(topRow, cell.getRowIndex());
+                leftCol = Math.min(leftCol, cell.getColumnIndex());
+                botRow = Math.max(botRow, cell.getRowIndex());
+                rightCol = Math.max(rightCol, cell.getColumnIndex());
+            }
+        }
+        return getTable(topRow, leftCol, botRow, rightCol, recordType);
     }
 
     /**
@@ -1688,6 +1759,19 @@ public class Sheet implements Iterable<eu.easyrpa.openframework.excel.Row> {
         parent.getWorkbook().setSheetName(sheetIndex, newName);
     }
 
+    /**
+     * Creates immutable read-only view of the current content of this sheet.
+     * <p>
+     * The view can be read by other threads while this sheet is being modified. In save memory mode the view
+     * shares unchanged rows with this sheet, so it's created without copying of the sheet content.
+     *
+     * @return read-only view of this sheet.
+     * @see SheetView
+     */
+    public SheetView snapshot() {
+        return new SheetView(this);
+    }
+
     /**
      * Clones this sheet and place it to the end of Excel document.
      *
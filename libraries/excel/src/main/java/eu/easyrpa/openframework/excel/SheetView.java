@@ -0,0 +1,460 @@
+package eu.easyrpa.openframework.excel;
+
+import eu.easyrpa.openframework.excel.internal.RecordTypeHelper;
+import eu.easyrpa.openframework.excel.internal.poi.SheetRowsProvider;
+import eu.easyrpa.openframework.excel.internal.poi.XSSFSheetExt;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRow;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable read-only view of the sheet content at the moment of its creation by {@link Sheet#snapshot()}.
+ * <p>
+ * The view is not affected by further modifications of the sheet and can be safely read by several threads
+ * at the same time without any synchronization. Values of formula cells are taken as they were calculated
+ * at the moment of view creation.
+ * <p>
+ * In save memory mode the view shares XMLs of rows with the sheet. Rows are copied by the sheet only
+ * when they are modified and decoded by the view only when they are read. In other case the view keeps
+ * a copy of cell values.
+ */
+public class SheetView {
+
+    /**
+     * Name of the sheet.
+     */
+    private final String name;
+
+    /**
+     * Index of the sheet within Excel document.
+     */
+    private final int index;
+
+    /**
+     * Indexes of top row, left column, bottom row and right column of the sheet.
+     */
+    private final int firstRow, firstCol, lastRow, lastCol;
+
+    /**
+     * XMLs of rows by their indexes. Used in save memory mode.
+     */
+    private final SortedMap<Integer, String> rowXMLs;
+
+    /**
+     * Values of shared strings that are referenced by row XMLs.
+     */
+    private final String[] sharedStrings;
+
+    /**
+     * Data format indexes and strings by cell style indexes that are referenced by row XMLs.
+     */
+    private final short[] formatIndexes;
+    private final String[] formatStrings;
+
+    private final boolean date1904;
+
+    /**
+     * Copied values of rows by their indexes. Used when save memory mode is off.
+     */
+    private final SortedMap<Integer, XlsStreamRow> rows;
+
+    /**
+     * Formatters used for conversion of numeric values to string. Data formatter is not thread-safe.
+     */
+    private final ThreadLocal<DataFormatter> dataFormatter = ThreadLocal.withInitial(DataFormatter::new);
+
+    SheetView(Sheet sheet) {
+        org.apache.poi.ss.usermodel.Sheet poiSheet = sheet.getPoiSheet();
+        this.name = poiSheet.getSheetName();
+        this.index = sheet.getIndex();
+
+        if (poiSheet instanceof XSSFSheetExt) {
+            XSSFSheetExt sheetExt = (XSSFSheetExt) poiSheet;
+            XSSFWorkbook workbook = sheetExt.getWorkbook();
+
+            this.rowXMLs = sheetExt.snapshotRowXMLs();
+            this.rows = null;
+
+            SharedStringsTable sst = workbook.getSharedStringSource();
+            this.sharedStrings = new String[sst.getUniqueCount()];
+            for (int i = 0; i < sharedStrings.length; i++) {
+                sharedStrings[i] = sst.getItemAt(i).getString();
+            }
+            StylesTable styles = workbook.getStylesSource();
+            this.formatIndexes = new short[styles.getNumCellStyles()];
+            this.formatStrings = new String[formatIndexes.length];
+            for (int i = 0; i < formatIndexes.length; i++) {
+                XSSFCellStyle style = styles.getStyleAt(i);
+                formatIndexes[i] = style.getDataFormat();
+                formatStrings[i] = style.getDataFormatString();
+            }
+            this.date1904 = workbook.isDate1904();
+
+            CellRangeAddress dimension = rowXMLs.isEmpty() ? null : sheetExt.getSheetDimension();
+            this.firstRow = dimension != null ? rowXMLs.firstKey() : -1;
+            this.lastRow = dimension != null ? rowXMLs.lastKey() : -1;
+            this.firstCol = dimension != null ? dimension.getFirstColumn() : -1;
+            this.lastCol = dimension != null ? dimension.getLastColumn() : -1;
+
+        } else {
+            this.rowXMLs = null;
+            this.sharedStrings = null;
+            this.formatIndexes = null;
+            this.formatStrings = null;
+            this.date1904 = false;
+
+            SortedMap<Integer, XlsStreamRow> copiedRows = new TreeMap<>();
+            int minCol = Integer.MAX_VALUE;
+            int maxCol = -1;
+            for (org.apache.poi.ss.usermodel.Row poiRow : poiSheet) {
+                XlsStreamRow row = copyRow(poiRow);
+                if (!row.isEmpty()) {
+                    copiedRows.put(row.getIndex(), row);
+                    minCol = Math.min(minCol, row.getFirstCellIndex());
+                    maxCol = Math.max(maxCol, row.getLastCellIndex());
+                }
+            }
+            this.rows = Collections.unmodifiableSortedMap(copiedRows);
+            this.firstRow = copiedRows.isEmpty() ? -1 : copiedRows.firstKey();
+            this.lastRow = copiedRows.isEmpty() ? -1 : copiedRows.lastKey();
+            this.firstCol = copiedRows.isEmpty() ? -1 : minCol;
+            this.lastCol = maxCol;
+        }
+    }
+
+    /**
+     * Gets name of the sheet.
+     *
+     * @return name of the sheet at the moment of this view creation.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets index of the sheet within Excel document.
+     *
+     * @return 0-based index of the sheet.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets value of the cell with given reference.
+     *
+     * @param cellRef reference string to the cell. E.g. "A23".
+     * @return value of the cell or <code>null</code> if the cell is empty. The actual class of value depend on
+     * cell type. Can be <code>Double</code>, <code>Boolean</code>, <code>Date</code> or <code>String</code>.
+     */
+    public Object getValue(String cellRef) {
+        return getValue(cellRef, Object.class);
+    }
+
+    /**
+     * Gets value of the cell with given reference and converts it to the type specified by <code>valueType</code>.
+     *
+     * @param cellRef   reference string to the cell. E.g. "A23".
+     * @param valueType class instance of return value.
+     * @param <T>       type of return value. Defined by value of <code>valueType</code>.
+     * @return value of the cell.
+     * @see Sheet#getValue(String, Class)
+     */
+    public <T> T getValue(String cellRef, Class<T> valueType) {
+        CellRef ref = new CellRef(cellRef);
+        return getValue(ref.getRow(), ref.getCol(), valueType);
+    }
+
+    /**
+     * Gets value of the cell with given row and column indexes.
+     *
+     * @param rowIndex 0-based row index of the cell.
+     * @param colIndex 0-based column index of the cell.
+     * @return value of the cell or <code>null</code> if the cell is empty. The actual class of value depend on
+     * cell type. Can be <code>Double</code>, <code>Boolean</code>, <code>Date</code> or <code>String</code>.
+     */
+    public Object getValue(int rowIndex, int colIndex) {
+        return getValue(rowIndex, colIndex, Object.class);
+    }
+
+    /**
+     * Gets value of the cell with given row and column indexes and converts it to the type specified
+     * by <code>valueType</code>.
+     *
+     * @param rowIndex  0-based row index of the cell.
+     * @param colIndex  0-based column index of the cell.
+     * @param valueType class instance of return value.
+     * @param <T>       type of return value. Defined by value of <code>valueType</code>.
+     * @return value of the cell.
+     * @see Sheet#getValue(int, int, Class)
+     */
+    public <T> T getValue(int rowIndex, int colIndex, Class<T> valueType) {
+        XlsStreamRow row = getRow(rowIndex);
+        return row != null ? row.getValue(colIndex, valueType, dataFormatter.get()) : null;
+    }
+
+    /**
+     * Gets values of all cells of the sheet. It's an equivalent to getting of range between top-left and
+     * bottom-right cells of the sheet.
+     *
+     * @return list of cell value lists. Returns empty list if the sheet is empty.
+     */
+    public List<List<Object>> getValues() {
+        return getRange(firstRow, firstCol, lastRow, lastCol);
+    }
+
+    /**
+     * Gets values of cells range of the sheet. The range is defined by given top-left and bottom-right
+     * cell references.
+     *
+     * @param startRef reference string to top-left cell of the range. E.g. "A23".
+     * @param endRef   reference string to bottom-right cell of the range. E.g. "D50".
+     * @return list of cell value lists. Returns empty list if specified range is empty.
+     */
+    public List<List<Object>> getRange(String startRef, String endRef) {
+        CellRef sRef = new CellRef(startRef);
+        CellRef eRef = new CellRef(endRef);
+        return getRange(sRef.getRow(), sRef.getCol(), eRef.getRow(), eRef.getCol());
+    }
+
+    /**
+     * Gets values of cells range of the sheet. The range is defined by given top row, left column,
+     * bottom row and right column indexes.
+     *
+     * @param startRow 0-based index of top row of the range.
+     * @param startCol 0-based index of left column of the range.
+     * @param endRow   0-based index of bottom row of the range.
+     * @param endCol   0-based index of right column of the range.
+     * @return list of cell value lists. Returns empty list if specified range is empty.
+     */
+    public List<List<Object>> getRange(int startRow, int startCol, int endRow, int endCol) {
+        List<List<Object>> data = new ArrayList<>();
+
+        if (startRow < 0 || startCol < 0 || endRow < 0 || endCol < 0) {
+            return data;
+        }
+
+        int r1 = Math.min(startRow, endRow);
+        int r2 = Math.max(startRow, endRow);
+        int c1 = Math.min(startCol, endCol);
+        int c2 = Math.max(startCol, endCol);
+
+        for (int row = r1; row <= r2; row++) {
+            XlsStreamRow viewRow = getRow(row);
+            if (viewRow != null) {
+                data.add(viewRow.getRange(c1, c2));
+            } else {
+                data.add(new ArrayList<>(Collections.nCopies(c2 - c1 + 1, null)));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Gets index of top row of the sheet that contains values.
+     *
+     * @return 0-based index of top non-empty row or <code>-1</code> if the sheet is empty.
+     */
+    public int getFirstRowIndex() {
+        return firstRow;
+    }
+
+    /**
+     * Gets index of bottom row of the sheet that contains values.
+     *
+     * @return 0-based index of bottom non-empty row or <code>-1</code> if the sheet is empty.
+     */
+    public int getLastRowIndex() {
+        return lastRow;
+    }
+
+    /**
+     * Gets index of left column of the sheet.
+     *
+     * @return 0-based index of left column or <code>-1</code> if the sheet is empty.
+     */
+    public int getFirstColumnIndex() {
+        return firstCol;
+    }
+
+    /**
+     * Gets index of right column of the sheet.
+     *
+     * @return 0-based index of right column or <code>-1</code> if the sheet is empty.
+     */
+    public int getLastColumnIndex() {
+        return lastCol;
+    }
+
+    /**
+     * Gets records of table located on the sheet.
+     * <p>
+     * The table header is expected to occupy single row with given index. Each non-empty row below the
+     * header is mapped to the record.
+     *
+     * @param headerRow  0-based index of the table header row.
+     * @param recordType class instance of records.
+     * @param <T>        class of records. This class should have annotations {@link eu.easyrpa.openframework.excel.annotations.ExcelColumn}
+     *                   to map its fields with table columns.
+     * @return list of table records.
+     * @see Table#getRecords()
+     */
+    public <T> List<T> getRecords(int headerRow, Class<T> recordType) {
+        return getRecords(headerRow, headerRow, recordType);
+    }
+
+    /**
+     * Gets records of table located on the sheet.
+     * <p>
+     * The table header can occupy several rows. Each non-empty row below the header is mapped to the record.
+     *
+     * @param headerTopRow    0-based index of the top row of the table header.
+     * @param headerBottomRow 0-based index of the bottom row of the table header.
+     * @param recordType      class instance of records.
+     * @param <T>             class of records. This class should have annotations {@link eu.easyrpa.openframework.excel.annotations.ExcelColumn}
+     *                        to map its fields with table columns.
+     * @return list of table records.
+     */
+    public <T> List<T> getRecords(int headerTopRow, int headerBottomRow, Class<T> recordType) {
+        List<T> records = new ArrayList<>();
+        DataFormatter formatter = dataFormatter.get();
+
+        List<XlsStreamRow> headerRows = new ArrayList<>();
+        int c1 = Integer.MAX_VALUE;
+        int c2 = -1;
+        for (int i = headerTopRow; i <= headerBottomRow; i++) {
+            XlsStreamRow row = getRow(i);
+            if (row != null) {
+                headerRows.add(row);
+                c1 = Math.min(c1, row.getFirstCellIndex());
+                c2 = Math.max(c2, row.getLastCellIndex());
+            }
+        }
+        if (headerRows.isEmpty()) {
+            return records;
+        }
+        List<List<String>> headerValues = new ArrayList<>();
+        for (XlsStreamRow headerRow : headerRows) {
+            headerValues.add(headerRow.getRange(c1, c2, String.class, formatter));
+        }
+        Map<String, Integer> columnsIndexMap = Table.getColumnNameToIndexMap(headerValues, c2 - c1 + 1);
+        if (columnsIndexMap == null) {
+            return records;
+        }
+
+        RecordTypeHelper<T> typeHelper = RecordTypeHelper.getFor(recordType);
+        RecordTypeHelper.ColumnPlan<T> columnPlan = typeHelper.getColumnPlan(columnsIndexMap);
+        for (int i = headerBottomRow + 1; i <= lastRow; i++) {
+            XlsStreamRow row = getRow(i);
+            if (row != null && !row.isEmpty()) {
+                records.add(typeHelper.mapToRecord(row.getRange(c1, c2), columnPlan));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Gets values of row with given index. Rows of save memory mode are decoded from their XMLs.
+     */
+    private XlsStreamRow getRow(int rowIndex) {
+        if (rows != null) {
+            return rows.get(rowIndex);
+        }
+        String rowXml = rowXMLs.get(rowIndex);
+        return rowXml != null ? decodeRow(rowIndex, rowXml) : null;
+    }
+
+    private XlsStreamRow decodeRow(int rowIndex, String rowXml) {
+        CTRow ctRow;
+        try {
+            ctRow = SheetRowsProvider.parseRow(rowXml);
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("Row deserialization has failed. Row XML: %s", rowXml), e);
+        }
+        XlsStreamRow row = new XlsStreamRow(rowIndex, null);
+        int colIndex = -1;
+        for (CTCell ctCell : ctRow.getCArray()) {
+            colIndex = ctCell.isSetR() ? new CellReference(ctCell.getR()).getCol() : colIndex + 1;
+            boolean isFormula = ctCell.isSetF();
+            STCellType.Enum cellType = ctCell.getT();
+            if (cellType == STCellType.INLINE_STR) {
+                String value = ctCell.isSetIs() ? new XSSFRichTextString(ctCell.getIs()).getString() : "";
+                row.putValue(colIndex, value, null, -1, null, isFormula);
+                continue;
+            }
+            if (!ctCell.isSetV()) {
+                continue;
+            }
+            String value = ctCell.getV();
+            if (cellType == STCellType.S) {
+                row.putValue(colIndex, sharedStrings[Integer.parseInt(value)], null, -1, null, isFormula);
+            } else if (cellType == STCellType.B) {
+                row.putValue(colIndex, "1".equals(value) || "true".equals(value), null, -1, null, isFormula);
+            } else if (cellType == STCellType.E) {
+                row.putError(colIndex, value, isFormula);
+            } else if (cellType == STCellType.STR) {
+                row.putValue(colIndex, value, null, -1, null, isFormula);
+            } else {
+                int styleIndex = ctCell.isSetS() ? (int) ctCell.getS() : 0;
+                short formatIndex = styleIndex < formatIndexes.length ? formatIndexes[styleIndex] : 0;
+                String formatString = styleIndex < formatStrings.length ? formatStrings[styleIndex] : "General";
+                putNumericValue(row, colIndex, Double.parseDouble(value), formatIndex, formatString, isFormula, date1904);
+            }
+        }
+        return row;
+    }
+
+    private XlsStreamRow copyRow(org.apache.poi.ss.usermodel.Row poiRow) {
+        XlsStreamRow row = new XlsStreamRow(poiRow.getRowNum(), null);
+        boolean date1904 = poiRow.getSheet().getWorkbook() instanceof XSSFWorkbook
+                && ((XSSFWorkbook) poiRow.getSheet().getWorkbook()).isDate1904();
+        for (org.apache.poi.ss.usermodel.Cell cell : poiRow) {
+            boolean isFormula = cell.getCellType() == CellType.FORMULA;
+            CellType cellType = isFormula ? cell.getCachedFormulaResultType() : cell.getCellType();
+            int colIndex = cell.getColumnIndex();
+            switch (cellType) {
+                case NUMERIC:
+                    putNumericValue(row, colIndex, cell.getNumericCellValue(), cell.getCellStyle().getDataFormat(),
+                            cell.getCellStyle().getDataFormatString(), isFormula, date1904);
+                    break;
+                case STRING:
+                    row.putValue(colIndex, cell.getStringCellValue(), null, -1, null, isFormula);
+                    break;
+                case BOOLEAN:
+                    row.putValue(colIndex, cell.getBooleanCellValue(), null, -1, null, isFormula);
+                    break;
+                case ERROR:
+                    row.putError(colIndex, isFormula ? null : cell.toString(), isFormula);
+                    break;
+                default:
+            }
+        }
+        return row;
+    }
+
+    private void putNumericValue(XlsStreamRow row, int colIndex, double value, int formatIndex, String formatString,
+                                 boolean isFormula, boolean date1904) {
+        Object typedValue = value;
+        if (DateUtil.isADateFormat(formatIndex, formatString)) {
+            typedValue = DateUtil.getJavaDate(value, date1904);
+        }
+        row.putValue(colIndex, typedValue, value, formatIndex, formatString, isFormula);
+    }
+}
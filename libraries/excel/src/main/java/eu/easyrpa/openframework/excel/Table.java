@@ -66,6 +66,11 @@ public class Table<T> implements Iterable<T> {
      */
     private Map<String, Integer> columnNameToIndexMap;
 
+    /**
+     * Cached header layout compiled for record type of this table.
+     */
+    private RecordTypeHelper.ColumnPlan<T> columnPlan;
+
     /**
      * Cached list of table records.
      */
@@ -156,6 +161,7 @@ public class Table<T> implements Iterable<T> {
     public void setHeaderTopRow(int topRowIndex) {
         this.hTopRow = topRowIndex;
         columnNameToIndexMap = null;
+        columnPlan = null;
     }
 
     /**
@@ -175,6 +181,7 @@ public class Table<T> implements Iterable<T> {
     public void setHeaderLeftCol(int leftColIndex) {
         this.hLeftCol = leftColIndex;
         columnNameToIndexMap = null;
+        columnPlan = null;
     }
 
     /**
@@ -194,6 +201,7 @@ public class Table<T> implements Iterable<T> {
     public void setHeaderBottomRow(int bottomRowIndex) {
         this.hBottomRow = bottomRowIndex;
         columnNameToIndexMap = null;
+        columnPlan = null;
     }
 
     /**
@@ -213,6 +221,7 @@ public class Table<T> implements Iterable<T> {
     public void setHeaderRightCol(int rightColIndex) {
         this.hRightCol = rightColIndex;
         columnNameToIndexMap = null;
+        columnPlan = null;
     }
 
     /**
@@ -256,6 +265,19 @@ public class Table<T> implements Iterable<T> {
         return columnNameToIndexMap;
     }
 
+    /**
+     * Gets header layout of this table compiled for its record type. It's used to map records to corresponding
+     * row data, vice versa and format cells of rows without lookups by column names.
+     *
+     * @return column plan of this table.
+     */
+    private RecordTypeHelper.ColumnPlan<T> getColumnPlan() {
+        if (columnPlan == null) {
+            columnPlan = typeHelper.getColumnPlan(getColumnNameToIndexMap());
+        }
+        return columnPlan;
+    }
+
     /**
      * Gets full list of records that are contained in this table.
      *
@@ -263,10 +285,10 @@ public class Table<T> implements Iterable<T> {
      */
     public List<T> getRecords() {
         if (records == null) {
-            Map<String, Integer> columnsIndexMap = getColumnNameToIndexMap();
-            if (columnsIndexMap != null) {
+            if (getColumnNameToIndexMap() != null) {
+                RecordTypeHelper.ColumnPlan<T> plan = getColumnPlan();
                 List<List<Object>> data = parent.getRange(hBottomRow + 1, hLeftCol, getBottomRow(), hRightCol);
-                records = data.stream().map(values -> typeHelper.mapToRecord(values, columnsIndexMap)).collect(Collectors.toList());
+                records = data.stream().map(values -> typeHelper.mapToRecord(values, plan)).collect(Collectors.toList());
             }
         } else {
             //Make sure that all records have been loaded into cache
@@ -299,7 +321,7 @@ public class Table<T> implements Iterable<T> {
         if (record == null) {
             Row row = parent.getRow(index + hBottomRow + 1);
             List<Object> values = row.getRange(hLeftCol, hRightCol);
-            record = typeHelper.mapToRecord(values, getColumnNameToIndexMap());
+            record = typeHelper.mapToRecord(values, getColumnPlan());
             records.set(index, record);
         }
         return record;
@@ -446,10 +468,9 @@ public class Table<T> implements Iterable<T> {
         if (recordIndex < 0 || records == null || records.isEmpty()) {
             return;
         }
-        Map<String, Integer> columnsIndexMap = getColumnNameToIndexMap();
-        Map<Integer, String> columnNamesMap = columnsIndexMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+        RecordTypeHelper.ColumnPlan<T> plan = getColumnPlan();
 
-        List<List<Object>> data = records.stream().map(r -> typeHelper.mapToValues(r, columnsIndexMap)).collect(Collectors.toList());
+        List<List<Object>> data = records.stream().map(r -> typeHelper.mapToValues(r, plan)).collect(Collectors.toList());
         parent.insertRows(method, recordIndex + hBottomRow + 1, hLeftCol, data);
 
         int insertPos = method == null || method == InsertMethod.BEFORE ? recordIndex : recordIndex + 1;
@@ -467,7 +488,7 @@ public class Table<T> implements Iterable<T> {
         int startRow = insertPos + hBottomRow + 1;
         for (int i = startRow; i < rowsCount + startRow; i++) {
             for (int j = hLeftCol; j <= hRightCol; j++) {
-                typeHelper.formatCell(parent.getCell(i, j), columnNamesMap.get(j - hLeftCol), i - hBottomRow - 1, this.records);
+                typeHelper.formatCell(parent.getCell(i, j), plan, j - hLeftCol, i - hBottomRow - 1, this.records);
             }
         }
     }
@@ -490,17 +511,16 @@ public class Table<T> implements Iterable<T> {
         if (records == null) {
             return;
         }
-        Map<String, Integer> columnsIndexMap = getColumnNameToIndexMap();
-        Map<Integer, String> columnNamesMap = columnsIndexMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+        RecordTypeHelper.ColumnPlan<T> plan = getColumnPlan();
 
         for (T record : records) {
             int index = indexOf(record);
             if (index >= 0) {
                 int rowNum = index + hBottomRow + 1;
-                List<Object> values = typeHelper.mapToValues(record, columnsIndexMap);
+                List<Object> values = typeHelper.mapToValues(record, plan);
                 parent.putRange(rowNum, hLeftCol, values);
                 for (int j = hLeftCol; j <= hRightCol; j++) {
-                    typeHelper.formatCell(parent.getCell(rowNum, j), columnNamesMap.get(j - hLeftCol), index, this.records);
+                    typeHelper.formatCell(parent.getCell(rowNum, j), plan, j - hLeftCol, index, this.records);
                 }
                 this.records.set(index, record);
             }
@@ -637,14 +657,24 @@ public class Table<T> implements Iterable<T> {
      * @return instance of map that maps column titles to its ordering number.
      */
     private Map<String, Integer> getColumnNameToIndexMap(int headerTopRow, int headerLeftCol, int headerBottomRow, int headerRightCol) {
-        Map<String, Integer> columnsIndex = new HashMap<>();
         List<List<String>> headerValues = parent.getRange(headerTopRow, headerLeftCol, headerBottomRow, headerRightCol, String.class);
+        return getColumnNameToIndexMap(headerValues, headerRightCol - headerLeftCol + 1);
+    }
+
+    /**
+     * Collects map that maps column titles to its ordering number (0-based) based on given header values.
+     *
+     * @param headerValues string values of header rows. Each list represents values of one header row
+     *                     starting from the left column of the header.
+     * @param columnsCount amount of header columns to analyze.
+     * @return instance of map that maps column titles to its ordering number or <code>null</code> if
+     * there are no column titles.
+     */
+    static Map<String, Integer> getColumnNameToIndexMap(List<List<String>> headerValues, int columnsCount) {
+        Map<String, Integer> columnsIndex = new HashMap<>();
         List<String> nameHierarchy = new ArrayList<>();
-        for (int j = 0; j <= headerRightCol - headerLeftCol; j++) {
-            for (int i = 0; i <= headerBottomRow - headerTopRow; i++) {
-                if (i >= headerValues.size()) {
-                    continue;
-                }
+        for (int j = 0; j < columnsCount; j++) {
+            for (int i = 0; i < headerValues.size(); i++) {
                 List<String> rowValues = headerValues.get(i);
                 if (rowValues == null || j >= rowValues.size()) {
                     continue;
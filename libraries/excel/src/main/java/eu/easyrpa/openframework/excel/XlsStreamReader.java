@@ -0,0 +1,476 @@
+package eu.easyrpa.openframework.excel;
+
+import eu.easyrpa.openframework.excel.internal.RecordTypeHelper;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Streaming reader of legacy Excel (.xls) documents.
+ * <p>
+ * Unlike {@link ExcelDocument} it doesn't build the whole object model of the document in memory. The document
+ * is read record by record using Apache POI HSSF event API and rows of requested sheet are passed to the handler
+ * one by one as soon as they are read. The memory consumption doesn't depend on the size of sheet.
+ * <p>
+ * Values of rows are converted using the same rules as {@link Cell#getValue(Class)}. Formulas are not
+ * calculated. Their values are taken as they were cached by MS Excel at the moment of document saving.
+ */
+public class XlsStreamReader {
+
+    /**
+     * Legacy Excel file to read.
+     */
+    private File file;
+
+    /**
+     * Formatter that is used for conversion of numeric values to string.
+     */
+    private DataFormatter dataFormatter = new DataFormatter();
+
+    /**
+     * Creates a new reader of legacy Excel file located at given path.
+     *
+     * @param filePath path to the legacy Excel (.xls) file.
+     */
+    public XlsStreamReader(String filePath) {
+        this(filePath != null ? new File(filePath) : null);
+    }
+
+    /**
+     * Creates a new reader of given legacy Excel file.
+     *
+     * @param file the legacy Excel (.xls) file.
+     * @throws IllegalArgumentException if <code>file</code> is not specified.
+     */
+    public XlsStreamReader(File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File must be specified.");
+        }
+        this.file = file;
+    }
+
+    /**
+     * Overrides default data formatter that is used for conversion of numeric values to string.
+     *
+     * @param formatter instance of data formatter to use.
+     * @see ExcelDocument#setDataFormatter(DataFormatter)
+     */
+    public void setDataFormatter(DataFormatter formatter) {
+        this.dataFormatter = formatter;
+    }
+
+    /**
+     * Gets current data formatter that is used for conversion of numeric values to string.
+     *
+     * @return instance of data formatter.
+     */
+    public DataFormatter getDataFormatter() {
+        return dataFormatter;
+    }
+
+    /**
+     * Gets list of sheet names of the document.
+     * <p>
+     * Only workbook globals are read here. Content of sheets is skipped.
+     *
+     * @return list of sheet names in the order of sheets within the document.
+     */
+    public List<String> getSheetNames() {
+        List<String> sheetNames = new ArrayList<>();
+        process(new AbortableHSSFListener() {
+            @Override
+            public short abortableProcessRecord(Record record) {
+                if (record instanceof BoundSheetRecord) {
+                    sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                } else if (record instanceof BOFRecord && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    return 1;
+                }
+                return 0;
+            }
+        });
+        return sheetNames;
+    }
+
+    /**
+     * Reads non-empty rows of the sheet with given name one by one and passes them to given handler.
+     *
+     * @param sheetName  name of the sheet to read.
+     * @param rowHandler handler of read rows. Should return <code>false</code> to stop the reading.
+     * @throws IllegalArgumentException if sheet with given name is not present in the document.
+     */
+    public void readRows(String sheetName, Predicate<XlsStreamRow> rowHandler) {
+        SheetRowsListener listener = new SheetRowsListener(sheetName, -1, rowHandler);
+        process(listener);
+        if (listener.targetSheet == null) {
+            throw new IllegalArgumentException(String.format("Sheet '%s' is not found.", sheetName));
+        }
+    }
+
+    /**
+     * Reads non-empty rows of the sheet with given index one by one and passes them to given handler.
+     *
+     * @param sheetIndex 0-based index of the sheet to read in the order of {@link #getSheetNames()}.
+     * @param rowHandler handler of read rows. Should return <code>false</code> to stop the reading.
+     * @throws IllegalArgumentException if sheet with given index is not present in the document.
+     */
+    public void readRows(int sheetIndex, Predicate<XlsStreamRow> rowHandler) {
+        SheetRowsListener listener = new SheetRowsListener(null, sheetIndex, rowHandler);
+        process(listener);
+        if (listener.targetSheet == null) {
+            throw new IllegalArgumentException(String.format("Sheet with index %s is not found.", sheetIndex));
+        }
+    }
+
+    /**
+     * Reads records of table located on the sheet with given name one by one and passes them to given handler.
+     * <p>
+     * The table header is expected to occupy single row with given index. Each non-empty row below the
+     * header is mapped to the record.
+     *
+     * @param sheetName     name of the sheet to read.
+     * @param headerRow     0-based index of the table header row.
+     * @param recordType    class instance of records.
+     * @param recordHandler handler of read records. Should return <code>false</code> to stop the reading.
+     * @param <T>           class of records. This class should have annotations {@link eu.easyrpa.openframework.excel.annotations.ExcelColumn}
+     *                      to map its fields with table columns.
+     * @see Sheet#getTable(int, int, Class)
+     */
+    public <T> void readRecords(String sheetName, int headerRow, Class<T> recordType, Predicate<T> recordHandler) {
+        readRecords(sheetName, headerRow, headerRow, recordType, recordHandler);
+    }
+
+    /**
+     * Reads records of table located on the sheet with given name one by one and passes them to given handler.
+     * <p>
+     * The table header can occupy several rows. Each non-empty row below the header is mapped to the record.
+     *
+     * @param sheetName       name of the sheet to read.
+     * @param headerTopRow    0-based index of the top row of the table header.
+     * @param headerBottomRow 0-based index of the bottom row of the table header.
+     * @param recordType      class instance of records.
+     * @param recordHandler   handler of read records. Should return <code>false</code> to stop the reading.
+     * @param <T>             class of records. This class should have annotations {@link eu.easyrpa.openframework.excel.annotations.ExcelColumn}
+     *                        to map its fields with table columns.
+     */
+    public <T> void readRecords(String sheetName, int headerTopRow, int headerBottomRow, Class<T> recordType,
+                                Predicate<T> recordHandler) {
+        RecordTypeHelper<T> typeHelper = RecordTypeHelper.getFor(recordType);
+        List<XlsStreamRow> headerRows = new ArrayList<>();
+        List<RecordTypeHelper.ColumnPlan<T>> columnPlan = new ArrayList<>(1);
+        int[] columnsRange = new int[]{Integer.MAX_VALUE, -1};
+
+        readRows(sheetName, row -> {
+            if (row.getIndex() < headerTopRow) {
+                return true;
+            }
+            if (row.getIndex() <= headerBottomRow) {
+                headerRows.add(row);
+                columnsRange[0] = Math.min(columnsRange[0], row.getFirstCellIndex());
+                columnsRange[1] = Math.max(columnsRange[1], row.getLastCellIndex());
+                return true;
+            }
+            if (columnPlan.isEmpty()) {
+                if (headerRows.isEmpty()) {
+                    return false;
+                }
+                List<List<String>> headerValues = new ArrayList<>();
+                for (XlsStreamRow headerRow : headerRows) {
+                    headerValues.add(headerRow.getRange(columnsRange[0], columnsRange[1], String.class));
+                }
+                Map<String, Integer> columnsIndexMap = Table.getColumnNameToIndexMap(headerValues, columnsRange[1] - columnsRange[0] + 1);
+                if (columnsIndexMap == null) {
+                    return false;
+                }
+                columnPlan.add(typeHelper.getColumnPlan(columnsIndexMap));
+            }
+            List<Object> values = row.getRange(columnsRange[0], columnsRange[1]);
+            return recordHandler.test(typeHelper.mapToRecord(values, columnPlan.get(0)));
+        });
+    }
+
+    /**
+     * Reads all records of table located on the sheet with given name.
+     *
+     * @param sheetName  name of the sheet to read.
+     * @param headerRow  0-based index of the table header row.
+     * @param recordType class instance of records.
+     * @param <T>        class of records.
+     * @return list of all table records.
+     * @see #readRecords(String, int, Class, Predicate)
+     */
+    public <T> List<T> getRecords(String sheetName, int headerRow, Class<T> recordType) {
+        List<T> records = new ArrayList<>();
+        readRecords(sheetName, headerRow, recordType, records::add);
+        return records;
+    }
+
+    /**
+     * Passes all records of the document to given listener until it aborts the processing.
+     */
+    private void process(AbortableHSSFListener listener) {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(listener);
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+        } catch (IOException | HSSFUserException e) {
+            throw new RuntimeException(String.format("Reading of legacy Excel file '%s' has failed.", file.getName()), e);
+        }
+    }
+
+    /**
+     * Listener that collects cells of specific sheet into rows and passes them to the handler.
+     * <p>
+     * The sheet is looked up among sheets listed in workbook globals, i.e. including chart and macro sheets.
+     * Substreams of sheets that follow the globals are matched with listed sheets in the order of their
+     * positions within the document. Substreams that are not worksheets as well as charts embedded into
+     * worksheets are skipped.
+     */
+    private class SheetRowsListener extends AbortableHSSFListener {
+
+        private final String targetSheetName;
+
+        private final int targetSheetIndex;
+
+        private final Predicate<XlsStreamRow> rowHandler;
+
+        private final FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(null);
+
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+
+        private BoundSheetRecord targetSheet;
+
+        private int targetSubstreamIndex = -1;
+
+        private SSTRecord sst;
+
+        private boolean use1904Windowing;
+
+        private int depth;
+
+        private int substreamIndex = -1;
+
+        private boolean inTargetSheet;
+
+        private XlsStreamRow currentRow;
+
+        private FormulaRecord pendingStringFormula;
+
+        /**
+         * @param sheetName  name of the sheet to read or <code>null</code> if the sheet is specified by index.
+         * @param sheetIndex 0-based index of the sheet to read in the order of sheets within workbook globals.
+         * @param rowHandler handler of read rows.
+         */
+        public SheetRowsListener(String sheetName, int sheetIndex, Predicate<XlsStreamRow> rowHandler) {
+            this.targetSheetName = sheetName;
+            this.targetSheetIndex = sheetIndex;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            formatListener.processRecordInternally(record);
+
+            if (record instanceof BOFRecord) {
+                depth++;
+                if (depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    if (targetSubstreamIndex < 0 && !resolveTargetSheet()) {
+                        return 1;
+                    }
+                    substreamIndex++;
+                    if (substreamIndex > targetSubstreamIndex) {
+                        return 1;
+                    }
+                    inTargetSheet = substreamIndex == targetSubstreamIndex
+                            && ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET;
+                }
+            } else if (record instanceof EOFRecord) {
+                depth--;
+                if (depth == 0 && inTargetSheet) {
+                    flushRow();
+                    return 1;
+                }
+            } else if (record instanceof BoundSheetRecord) {
+                boundSheets.add((BoundSheetRecord) record);
+            } else if (record instanceof SSTRecord) {
+                sst = (SSTRecord) record;
+            } else if (record instanceof DateWindow1904Record) {
+                use1904Windowing = ((DateWindow1904Record) record).getWindowing() == 1;
+            } else if (inTargetSheet && depth == 1) {
+                return processCellRecord(record) ? 0 : (short) 1;
+            }
+            return 0;
+        }
+
+        /**
+         * Looks up the target sheet among sheets listed in workbook globals and defines the position of its
+         * substream within the document.
+         *
+         * @return <code>false</code> if the target sheet is not present in the document.
+         */
+        private boolean resolveTargetSheet() {
+            if (targetSheetName != null) {
+                for (BoundSheetRecord boundSheet : boundSheets) {
+                    if (targetSheetName.equals(boundSheet.getSheetname())) {
+                        targetSheet = boundSheet;
+                        break;
+                    }
+                }
+            } else if (targetSheetIndex >= 0 && targetSheetIndex < boundSheets.size()) {
+                targetSheet = boundSheets.get(targetSheetIndex);
+            }
+            if (targetSheet == null) {
+                return false;
+            }
+            targetSubstreamIndex = Arrays.asList(BoundSheetRecord.orderByBofPosition(boundSheets)).indexOf(targetSheet);
+            return true;
+        }
+
+        /**
+         * Puts value of given cell record into the current row.
+         *
+         * @return <code>false</code> if the handler has requested to stop the reading.
+         */
+        private boolean processCellRecord(Record record) {
+            if (record instanceof StringRecord) {
+                if (pendingStringFormula != null) {
+                    String value = ((StringRecord) record).getString();
+                    putValue(pendingStringFormula, value != null ? value.trim() : "", null, true);
+                    pendingStringFormula = null;
+                }
+                return true;
+            }
+            if (!(record instanceof CellValueRecordInterface) && !(record instanceof MulRKRecord)) {
+                return true;
+            }
+            int rowIndex = record instanceof MulRKRecord
+                    ? ((MulRKRecord) record).getRow()
+                    : ((CellValueRecordInterface) record).getRow();
+            if (currentRow != null && currentRow.getIndex() != rowIndex && !flushRow()) {
+                return false;
+            }
+            if (currentRow == null) {
+                currentRow = new XlsStreamRow(rowIndex, dataFormatter);
+            }
+
+            if (record instanceof NumberRecord) {
+                NumberRecord number = (NumberRecord) record;
+                putNumericValue(number, number.getValue(), false);
+
+            } else if (record instanceof RKRecord) {
+                RKRecord rk = (RKRecord) record;
+                putNumericValue(rk, rk.getRKNumber(), false);
+
+            } else if (record instanceof MulRKRecord) {
+                MulRKRecord mulRk = (MulRKRecord) record;
+                for (int i = 0; i < mulRk.getNumColumns(); i++) {
+                    NumberRecord number = new NumberRecord();
+                    number.setRow(mulRk.getRow());
+                    number.setColumn((short) (mulRk.getFirstColumn() + i));
+                    number.setXFIndex(mulRk.getXFAt(i));
+                    number.setValue(mulRk.getRKNumberAt(i));
+                    putNumericValue(number, number.getValue(), false);
+                }
+
+            } else if (record instanceof LabelSSTRecord) {
+                LabelSSTRecord label = (LabelSSTRecord) record;
+                String value = sst != null ? sst.getString(label.getSSTIndex()).getString() : null;
+                putValue(label, value, null, false);
+
+            } else if (record instanceof LabelRecord) {
+                LabelRecord label = (LabelRecord) record;
+                putValue(label, label.getValue(), null, false);
+
+            } else if (record instanceof BoolErrRecord) {
+                BoolErrRecord boolErr = (BoolErrRecord) record;
+                if (boolErr.isBoolean()) {
+                    putValue(boolErr, boolErr.getBooleanValue(), null, false);
+                } else {
+                    putError(boolErr, ErrorEval.getText(boolErr.getErrorValue()), false);
+                }
+
+            } else if (record instanceof FormulaRecord) {
+                FormulaRecord formula = (FormulaRecord) record;
+                switch (formula.getCachedResultTypeEnum()) {
+                    case NUMERIC:
+                        putNumericValue(formula, formula.getValue(), true);
+                        break;
+                    case BOOLEAN:
+                        putValue(formula, formula.getCachedBooleanValue(), null, true);
+                        break;
+                    case STRING:
+                        if (formula.hasCachedResultString()) {
+                            pendingStringFormula = formula;
+                        }
+                        break;
+                    case ERROR:
+                        putError(formula, null, true);
+                        break;
+                    default:
+                }
+            }
+            return true;
+        }
+
+        private void putNumericValue(CellValueRecordInterface cell, double value, boolean isFormula) {
+            int formatIndex = formatListener.getFormatIndex(cell);
+            String formatString = formatListener.getFormatString(cell);
+            Object typedValue = value;
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                typedValue = DateUtil.getJavaDate(value, use1904Windowing);
+            }
+            currentRow.putValue(cell.getColumn(), typedValue, value, formatIndex, formatString, isFormula);
+        }
+
+        private void putValue(CellValueRecordInterface cell, Object value, Double numericValue, boolean isFormula) {
+            if (value != null && currentRow != null && currentRow.getIndex() == cell.getRow()) {
+                currentRow.putValue(cell.getColumn(), value, numericValue, -1, null, isFormula);
+            }
+        }
+
+        private void putError(CellValueRecordInterface cell, String errorText, boolean isFormula) {
+            if (currentRow != null && currentRow.getIndex() == cell.getRow()) {
+                currentRow.putError(cell.getColumn(), errorText, isFormula);
+            }
+        }
+
+        /**
+         * Passes the current row to the handler if it's not empty.
+         *
+         * @return <code>false</code> if the handler has requested to stop the reading.
+         */
+        private boolean flushRow() {
+            XlsStreamRow row = currentRow;
+            currentRow = null;
+            return row == null || row.isEmpty() || rowHandler.test(row);
+        }
+    }
+}
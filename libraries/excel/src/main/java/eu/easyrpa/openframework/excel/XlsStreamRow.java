@@ -0,0 +1,236 @@
+package eu.easyrpa.openframework.excel;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Represents specific row of legacy Excel (.xls) document that has been read by {@link XlsStreamReader}.
+ * <p>
+ * Provides the same read functionality as {@link Row} but keeps only values of cells. It's not linked
+ * with Excel document and cannot be modified.
+ */
+public class XlsStreamRow {
+
+    /**
+     * Index of this row within the sheet.
+     */
+    private int rowIndex;
+
+    /**
+     * Formatter that is used for conversion of numeric values to string.
+     */
+    private DataFormatter dataFormatter;
+
+    /**
+     * Values of non-empty cells of this row by their column indexes.
+     */
+    private TreeMap<Integer, CellValue> cells = new TreeMap<>();
+
+    XlsStreamRow(int rowIndex, DataFormatter dataFormatter) {
+        this.rowIndex = rowIndex;
+        this.dataFormatter = dataFormatter;
+    }
+
+    /**
+     * Gets index of this row.
+     *
+     * @return 0-based index of this row within the sheet.
+     */
+    public int getIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * Gets reference to this row.
+     *
+     * @return reference to the first cell of this row.
+     */
+    public CellRef getReference() {
+        return new CellRef(rowIndex, 0);
+    }
+
+    /**
+     * Gets the value of this row cell by corresponding column index.
+     *
+     * @param colIndex 0-based index of the column.
+     * @return value of corresponding cell or <code>null</code> if the cell is empty. The actual class of value
+     * depend on cell type. Can be <code>Double</code>, <code>Boolean</code>, <code>Date</code> or <code>String</code>.
+     */
+    public Object getValue(int colIndex) {
+        CellValue cell = cells.get(colIndex);
+        return cell != null ? cell.value : null;
+    }
+
+    /**
+     * Gets the value of this row cell by corresponding column index and converts it to the type specified
+     * by <code>valueType</code>.
+     * <p>
+     * The conversion rules are the same as in {@link Cell#getValue(Class)}. Values of formula cells are
+     * taken as they were calculated and cached by MS Excel at the moment of document saving.
+     *
+     * @param colIndex  0-based index of the column.
+     * @param valueType class instance of return value.
+     * @param <T>       type of return value. Defined by value of <code>valueType</code>.
+     * @return value of corresponding cell.
+     * @throws ClassCastException if <code>T</code> is different from String or Double and value of cell
+     *                            cannot be cast to <code>T</code>.
+     */
+    public <T> T getValue(int colIndex, Class<T> valueType) {
+        return getValue(colIndex, valueType, dataFormatter);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T getValue(int colIndex, Class<T> valueType, DataFormatter dataFormatter) {
+        CellValue cell = cells.get(colIndex);
+        if (String.class.isAssignableFrom(valueType)) {
+            return (T) (cell != null ? cell.getValueAsString(dataFormatter) : null);
+        } else if (Number.class.isAssignableFrom(valueType)) {
+            return (T) (cell != null ? cell.getValueAsNumeric() : null);
+        }
+        return (T) getValue(colIndex);
+    }
+
+    /**
+     * Gets values of all cells of this row starting from column "A" till the last non-empty cell.
+     *
+     * @return list of cell values.
+     */
+    public List<Object> getValues() {
+        return getRange(0, getLastCellIndex());
+    }
+
+    /**
+     * Gets values of cells range of this row.
+     *
+     * @param startCol 0-based index of left column of the range.
+     * @param endCol   0-based index of right column of the range.
+     * @return list of cell values. Returns empty list if specified range is empty.
+     */
+    public List<Object> getRange(int startCol, int endCol) {
+        return getRange(startCol, endCol, Object.class);
+    }
+
+    /**
+     * Gets values of cells range of this row and converts them to the type specified by <code>valueType</code>.
+     *
+     * @param startCol  0-based index of left column of the range.
+     * @param endCol    0-based index of right column of the range.
+     * @param valueType class instance of return cell values.
+     * @param <T>       type of return cell values. Defined by value of <code>valueType</code>.
+     * @return list of cell values. Returns empty list if specified range is empty.
+     * @see #getValue(int, Class)
+     */
+    public <T> List<T> getRange(int startCol, int endCol, Class<T> valueType) {
+        return getRange(startCol, endCol, valueType, dataFormatter);
+    }
+
+    <T> List<T> getRange(int startCol, int endCol, Class<T> valueType, DataFormatter dataFormatter) {
+        List<T> values = new ArrayList<>();
+        if (startCol < 0 || endCol < 0) {
+            return values;
+        }
+        int c1 = Math.min(startCol, endCol);
+        int c2 = Math.max(startCol, endCol);
+        for (int col = c1; col <= c2; col++) {
+            values.add(getValue(col, valueType, dataFormatter));
+        }
+        return values;
+    }
+
+    /**
+     * Gets index of the first non-empty cell of this row.
+     *
+     * @return 0-based index of the first non-empty cell or <code>-1</code> if this row is empty.
+     */
+    public int getFirstCellIndex() {
+        return cells.isEmpty() ? -1 : cells.firstKey();
+    }
+
+    /**
+     * Gets index of the last non-empty cell of this row.
+     *
+     * @return 0-based index of the last non-empty cell or <code>-1</code> if this row is empty.
+     */
+    public int getLastCellIndex() {
+        return cells.isEmpty() ? -1 : cells.lastKey();
+    }
+
+    /**
+     * Gets whether this row has no non-empty cells.
+     *
+     * @return <code>true</code> if this row is empty.
+     */
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    void putValue(int colIndex, Object value, Double numericValue, int formatIndex, String formatString, boolean isFormula) {
+        cells.put(colIndex, new CellValue(value, numericValue, formatIndex, formatString, isFormula));
+    }
+
+    /**
+     * Puts error value of the cell. Its value is converted the same way as {@link Cell#getValue(Class)} does it:
+     * it's "N/A" in general and the error code (e.g. "#DIV/0!") when the cell without formula is read as string.
+     */
+    void putError(int colIndex, String errorText, boolean isFormula) {
+        CellValue cellValue = new CellValue("N/A", null, -1, null, isFormula);
+        cellValue.errorText = errorText;
+        cells.put(colIndex, cellValue);
+    }
+
+    /**
+     * Keeps value of specific cell with information necessary for its conversion.
+     */
+    static class CellValue {
+
+        private Object value;
+
+        private Double numericValue;
+
+        private int formatIndex;
+
+        private String formatString;
+
+        private boolean isFormula;
+
+        private String errorText;
+
+        public CellValue(Object value, Double numericValue, int formatIndex, String formatString, boolean isFormula) {
+            this.value = value;
+            this.numericValue = numericValue;
+            this.formatIndex = formatIndex;
+            this.formatString = formatString;
+            this.isFormula = isFormula;
+        }
+
+        private String getValueAsString(DataFormatter dataFormatter) {
+            if (numericValue != null) {
+                return dataFormatter.formatRawCellContents(numericValue, formatIndex, formatString);
+            }
+            if (value instanceof Boolean) {
+                return isFormula ? value.toString() : value.toString().toUpperCase();
+            }
+            if (errorText != null && !isFormula) {
+                return errorText;
+            }
+            return value != null ? value.toString() : "";
+        }
+
+        private Double getValueAsNumeric() {
+            if (numericValue != null) {
+                return numericValue;
+            }
+            if (value instanceof String) {
+                try {
+                    return Double.parseDouble((String) value);
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
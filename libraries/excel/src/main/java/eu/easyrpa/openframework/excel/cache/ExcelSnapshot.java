@@ -0,0 +1,123 @@
+package eu.easyrpa.openframework.excel.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only snapshot of Excel document content kept by {@link ExcelSnapshotCache}.
+ * <p>
+ * The snapshot file is memory-mapped and values are decoded from it only on demand.
+ */
+public class ExcelSnapshot implements AutoCloseable {
+
+    /**
+     * Memory-mapped content of the snapshot file.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Sheets of this snapshot by their names in the order of sheets within Excel document.
+     */
+    private Map<String, SheetSnapshot> sheets = new LinkedHashMap<>();
+
+    /**
+     * Opens snapshot file located at given path.
+     *
+     * @param snapshotFile path to the snapshot file.
+     * @throws IOException if reading of the snapshot file has failed or it has wrong format.
+     */
+    ExcelSnapshot(Path snapshotFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            if (channel.size() > ExcelSnapshotCache.MAX_SNAPSHOT_SIZE) {
+                throw new IOException(String.format("File '%s' is not a valid snapshot.", snapshotFile));
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != ExcelSnapshotCache.SNAPSHOT_MAGIC
+                || buffer.getInt(4) != ExcelSnapshotCache.SNAPSHOT_VERSION) {
+            throw new IOException(String.format("File '%s' is not a valid snapshot.", snapshotFile));
+        }
+        int sheetsCount = buffer.getInt(8);
+        ByteBuffer sheetsTable = buffer.duplicate();
+        sheetsTable.position((int) buffer.getLong(ExcelSnapshotCache.SHEETS_OFFSET_POSITION));
+        for (int i = 0; i < sheetsCount; i++) {
+            String name = readString(sheetsTable);
+            int firstCol = sheetsTable.getInt();
+            int lastCol = sheetsTable.getInt();
+            int rowsCount = sheetsTable.getInt();
+            int[] rowIndexes = new int[rowsCount];
+            int[] rowOffsets = new int[rowsCount];
+            for (int j = 0; j < rowsCount; j++) {
+                rowIndexes[j] = sheetsTable.getInt();
+                // Offsets are written as long but all of them fit into int since snapshot size is limited
+                rowOffsets[j] = (int) sheetsTable.getLong();
+            }
+            sheets.put(name, new SheetSnapshot(this, name, i, firstCol, lastCol, rowIndexes, rowOffsets));
+        }
+    }
+
+    /**
+     * Gets list of sheet names of Excel document.
+     *
+     * @return list of sheet names in the order of sheets within Excel document.
+     */
+    public List<String> getSheetNames() {
+        return new ArrayList<>(sheets.keySet());
+    }
+
+    /**
+     * Gets snapshot of sheet with given name.
+     *
+     * @param sheetName name of the sheet.
+     * @return snapshot of the sheet or <code>null</code> if sheet with given name is not present.
+     */
+    public SheetSnapshot getSheet(String sheetName) {
+        return sheets.get(sheetName);
+    }
+
+    /**
+     * Gets snapshot of sheet with given index.
+     *
+     * @param index 0-based index of the sheet within Excel document.
+     * @return snapshot of the sheet.
+     * @throws IndexOutOfBoundsException if sheet with given index is not present.
+     */
+    public SheetSnapshot getSheet(int index) {
+        return new ArrayList<>(sheets.values()).get(index);
+    }
+
+    /**
+     * Releases the snapshot content.
+     */
+    @Override
+    public void close() {
+        buffer = null;
+        sheets.clear();
+    }
+
+    /**
+     * Gets view of snapshot content positioned at given offset.
+     */
+    ByteBuffer getContent(int offset) {
+        if (buffer == null) {
+            throw new IllegalStateException("Snapshot is closed.");
+        }
+        ByteBuffer content = buffer.duplicate();
+        content.position(offset);
+        return content;
+    }
+
+    static String readString(ByteBuffer content) {
+        byte[] bytes = new byte[content.getInt()];
+        content.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,368 @@
+package eu.easyrpa.openframework.excel.cache;
+
+import eu.easyrpa.openframework.excel.Cell;
+import eu.easyrpa.openframework.excel.ExcelDocument;
+import eu.easyrpa.openframework.excel.Row;
+import eu.easyrpa.openframework.excel.Sheet;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * On-disk cache of Excel documents content.
+ * <p>
+ * For each opened Excel file the cache keeps a compact binary snapshot of cell values of all its sheets.
+ * Snapshots are identified by path of the file, its size and last modification time. Hash of the file content
+ * is kept within the snapshot and checked when the snapshot is found, so the snapshot is not used if the file
+ * content has been changed while its size and modification time are the same. As result the Excel file is
+ * parsed only once while it's not changed. When the file is changed its previous snapshot is removed. All subsequent opens memory-map the snapshot and
+ * read values from it directly without parsing of the Excel file.
+ * <p>
+ * Snapshots keep only values of cells. Styles, formulas, merged regions etc. are not kept. Values of formula
+ * cells are kept as evaluated at the moment of snapshot creation. Use {@link ExcelDocument} directly if these
+ * things are necessary or if the document is going to be modified.
+ * <p>
+ * Snapshot is memory-mapped as a single buffer, so its size is limited to 2 GB. Snapshots of files that have
+ * more content cannot be created.
+ * <p>
+ * Cache is safe to use by several processes at once if they use the same cache directory.
+ */
+public class ExcelSnapshotCache {
+
+    /**
+     * Extension of snapshot files within the cache directory.
+     */
+    private static final String SNAPSHOT_FILE_EXTENSION = ".xsnap";
+
+    static final int SNAPSHOT_MAGIC = 0x58534E50;
+    static final int SNAPSHOT_VERSION = 2;
+    static final int SHEETS_OFFSET_POSITION = 12;
+    static final int CONTENT_HASH_POSITION = 20;
+    static final int CONTENT_HASH_LENGTH = 32;
+    static final long MAX_SNAPSHOT_SIZE = Integer.MAX_VALUE;
+
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_BOOLEAN = 3;
+    static final byte TYPE_DATE = 4;
+
+    /**
+     * Path to directory where snapshots are kept.
+     */
+    private Path cacheDir;
+
+    /**
+     * Creates a new cache that keeps snapshots in given directory.
+     *
+     * @param cacheDirPath path to directory where snapshots should be kept. The directory is created if
+     *                     it doesn't exist.
+     * @throws IllegalArgumentException if <code>cacheDirPath</code> is not specified.
+     * @throws RuntimeException         if the directory cannot be created.
+     */
+    public ExcelSnapshotCache(String cacheDirPath) {
+        if (cacheDirPath == null || cacheDirPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("Path to cache directory must be specified.");
+        }
+        this.cacheDir = Paths.get(cacheDirPath);
+        try {
+            Files.createDirectories(cacheDir);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to create cache directory '%s'.", cacheDirPath), e);
+        }
+    }
+
+    /**
+     * Gets path to directory where snapshots are kept.
+     *
+     * @return path to cache directory.
+     */
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Opens read-only snapshot of Excel file located at given path.
+     * <p>
+     * If the snapshot of the file with the same size, modification time and content is present in cache it's
+     * opened directly. Otherwise the file is parsed, the snapshot is created and stored in cache instead of
+     * previous snapshot of this file.
+     *
+     * @param filePath path to Excel file.
+     * @return opened snapshot of Excel file content. Should be closed after use.
+     * @throws IllegalArgumentException if <code>filePath</code> is not specified.
+     * @throws RuntimeException         if reading of the file or creation of the snapshot has failed.
+     */
+    public ExcelSnapshot open(String filePath) {
+        if (filePath == null) {
+            throw new IllegalArgumentException("Path to Excel file must be specified.");
+        }
+        Path file = Paths.get(filePath);
+        try {
+            String pathKey = getPathKey(file);
+            Path snapshotFile = cacheDir.resolve(getSnapshotKey(file, pathKey) + SNAPSHOT_FILE_EXTENSION);
+            if (!Files.exists(snapshotFile) || !isContentHashMatches(snapshotFile, getContentHash(file))) {
+                createSnapshot(file, snapshotFile);
+                removeStaleSnapshots(pathKey, snapshotFile);
+            }
+            return new ExcelSnapshot(snapshotFile);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to open snapshot of Excel file '%s'.", filePath), e);
+        }
+    }
+
+    /**
+     * Removes from cache all snapshots of Excel file located at given path if they exist.
+     *
+     * @param filePath path to Excel file.
+     * @throws RuntimeException if removing of snapshots has failed.
+     */
+    public void evict(String filePath) {
+        Path file = Paths.get(filePath);
+        try {
+            removeStaleSnapshots(getPathKey(file), null);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to remove snapshot of Excel file '%s'.", filePath), e);
+        }
+    }
+
+    /**
+     * Builds the key of snapshot for given file based on its path, size and last modification time.
+     */
+    private String getSnapshotKey(Path file, String pathKey) throws IOException {
+        long size = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        return pathKey + "-" + size + "-" + lastModified;
+    }
+
+    /**
+     * Builds the part of snapshot key that identifies given file by its absolute path. It's common for all
+     * snapshots of the file.
+     */
+    private String getPathKey(Path file) {
+        MessageDigest digest = getDigest();
+        digest.update(file.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return toHex(digest.digest()).substring(0, 16);
+    }
+
+    /**
+     * Calculates SHA-256 hash of given file content.
+     */
+    private byte[] getContentHash(Path file) throws IOException {
+        MessageDigest digest = getDigest();
+        try (InputStream is = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int count;
+            while ((count = is.read(buffer)) > 0) {
+                digest.update(buffer, 0, count);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Checks whether given snapshot was created from the file content with given hash. Snapshots that
+     * cannot be read are considered as not matching.
+     */
+    private boolean isContentHashMatches(Path snapshotFile, byte[] contentHash) {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(CONTENT_HASH_POSITION + CONTENT_HASH_LENGTH);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                //keep reading until the header is complete
+            }
+            if (header.hasRemaining() || header.getInt(0) != SNAPSHOT_MAGIC || header.getInt(4) != SNAPSHOT_VERSION) {
+                return false;
+            }
+            byte[] storedHash = new byte[CONTENT_HASH_LENGTH];
+            header.position(CONTENT_HASH_POSITION);
+            header.get(storedHash);
+            return MessageDigest.isEqual(storedHash, contentHash);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes snapshots of the file with given path key except the given current snapshot.
+     */
+    private void removeStaleSnapshots(String pathKey, Path currentSnapshotFile) throws IOException {
+        try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(cacheDir, pathKey + "-*" + SNAPSHOT_FILE_EXTENSION)) {
+            for (Path snapshot : snapshots) {
+                if (!snapshot.equals(currentSnapshotFile)) {
+                    try {
+                        Files.deleteIfExists(snapshot);
+                    } catch (IOException e) {
+                        //do nothing, the snapshot can be still opened by other process
+                    }
+                }
+            }
+        }
+    }
+
+    private MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Parses given Excel file and writes snapshot of its content into given snapshot file. The snapshot is
+     * written into temporary file first and then moved to the target location to avoid reading of partially
+     * written snapshots by other processes.
+     * <p>
+     * Snapshot has following layout:
+     * <pre>
+     * header:  magic (int), version (int), sheets count (int), sheets table offset (long),
+     *          SHA-256 hash of the file content (32 bytes)
+     * rows:    for each row: cells count (int), for each cell: column index (int), type (byte), value
+     * sheets:  for each sheet: name (int length + UTF-8 bytes), first column (int), last column (int),
+     *          rows count (int), for each row: row index (int), row offset (long)
+     * </pre>
+     */
+    private void createSnapshot(Path file, Path snapshotFile) throws IOException {
+        Path tmpFile = Files.createTempFile(cacheDir, "snapshot", ".tmp");
+        try {
+            long sheetsOffset;
+            try (ExcelDocument doc = new ExcelDocument(file);
+                 CountingOutputStream cos = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)));
+                 DataOutputStream out = new DataOutputStream(cos)) {
+
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(doc.getSheetNames().size());
+                out.writeLong(0L);
+                out.write(getContentHash(file));
+
+                List<SheetIndex> sheets = new ArrayList<>();
+                for (Sheet sheet : doc) {
+                    SheetIndex sheetIndex = new SheetIndex(sheet.getName());
+                    sheetIndex.firstCol = sheet.getFirstColumnIndex();
+                    sheetIndex.lastCol = sheet.getLastColumnIndex();
+                    for (Row row : sheet) {
+                        List<Cell> cells = new ArrayList<>();
+                        for (Cell cell : row) {
+                            if (cell.getValue() != null) {
+                                cells.add(cell);
+                            }
+                        }
+                        if (cells.isEmpty()) {
+                            continue;
+                        }
+                        out.flush();
+                        sheetIndex.rowIndexes.add(row.getIndex());
+                        sheetIndex.rowOffsets.add(cos.getByteCount());
+                        out.writeInt(cells.size());
+                        for (Cell cell : cells) {
+                            out.writeInt(cell.getColumnIndex());
+                            writeValue(out, cell.getValue());
+                        }
+                        checkSnapshotSize(file, cos.getByteCount());
+                    }
+                    sheets.add(sheetIndex);
+                }
+
+                out.flush();
+                sheetsOffset = cos.getByteCount();
+                for (SheetIndex sheetIndex : sheets) {
+                    writeString(out, sheetIndex.name);
+                    out.writeInt(sheetIndex.firstCol);
+                    out.writeInt(sheetIndex.lastCol);
+                    out.writeInt(sheetIndex.rowIndexes.size());
+                    for (int i = 0; i < sheetIndex.rowIndexes.size(); i++) {
+                        out.writeInt(sheetIndex.rowIndexes.get(i));
+                        out.writeLong(sheetIndex.rowOffsets.get(i));
+                    }
+                }
+                out.flush();
+                checkSnapshotSize(file, cos.getByteCount());
+            }
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                buffer.putLong(sheetsOffset).flip();
+                channel.write(buffer, SHEETS_OFFSET_POSITION);
+            }
+            try {
+                Files.move(tmpFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private void checkSnapshotSize(Path file, long size) throws IOException {
+        if (size > MAX_SNAPSHOT_SIZE) {
+            throw new IOException(String.format("Snapshot of Excel file '%s' exceeds max size of %s bytes.",
+                    file, MAX_SNAPSHOT_SIZE));
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Keeps location of rows of specific sheet within the snapshot while it's being written.
+     */
+    private static class SheetIndex {
+
+        private final String name;
+
+        private int firstCol;
+
+        private int lastCol;
+
+        private final List<Integer> rowIndexes = new ArrayList<>();
+
+        private final List<Long> rowOffsets = new ArrayList<>();
+
+        public SheetIndex(String name) {
+            this.name = name;
+        }
+    }
+}
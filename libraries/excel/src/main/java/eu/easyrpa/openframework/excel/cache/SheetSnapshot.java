@@ -0,0 +1,265 @@
+package eu.easyrpa.openframework.excel.cache;
+
+import eu.easyrpa.openframework.excel.CellRef;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read-only snapshot of specific sheet content kept by {@link ExcelSnapshotCache}.
+ * <p>
+ * Provides the same way of values reading as {@link eu.easyrpa.openframework.excel.Sheet}. Values are
+ * decoded from the snapshot on demand.
+ */
+public class SheetSnapshot {
+
+    /**
+     * Reference to parent snapshot of Excel document.
+     */
+    private ExcelSnapshot parent;
+
+    /**
+     * Name of this sheet.
+     */
+    private String name;
+
+    /**
+     * Index of this sheet within Excel document.
+     */
+    private int index;
+
+    /**
+     * Index of left column of this sheet.
+     */
+    private int firstCol;
+
+    /**
+     * Index of right column of this sheet.
+     */
+    private int lastCol;
+
+    /**
+     * Sorted indexes of non-empty rows of this sheet.
+     */
+    private int[] rowIndexes;
+
+    /**
+     * Offsets of non-empty rows within the snapshot. Correspond to <code>rowIndexes</code>.
+     */
+    private int[] rowOffsets;
+
+    SheetSnapshot(ExcelSnapshot parent, String name, int index, int firstCol, int lastCol, int[] rowIndexes, int[] rowOffsets) {
+        this.parent = parent;
+        this.name = name;
+        this.index = index;
+        this.firstCol = firstCol;
+        this.lastCol = lastCol;
+        this.rowIndexes = rowIndexes;
+        this.rowOffsets = rowOffsets;
+    }
+
+    /**
+     * Gets name of this sheet.
+     *
+     * @return name of this sheet.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets index of this sheet within Excel document.
+     *
+     * @return 0-based index of this sheet.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets value of the cell with given reference.
+     *
+     * @param cellRef reference string to the cell. E.g. "A23".
+     * @return value of the cell or <code>null</code> if the cell is empty. The actual class of value depend on
+     * cell type. Can be <code>Double</code>, <code>Boolean</code>, <code>Date</code> or <code>String</code>.
+     */
+    public Object getValue(String cellRef) {
+        CellRef ref = new CellRef(cellRef);
+        return getValue(ref.getRow(), ref.getCol());
+    }
+
+    /**
+     * Gets value of the cell with given row and column indexes.
+     *
+     * @param rowIndex 0-based row index of the cell.
+     * @param colIndex 0-based column index of the cell.
+     * @return value of the cell or <code>null</code> if the cell is empty. The actual class of value depend on
+     * cell type. Can be <code>Double</code>, <code>Boolean</code>, <code>Date</code> or <code>String</code>.
+     */
+    public Object getValue(int rowIndex, int colIndex) {
+        int pos = Arrays.binarySearch(rowIndexes, rowIndex);
+        if (pos < 0 || colIndex < 0) {
+            return null;
+        }
+        ByteBuffer content = parent.getContent(rowOffsets[pos]);
+        int cellsCount = content.getInt();
+        for (int i = 0; i < cellsCount; i++) {
+            int col = content.getInt();
+            if (col == colIndex) {
+                return readValue(content);
+            } else if (col > colIndex) {
+                return null;
+            }
+            skipValue(content);
+        }
+        return null;
+    }
+
+    /**
+     * Gets values of all cells on the sheet. It's an equivalent to getting of range between top-left and
+     * bottom-right cells of this sheet.
+     *
+     * @return list of cell value lists. Returns empty list if sheet is empty.
+     * @see #getRange(int, int, int, int)
+     */
+    public List<List<Object>> getValues() {
+        return getRange(getFirstRowIndex(), getFirstColumnIndex(), getLastRowIndex(), getLastColumnIndex());
+    }
+
+    /**
+     * Gets values of cells range on this sheet. The range is defined by given top-left and bottom-right
+     * cell references.
+     *
+     * @param startRef reference string to top-left cell of the range. E.g. "A23".
+     * @param endRef   reference string to bottom-right cell of the range. E.g. "D50".
+     * @return list of cell value lists. Returns empty list if specified range is empty.
+     */
+    public List<List<Object>> getRange(String startRef, String endRef) {
+        CellRef sRef = new CellRef(startRef);
+        CellRef eRef = new CellRef(endRef);
+        return getRange(sRef.getRow(), sRef.getCol(), eRef.getRow(), eRef.getCol());
+    }
+
+    /**
+     * Gets values of cells range on this sheet. The range is defined by given top row, left column,
+     * bottom row and right column indexes.
+     *
+     * @param startRow 0-based index of top row of the range.
+     * @param startCol 0-based index of left column of the range.
+     * @param endRow   0-based index of bottom row of the range.
+     * @param endCol   0-based index of right column of the range.
+     * @return list of cell value lists. Returns empty list if specified range is empty. The actual class of values
+     * in lists depend on cell types. Can be <code>Double</code>, <code>Boolean</code>, <code>Date</code>
+     * or <code>String</code>.
+     */
+    public List<List<Object>> getRange(int startRow, int startCol, int endRow, int endCol) {
+        List<List<Object>> data = new ArrayList<>();
+
+        if (startRow < 0 || startCol < 0 || endRow < 0 || endCol < 0) {
+            return data;
+        }
+
+        int r1 = Math.min(startRow, endRow);
+        int r2 = Math.max(startRow, endRow);
+        int c1 = Math.min(startCol, endCol);
+        int c2 = Math.max(startCol, endCol);
+
+        for (int row = r1; row <= r2; row++) {
+            data.add(getRowRange(row, c1, c2));
+        }
+        return data;
+    }
+
+    /**
+     * Gets index of top row of this sheet that contains values.
+     *
+     * @return 0-based index of top non-empty row or <code>-1</code> if sheet is empty.
+     */
+    public int getFirstRowIndex() {
+        return rowIndexes.length > 0 ? rowIndexes[0] : -1;
+    }
+
+    /**
+     * Gets index of bottom row of this sheet that contains values.
+     *
+     * @return 0-based index of bottom non-empty row or <code>-1</code> if sheet is empty.
+     */
+    public int getLastRowIndex() {
+        return rowIndexes.length > 0 ? rowIndexes[rowIndexes.length - 1] : -1;
+    }
+
+    /**
+     * Gets index of left column of this sheet.
+     *
+     * @return 0-based index of left column or <code>-1</code> if sheet is empty.
+     */
+    public int getFirstColumnIndex() {
+        return firstCol;
+    }
+
+    /**
+     * Gets index of right column of this sheet.
+     *
+     * @return 0-based index of right column or <code>-1</code> if sheet is empty.
+     */
+    public int getLastColumnIndex() {
+        return lastCol;
+    }
+
+    /**
+     * Decodes values of given row between given columns in one pass over the row.
+     */
+    private List<Object> getRowRange(int rowIndex, int c1, int c2) {
+        Object[] values = new Object[c2 - c1 + 1];
+        int pos = Arrays.binarySearch(rowIndexes, rowIndex);
+        if (pos >= 0) {
+            ByteBuffer content = parent.getContent(rowOffsets[pos]);
+            int cellsCount = content.getInt();
+            for (int i = 0; i < cellsCount; i++) {
+                int col = content.getInt();
+                if (col > c2) {
+                    break;
+                }
+                if (col >= c1) {
+                    values[col - c1] = readValue(content);
+                } else {
+                    skipValue(content);
+                }
+            }
+        }
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
+    private Object readValue(ByteBuffer content) {
+        byte type = content.get();
+        switch (type) {
+            case ExcelSnapshotCache.TYPE_DOUBLE:
+                return content.getDouble();
+            case ExcelSnapshotCache.TYPE_BOOLEAN:
+                return content.get() != 0;
+            case ExcelSnapshotCache.TYPE_DATE:
+                return new Date(content.getLong());
+            default:
+                return ExcelSnapshot.readString(content);
+        }
+    }
+
+    private void skipValue(ByteBuffer content) {
+        byte type = content.get();
+        switch (type) {
+            case ExcelSnapshotCache.TYPE_DOUBLE:
+            case ExcelSnapshotCache.TYPE_DATE:
+                content.position(content.position() + 8);
+                break;
+            case ExcelSnapshotCache.TYPE_BOOLEAN:
+                content.position(content.position() + 1);
+                break;
+            default:
+                int length = content.getInt();
+                content.position(content.position() + length);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Opt-in on-disk cache of Excel documents content that allows to read values of rarely changing documents
+ * without repeated parsing of them.
+ */
+package eu.easyrpa.openframework.excel.cache;
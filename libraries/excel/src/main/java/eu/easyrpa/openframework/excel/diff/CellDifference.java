@@ -0,0 +1,60 @@
+package eu.easyrpa.openframework.excel.diff;
+
+/**
+ * Represents the difference of specific cell values within the row that exists in both compared sheets.
+ */
+public class CellDifference {
+
+    /**
+     * Index of the column of the cell.
+     */
+    private int columnIndex;
+
+    /**
+     * Value of the cell in the first sheet.
+     */
+    private Object valueA;
+
+    /**
+     * Value of the cell in the second sheet.
+     */
+    private Object valueB;
+
+    CellDifference(int columnIndex, Object valueA, Object valueB) {
+        this.columnIndex = columnIndex;
+        this.valueA = valueA;
+        this.valueB = valueB;
+    }
+
+    /**
+     * Gets index of the column of the cell.
+     *
+     * @return 0-based index of the column.
+     */
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    /**
+     * Gets value of the cell in the first sheet.
+     *
+     * @return value of the cell or <code>null</code> if the cell is empty.
+     */
+    public Object getValueA() {
+        return valueA;
+    }
+
+    /**
+     * Gets value of the cell in the second sheet.
+     *
+     * @return value of the cell or <code>null</code> if the cell is empty.
+     */
+    public Object getValueB() {
+        return valueB;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s -> %s", columnIndex, valueA, valueB);
+    }
+}
@@ -0,0 +1,374 @@
+package eu.easyrpa.openframework.excel.diff;
+
+import eu.easyrpa.openframework.core.utils.SpoolingOutputStream;
+import eu.easyrpa.openframework.excel.Row;
+import eu.easyrpa.openframework.excel.Sheet;
+import eu.easyrpa.openframework.excel.SheetView;
+import eu.easyrpa.openframework.excel.XlsStreamReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Compares content of two sheets and finds rows that have been added, removed or changed in the second sheet
+ * comparing to the first one.
+ * <p>
+ * Rows of sheets are matched by values of key columns using hash join. Only keys and hashes of rows of the
+ * first sheet are kept in memory while rows of the second sheet are streamed. Rows with the same key that
+ * occur several times are matched in the order of their occurrence. Rows with empty keys are ignored.
+ * <p>
+ * Differences are passed to the handler as soon as they are found. Added rows are found while the second sheet
+ * is read. Changed and removed rows are found during the second reading of the first sheet, which is performed
+ * only if there are such rows. Values of changed rows of the second sheet are spooled while it's read, so it's
+ * read only once. The spool keeps in memory up to {@value #SPOOL_THRESHOLD} bytes and moves the rest into
+ * temporary file that is deleted when comparison is finished.
+ */
+public class ExcelDiff {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final int SPOOL_THRESHOLD = 8 * 1024 * 1024;
+
+    private ExcelDiff() {
+    }
+
+    /**
+     * Compares content of given sheets.
+     *
+     * @param sheetA     the first (original) sheet.
+     * @param sheetB     the second (actual) sheet.
+     * @param keyColumns 0-based indexes of columns which values identify rows.
+     * @return list of found differences.
+     * @throws IllegalArgumentException if key columns are not specified.
+     */
+    public static List<RowDifference> compare(Sheet sheetA, Sheet sheetB, int... keyColumns) {
+        List<RowDifference> differences = new ArrayList<>();
+        compare(sheetA, sheetB, keyColumns, differences::add);
+        return differences;
+    }
+
+    /**
+     * Compares content of given sheets and passes found differences to given handler one by one.
+     *
+     * @param sheetA     the first (original) sheet.
+     * @param sheetB     the second (actual) sheet.
+     * @param keyColumns 0-based indexes of columns which values identify rows.
+     * @param handler    handler of found differences.
+     * @throws IllegalArgumentException if key columns are not specified.
+     */
+    public static void compare(Sheet sheetA, Sheet sheetB, int[] keyColumns, Consumer<RowDifference> handler) {
+        compare(rowsOf(sheetA), rowsOf(sheetB), keyColumns, handler);
+    }
+
+    /**
+     * Compares content of given sheet views.
+     *
+     * @param sheetA     view of the first (original) sheet.
+     * @param sheetB     view of the second (actual) sheet.
+     * @param keyColumns 0-based indexes of columns which values identify rows.
+     * @return list of found differences.
+     * @throws IllegalArgumentException if key columns are not specified.
+     * @see Sheet#snapshot()
+     */
+    public static List<RowDifference> compare(SheetView sheetA, SheetView sheetB, int... keyColumns) {
+        List<RowDifference> differences = new ArrayList<>();
+        compare(rowsOf(sheetA), rowsOf(sheetB), keyColumns, differences::add);
+        return differences;
+    }
+
+    /**
+     * Compares content of sheets of legacy Excel (.xls) documents and passes found differences to given handler
+     * one by one. Documents are read using streaming without loading of them into memory.
+     *
+     * @param readerA    reader of the first (original) document.
+     * @param sheetNameA name of the sheet in the first document.
+     * @param readerB    reader of the second (actual) document.
+     * @param sheetNameB name of the sheet in the second document.
+     * @param keyColumns 0-based indexes of columns which values identify rows.
+     * @param handler    handler of found differences.
+     * @throws IllegalArgumentException if key columns are not specified.
+     */
+    public static void compare(XlsStreamReader readerA, String sheetNameA, XlsStreamReader readerB, String sheetNameB,
+                               int[] keyColumns, Consumer<RowDifference> handler) {
+        compare(rowsOf(readerA, sheetNameA), rowsOf(readerB, sheetNameB), keyColumns, handler);
+    }
+
+    private static void compare(RowSource sourceA, RowSource sourceB, int[] keyColumns, Consumer<RowDifference> handler) {
+        if (keyColumns == null || keyColumns.length == 0) {
+            throw new IllegalArgumentException("Key columns must be specified.");
+        }
+        for (int keyColumn : keyColumns) {
+            if (keyColumn < 0) {
+                throw new IllegalArgumentException(String.format("Invalid key column index: %s", keyColumn));
+            }
+        }
+
+        Map<List<Object>, KeyRows> rowsA = new HashMap<>();
+        sourceA.readRows((rowIndex, values) -> {
+            List<Object> keyValues = getKeyValues(values, keyColumns);
+            if (keyValues != null) {
+                rowsA.computeIfAbsent(keyValues, k -> new KeyRows()).add(rowIndex, hash(values));
+            }
+        });
+
+        Map<Integer, ChangedRow> changedRows = new HashMap<>();
+        try (ChangedRowsSpool spool = new ChangedRowsSpool()) {
+            sourceB.readRows((rowIndex, values) -> {
+                List<Object> keyValues = getKeyValues(values, keyColumns);
+                if (keyValues == null) {
+                    return;
+                }
+                KeyRows keyRows = rowsA.get(keyValues);
+                if (keyRows == null || keyRows.matchedCount == keyRows.size) {
+                    handler.accept(new RowDifference(RowDifference.Type.ADDED, keyValues, -1, null, rowIndex, values, null));
+                } else {
+                    int matched = keyRows.matchedCount++;
+                    if (keyRows.hashes[matched] != hash(values)) {
+                        changedRows.put(keyRows.rowIndexes[matched], new ChangedRow(rowIndex, spool.write(values)));
+                    }
+                }
+            });
+
+            BitSet removedRows = new BitSet();
+            for (KeyRows keyRows : rowsA.values()) {
+                for (int i = keyRows.matchedCount; i < keyRows.size; i++) {
+                    removedRows.set(keyRows.rowIndexes[i]);
+                }
+            }
+            rowsA.clear();
+
+            if (changedRows.isEmpty() && removedRows.isEmpty()) {
+                return;
+            }
+
+            sourceA.readRows((rowIndex, values) -> {
+                ChangedRow changedRow = changedRows.get(rowIndex);
+                if (changedRow != null) {
+                    List<Object> valuesB = spool.read(changedRow.offset);
+                    List<CellDifference> changedCells = getChangedCells(values, valuesB);
+                    if (!changedCells.isEmpty()) {
+                        handler.accept(new RowDifference(RowDifference.Type.CHANGED, getKeyValues(values, keyColumns),
+                                rowIndex, values, changedRow.rowIndexB, valuesB, changedCells));
+                    }
+                } else if (removedRows.get(rowIndex)) {
+                    handler.accept(new RowDifference(RowDifference.Type.REMOVED, getKeyValues(values, keyColumns),
+                            rowIndex, values, -1, null, null));
+                }
+            });
+        }
+    }
+
+    /**
+     * @return values of key columns or <code>null</code> if all of them are empty.
+     */
+    private static List<Object> getKeyValues(List<Object> values, int[] keyColumns) {
+        List<Object> keyValues = new ArrayList<>(keyColumns.length);
+        boolean isEmpty = true;
+        for (int keyColumn : keyColumns) {
+            Object value = getValue(values, keyColumn);
+            keyValues.add(value);
+            isEmpty &= value == null;
+        }
+        return isEmpty ? null : keyValues;
+    }
+
+    private static List<CellDifference> getChangedCells(List<Object> valuesA, List<Object> valuesB) {
+        List<CellDifference> changedCells = new ArrayList<>();
+        int columnsCount = Math.max(valuesA.size(), valuesB.size());
+        for (int i = 0; i < columnsCount; i++) {
+            Object valueA = getValue(valuesA, i);
+            Object valueB = getValue(valuesB, i);
+            if (!Objects.equals(valueA, valueB)) {
+                changedCells.add(new CellDifference(i, valueA, valueB));
+            }
+        }
+        return changedCells;
+    }
+
+    /**
+     * Gets value of specific column. Empty strings are treated as empty cells.
+     */
+    private static Object getValue(List<Object> values, int index) {
+        Object value = index < values.size() ? values.get(index) : null;
+        return "".equals(value) ? null : value;
+    }
+
+    /**
+     * Calculates 64-bit FNV-1a hash of row values. Trailing empty cells do not affect the hash.
+     */
+    private static long hash(List<Object> values) {
+        int last = values.size() - 1;
+        while (last >= 0 && getValue(values, last) == null) {
+            last--;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i <= last; i++) {
+            Object value = getValue(values, i);
+            String str = value != null ? value.getClass().getSimpleName() + ":" + value : "";
+            for (int j = 0; j < str.length(); j++) {
+                hash = (hash ^ str.charAt(j)) * FNV_PRIME;
+            }
+            hash = (hash ^ 0xFFFF) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static RowSource rowsOf(Sheet sheet) {
+        return handler -> {
+            for (Row row : sheet) {
+                handler.accept(row.getIndex(), row.getRange(0, Math.max(row.getLastCellIndex(), 0)));
+            }
+        };
+    }
+
+    private static RowSource rowsOf(SheetView sheet) {
+        return handler -> {
+            for (int i = sheet.getFirstRowIndex(); i >= 0 && i <= sheet.getLastRowIndex(); i++) {
+                handler.accept(i, sheet.getRange(i, 0, i, Math.max(sheet.getLastColumnIndex(), 0)).get(0));
+            }
+        };
+    }
+
+    private static RowSource rowsOf(XlsStreamReader reader, String sheetName) {
+        return handler -> reader.readRows(sheetName, row -> {
+            handler.accept(row.getIndex(), row.getValues());
+            return true;
+        });
+    }
+
+    /**
+     * Source of rows which can be read several times.
+     */
+    private interface RowSource {
+        void readRows(BiConsumer<Integer, List<Object>> handler);
+    }
+
+    /**
+     * Changed row of the second sheet matched to a row of the first sheet.
+     */
+    private static class ChangedRow {
+
+        private final int rowIndexB;
+        private final long offset;
+
+        private ChangedRow(int rowIndexB, long offset) {
+            this.rowIndexB = rowIndexB;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Spool of values of changed rows of the second sheet. Values of each row are serialized into separate record
+     * prefixed with its length, so records can be read in any order by their offsets.
+     */
+    private static class ChangedRowsSpool implements AutoCloseable {
+
+        private final SpoolingOutputStream out = new SpoolingOutputStream(SPOOL_THRESHOLD);
+        private byte[] content;
+        private RandomAccessFile file;
+
+        private long write(List<Object> values) {
+            if (content != null || file != null) {
+                throw new IllegalStateException("Spool is already being read.");
+            }
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+                    objectOut.writeObject(new ArrayList<>(values));
+                }
+                long offset = out.getSize();
+                new DataOutputStream(out).writeInt(bytes.size());
+                bytes.writeTo(out);
+                return offset;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to spool values of changed row.", e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Object> read(long offset) {
+            try {
+                byte[] record;
+                if (content == null && file == null) {
+                    out.close();
+                    if (out.isInMemory()) {
+                        content = out.toByteArray();
+                    } else {
+                        file = new RandomAccessFile(out.getFile().toFile(), "r");
+                    }
+                }
+                if (content != null) {
+                    ByteBuffer buffer = ByteBuffer.wrap(content);
+                    buffer.position((int) offset);
+                    record = new byte[buffer.getInt()];
+                    buffer.get(record);
+                } else {
+                    file.seek(offset);
+                    record = new byte[file.readInt()];
+                    file.readFully(record);
+                }
+                try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(record))) {
+                    return (List<Object>) objectIn.readObject();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RuntimeException("Failed to read spooled values of changed row.", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                try {
+                    out.close();
+                    if (file != null) {
+                        file.close();
+                    }
+                } finally {
+                    if (out.getFile() != null) {
+                        Files.deleteIfExists(out.getFile());
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete spool of changed rows.", e);
+            }
+        }
+    }
+
+    /**
+     * Indexes and hashes of rows of the first sheet that have the same key, in the order of their occurrence.
+     */
+    private static class KeyRows {
+
+        private int[] rowIndexes = new int[1];
+        private long[] hashes = new long[1];
+        private int size;
+        private int matchedCount;
+
+        private void add(int rowIndex, long hash) {
+            if (size == rowIndexes.length) {
+                rowIndexes = Arrays.copyOf(rowIndexes, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            rowIndexes[size] = rowIndex;
+            hashes[size] = hash;
+            size++;
+        }
+    }
+}
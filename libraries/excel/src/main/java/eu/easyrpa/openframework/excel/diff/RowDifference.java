@@ -0,0 +1,121 @@
+package eu.easyrpa.openframework.excel.diff;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the row that has been added, removed or changed in the second sheet comparing to the first one.
+ */
+public class RowDifference {
+
+    /**
+     * Kind of the row difference.
+     */
+    public enum Type {
+        /**
+         * The row exists only in the second sheet.
+         */
+        ADDED,
+        /**
+         * The row exists only in the first sheet.
+         */
+        REMOVED,
+        /**
+         * The row exists in both sheets but values of some its cells are different.
+         */
+        CHANGED
+    }
+
+    private Type type;
+
+    private List<Object> key;
+
+    private int rowIndexA;
+
+    private int rowIndexB;
+
+    private List<Object> valuesA;
+
+    private List<Object> valuesB;
+
+    private List<CellDifference> changedCells;
+
+    RowDifference(Type type, List<Object> key, int rowIndexA, List<Object> valuesA, int rowIndexB,
+                  List<Object> valuesB, List<CellDifference> changedCells) {
+        this.type = type;
+        this.key = key;
+        this.rowIndexA = rowIndexA;
+        this.valuesA = valuesA;
+        this.rowIndexB = rowIndexB;
+        this.valuesB = valuesB;
+        this.changedCells = changedCells != null ? changedCells : Collections.emptyList();
+    }
+
+    /**
+     * Gets kind of this difference.
+     *
+     * @return kind of this difference.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets values of key columns of the row.
+     *
+     * @return list of key values in the order of specified key columns.
+     */
+    public List<Object> getKey() {
+        return key;
+    }
+
+    /**
+     * Gets index of the row in the first sheet.
+     *
+     * @return 0-based index of the row or <code>-1</code> if the row has been added.
+     */
+    public int getRowIndexA() {
+        return rowIndexA;
+    }
+
+    /**
+     * Gets index of the row in the second sheet.
+     *
+     * @return 0-based index of the row or <code>-1</code> if the row has been removed.
+     */
+    public int getRowIndexB() {
+        return rowIndexB;
+    }
+
+    /**
+     * Gets values of the row in the first sheet.
+     *
+     * @return list of row values or <code>null</code> if the row has been added.
+     */
+    public List<Object> getValuesA() {
+        return valuesA;
+    }
+
+    /**
+     * Gets values of the row in the second sheet.
+     *
+     * @return list of row values or <code>null</code> if the row has been removed.
+     */
+    public List<Object> getValuesB() {
+        return valuesB;
+    }
+
+    /**
+     * Gets cells of the row which values are different.
+     *
+     * @return list of changed cells. It's empty if the row has been added or removed.
+     */
+    public List<CellDifference> getChangedCells() {
+        return changedCells;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (A: %s, B: %s) %s", type, key, rowIndexA, rowIndexB, changedCells);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Comparison of Excel sheets content by key columns that allows to find added, removed and changed rows.
+ */
+package eu.easyrpa.openframework.excel.diff;
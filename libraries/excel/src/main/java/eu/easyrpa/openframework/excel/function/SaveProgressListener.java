@@ -0,0 +1,19 @@
+package eu.easyrpa.openframework.excel.function;
+
+/**
+ * Receives notifications about progress of asynchronous saving of Excel document.
+ *
+ * @see eu.easyrpa.openframework.excel.ExcelDocument#saveAsync(String, java.util.concurrent.Executor, SaveProgressListener)
+ */
+@FunctionalInterface
+public interface SaveProgressListener {
+
+    /**
+     * Called periodically while the document is being saved.
+     *
+     * @param rowsWritten  amount of sheet rows that have been written so far. Rows of sheet are counted when
+     *                     the sheet has been fully written.
+     * @param bytesWritten amount of bytes that have been written to the file so far.
+     */
+    void onProgress(long rowsWritten, long bytesWritten);
+}
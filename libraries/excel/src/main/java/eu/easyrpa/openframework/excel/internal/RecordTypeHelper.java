@@ -10,8 +10,11 @@ import eu.easyrpa.openframework.excel.function.FieldMapper;
 import eu.easyrpa.openframework.excel.function.TableFormatter;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.*;
 
+import static java.util.Locale.ENGLISH;
+
 /**
  * <p>FOR INTERNAL USE ONLY</p>
  * <br>
@@ -32,9 +35,10 @@ public class RecordTypeHelper<T> {
     private TableFormatter<T> tableFormatter = null;
 
     private List<String> fields = new ArrayList<>();
+    private List<FieldAccessor> fieldAccessors = new ArrayList<>();
     private Map<String, String> fieldToColumnMap = new HashMap<>();
     private Map<String, Integer> columnNameToOrderMap = new HashMap<>();
-    private Map<Integer, String> columnOrderToFieldMap = new HashMap<>();
+    private Map<Integer, Integer> columnOrderToFieldIndexMap = new HashMap<>();
 
     private ColumnNamesTree columnNamesTree = new ColumnNamesTree();
     private Map<Integer, Integer> columnWidthMap = new HashMap<>();
@@ -51,30 +55,71 @@ public class RecordTypeHelper<T> {
         return columnNamesTree;
     }
 
+    /**
+     * Compiles given header layout into the column plan that allows mapping, formatting and writing of records
+     * using array indexing instead of lookups by column names.
+     *
+     * @param columnNameToValueIndexMap map that maps full column names to indexes of corresponding values.
+     *                                  If it's <code>null</code> the order of columns defined by record type is used.
+     * @return column plan for given header layout.
+     */
+    public ColumnPlan<T> getColumnPlan(Map<String, Integer> columnNameToValueIndexMap) {
+        if (columnNameToValueIndexMap == null) {
+            columnNameToValueIndexMap = columnNameToOrderMap;
+        }
+        int valuesCount = columnNameToValueIndexMap.values().stream()
+                .max(Comparator.comparingInt(v -> v)).orElse(-1) + 1;
+
+        ColumnPlan<T> plan = new ColumnPlan<>(valuesCount, fields.size());
+        for (Map.Entry<String, Integer> entry : columnNameToValueIndexMap.entrySet()) {
+            String columnName = entry.getKey();
+            Integer valueIndex = entry.getValue();
+            Integer columnOrder = columnNameToOrderMap.get(columnName);
+            if (valueIndex == null || valueIndex < 0 || columnOrder == null
+                    || columnName == null || columnName.trim().isEmpty()) {
+                continue;
+            }
+            plan.columnNames[valueIndex] = columnName;
+            Integer fieldIndex = columnOrderToFieldIndexMap.get(columnOrder);
+            plan.valueAccessors[valueIndex] = fieldIndex != null ? fieldAccessors.get(fieldIndex) : null;
+            plan.cellStyles[valueIndex] = columnCellStyleMap.getOrDefault(columnOrder, tableCellStyle);
+            plan.formatters[valueIndex] = columnFormatterMap.get(columnOrder);
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            String fieldName = fields.get(i);
+            String columnName = fieldToColumnMap.get(fieldName);
+            Integer valueIndex = columnName != null ? columnNameToValueIndexMap.get(columnName) : null;
+            plan.fieldValueIndexes[i] = valueIndex != null ? valueIndex : -1;
+            plan.fieldMappers[i] = fieldMapperMap.get(fieldName);
+            plan.fieldAccessors[i] = fieldAccessors.get(i);
+        }
+        return plan;
+    }
+
     public T mapToRecord(List<Object> values, Map<String, Integer> columnNameToValueIndexMap) {
+        return mapToRecord(values, getColumnPlan(columnNameToValueIndexMap));
+    }
+
+    public T mapToRecord(List<Object> values, ColumnPlan<T> plan) {
         try {
             if (values == null) {
                 return null;
             }
-            if (columnNameToValueIndexMap == null) {
-                columnNameToValueIndexMap = columnNameToOrderMap;
-            }
             T record = recordType.getDeclaredConstructor().newInstance();
-            for (String fieldName : fields) {
-                String columnName = fieldToColumnMap.get(fieldName);
-                Integer valueIndex = columnName != null ? columnNameToValueIndexMap.get(columnName) : null;
+            for (int i = 0; i < plan.fieldValueIndexes.length; i++) {
+                int valueIndex = plan.fieldValueIndexes[i];
 
                 Object value = null;
-                FieldMapper mapper = fieldMapperMap.get(fieldName);
+                FieldMapper mapper = plan.fieldMappers[i];
                 if (mapper != null) {
-                    value = mapper.map(fieldName, values, valueIndex != null ? valueIndex : -1);
+                    value = mapper.map(fields.get(i), values, valueIndex);
 
-                } else if (valueIndex != null && valueIndex >= 0 && valueIndex < values.size()) {
+                } else if (valueIndex >= 0 && valueIndex < values.size()) {
                     value = values.get(valueIndex);
                 }
 
                 if (value != null) {
-                    TypeUtils.setFieldValue(record, fieldName, value);
+                    plan.fieldAccessors[i].setValue(record, value);
                 }
             }
             return record;
@@ -86,36 +131,21 @@ public class RecordTypeHelper<T> {
     }
 
     public List<Object> mapToValues(T record, Map<String, Integer> columnNameToValueIndexMap) {
-        try {
-            if (record == null) {
-                return null;
-            }
-            if (columnNameToValueIndexMap == null) {
-                columnNameToValueIndexMap = columnNameToOrderMap;
-            }
-            int valuesCount = columnNameToValueIndexMap.values().stream()
-                    .max(Comparator.comparingInt(v -> v)).orElse(-1) + 1;
-            List<Object> values = new ArrayList<>(Collections.nCopies(valuesCount, null));
-            for (String columnName : columnNameToValueIndexMap.keySet()) {
-                Integer valueIndex = columnNameToValueIndexMap.get(columnName);
-                if (valueIndex == null || valueIndex < 0) {
-                    continue;
-                }
-                Integer columnOrder = columnNameToOrderMap.get(columnName);
-                if (columnOrder == null) {
-                    continue;
-                }
-                String fieldName = columnOrderToFieldMap.get(columnOrder);
-                if (fieldName != null) {
-                    values.set(valueIndex, TypeUtils.getFieldValue(record, fieldName));
-                }
+        return mapToValues(record, getColumnPlan(columnNameToValueIndexMap));
+    }
+
+    public List<Object> mapToValues(T record, ColumnPlan<T> plan) {
+        if (record == null) {
+            return null;
+        }
+        Object[] values = new Object[plan.valuesCount];
+        for (int i = 0; i < values.length; i++) {
+            FieldAccessor accessor = plan.valueAccessors[i];
+            if (accessor != null) {
+                values[i] = accessor.getValue(record);
             }
-            return values;
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
+        return new ArrayList<>(Arrays.asList(values));
     }
 
     public void formatCell(Cell cell, String columnName, int recordIndex, List<T> records) {
@@ -147,6 +177,41 @@ public class RecordTypeHelper<T> {
         }
     }
 
+    /**
+     * Applies styles and formatters of the column to given cell.
+     *
+     * @param cell        the cell to format.
+     * @param plan        column plan of the table.
+     * @param valueIndex  index of the cell value within row values of the table.
+     * @param recordIndex index of the record that corresponds to the row of the cell.
+     * @param records     list of table records.
+     */
+    public void formatCell(Cell cell, ColumnPlan<T> plan, int valueIndex, int recordIndex, List<T> records) {
+        if (cell == null || valueIndex < 0 || valueIndex >= plan.valuesCount) {
+            return;
+        }
+        String columnName = plan.columnNames[valueIndex];
+        if (columnName == null) {
+            return;
+        }
+
+        eu.easyrpa.openframework.excel.style.ExcelCellStyle cellStyle = plan.cellStyles[valueIndex];
+        if (cellStyle != null) {
+            cell.setStyle(cellStyle);
+        }
+
+        if (tableFormatter != null) {
+            tableFormatter.format(cell, columnName, recordIndex, records);
+        }
+        ColumnFormatter<T> formatter = plan.formatters[valueIndex];
+        if (formatter != null) {
+            T record = records != null && recordIndex >= 0 && recordIndex < records.size()
+                    ? records.get(recordIndex)
+                    : null;
+            formatter.format(cell, columnName, record);
+        }
+    }
+
     public void formatHeaderCell(Cell cell, String columnName) {
 
         if (cell != null && columnName != null && !columnName.trim().isEmpty()) {
@@ -237,11 +302,12 @@ public class RecordTypeHelper<T> {
 
                     typeInfo.columnNamesTree.add(columnName);
                     typeInfo.fields.add(fieldName);
+                    typeInfo.fieldAccessors.add(new FieldAccessor(recordType, field));
 
                     if (columnName != null) {
                         typeInfo.fieldToColumnMap.put(fieldName, columnName);
                         typeInfo.columnNameToOrderMap.put(columnName, columnOrder);
-                        typeInfo.columnOrderToFieldMap.put(columnOrder, fieldName);
+                        typeInfo.columnOrderToFieldIndexMap.put(columnOrder, typeInfo.fields.size() - 1);
                     }
 
                     int width = columnAnnotation.width();
@@ -309,6 +375,101 @@ public class RecordTypeHelper<T> {
         return style;
     }
 
+    /**
+     * Header layout of specific table compiled for record type. All arrays except arrays of field slots are
+     * indexed by indexes of values within row values of the table.
+     *
+     * @param <T> class of related table record.
+     */
+    public static class ColumnPlan<T> {
+        private final int valuesCount;
+        private final String[] columnNames;
+        private final FieldAccessor[] valueAccessors;
+        private final eu.easyrpa.openframework.excel.style.ExcelCellStyle[] cellStyles;
+        private final ColumnFormatter<T>[] formatters;
+        private final int[] fieldValueIndexes;
+        private final FieldMapper[] fieldMappers;
+        private final FieldAccessor[] fieldAccessors;
+
+        @SuppressWarnings("unchecked")
+        private ColumnPlan(int valuesCount, int fieldsCount) {
+            this.valuesCount = valuesCount;
+            this.columnNames = new String[valuesCount];
+            this.valueAccessors = new FieldAccessor[valuesCount];
+            this.cellStyles = new eu.easyrpa.openframework.excel.style.ExcelCellStyle[valuesCount];
+            this.formatters = (ColumnFormatter<T>[]) new ColumnFormatter<?>[valuesCount];
+            this.fieldValueIndexes = new int[fieldsCount];
+            this.fieldMappers = new FieldMapper[fieldsCount];
+            this.fieldAccessors = new FieldAccessor[fieldsCount];
+        }
+
+        public int getValuesCount() {
+            return valuesCount;
+        }
+
+        public String getColumnName(int valueIndex) {
+            return valueIndex >= 0 && valueIndex < valuesCount ? columnNames[valueIndex] : null;
+        }
+    }
+
+    /**
+     * Accessor of record field that is resolved once for record type. It reads and writes the field in the same
+     * way as {@link TypeUtils#getFieldValue(Object, String)} and {@link TypeUtils#setFieldValue(Object, String, Object)}
+     * do, i.e. via getter and setter if they exist and directly otherwise, but without lookup of them for each value.
+     */
+    private static class FieldAccessor {
+        private final Field field;
+        private final Method getter;
+        private final Method setter;
+
+        private FieldAccessor(Class<?> recordType, Field field) {
+            this.field = field;
+            this.field.setAccessible(true);
+            String capitalizedName = field.getName().substring(0, 1).toUpperCase(ENGLISH) + field.getName().substring(1);
+            this.getter = findMethod(recordType, "get" + capitalizedName);
+            this.setter = findMethod(recordType, "set" + capitalizedName, field.getType());
+        }
+
+        private Object getValue(Object record) {
+            try {
+                if (getter != null) {
+                    try {
+                        return getter.invoke(record);
+                    } catch (Exception e) {
+                        //do nothing
+                    }
+                }
+                return field.get(record);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void setValue(Object record, Object value) {
+            try {
+                if (setter != null && field.getType() == value.getClass()) {
+                    try {
+                        setter.invoke(record, value);
+                        return;
+                    } catch (Exception e) {
+                        //do nothing
+                    }
+                }
+                field.set(record, TypeUtils.castIfPossible(field.getType(), value));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static Method findMethod(Class<?> type, String name, Class<?>... argTypes) {
+            try {
+                return type.getMethod(name, argTypes);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+
     public static class ColumnNamesTree extends ColumnNameNode {
 
         public ColumnNamesTree() {
@@ -13,15 +13,20 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Cache of POI elements of opened Excel documents.
+ * <p>
+ * Documents can be opened and closed concurrently in different threads, so the cache of documents is thread-safe.
+ * Elements of the same document are cached by not synchronized maps, since the document itself must not be used
+ * by several threads at the same time.
+ */
 public class POIElementsCache {
 
-    private static POIElementsCache INSTANCE;
+    private static final POIElementsCache INSTANCE = new POIElementsCache();
 
     public static POIElementsCache getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new POIElementsCache();
-        }
         return INSTANCE;
     }
 
@@ -29,6 +34,9 @@ public class POIElementsCache {
         POIElementsCache cache = getInstance();
         cache.workbooks.put(excelDocumentId, workbook);
         cache.dataFormatters.put(excelDocumentId, new DataFormatter());
+        if (workbook instanceof XSSFWorkbook) {
+            cache.sharedStringsIndexes.put(excelDocumentId, new SharedStringsIndex((XSSFWorkbook) workbook));
+        }
         cache.sheetsCache.put(excelDocumentId, new HashMap<>());
         if (POISaveMemoryExtension.isInitialized()) {
             FormulaEvaluator fe = workbook instanceof XSSFWorkbook
@@ -47,6 +55,7 @@ public class POIElementsCache {
         POIElementsCache cache = getInstance();
         cache.formulaEvaluators.remove(excelDocumentId);
         cache.dataFormatters.remove(excelDocumentId);
+        cache.sharedStringsIndexes.remove(excelDocumentId);
         cache.sheetsCache.remove(excelDocumentId);
         if (!POISaveMemoryExtension.isInitialized()) {
             cache.rowsCache.remove(excelDocumentId);
@@ -65,7 +74,15 @@ public class POIElementsCache {
     }
 
     public static void setDataFormatter(int excelDocumentId, DataFormatter dataFormatter) {
-        getInstance().dataFormatters.put(excelDocumentId, dataFormatter);
+        if (dataFormatter != null) {
+            getInstance().dataFormatters.put(excelDocumentId, dataFormatter);
+        } else {
+            getInstance().dataFormatters.remove(excelDocumentId);
+        }
+    }
+
+    public static SharedStringsIndex getSharedStringsIndex(int excelDocumentId) {
+        return getInstance().sharedStringsIndexes.get(excelDocumentId);
     }
 
     public static Sheet getPoiSheet(int excelDocumentId, int sheetIndex) {
@@ -74,6 +91,10 @@ public class POIElementsCache {
         Sheet poiSheet = sheetsCache.get(sheetIndex);
         if (poiSheet == null) {
             poiSheet = cache.workbooks.get(excelDocumentId).getSheetAt(sheetIndex);
+            if (poiSheet instanceof XSSFSheetExt && !((XSSFSheetExt) poiSheet).isMaterialized()) {
+                ((XSSFSheetExt) poiSheet).materialize();
+                cache.readMergedRegions(excelDocumentId, poiSheet);
+            }
             sheetsCache.put(sheetIndex, poiSheet);
         }
         return poiSheet;
@@ -82,7 +103,7 @@ public class POIElementsCache {
     public static Row getPoiRow(int excelDocumentId, String rowId, int sheetIndex, int rowIndex) {
         POIElementsCache cache = getInstance();
         if (POISaveMemoryExtension.isInitialized()) {
-            return cache.workbooks.get(excelDocumentId).getSheetAt(sheetIndex).getRow(rowIndex);
+            return getPoiSheet(excelDocumentId, sheetIndex).getRow(rowIndex);
         }
         Map<String, Row> rowsCache = cache.rowsCache.get(excelDocumentId);
         Row poiRow = rowsCache.get(rowId);
@@ -98,7 +119,7 @@ public class POIElementsCache {
     public static Cell getPoiCell(int excelDocumentId, String cellId, int sheetIndex, int rowIndex, int columnIndex) {
         POIElementsCache cache = getInstance();
         if (POISaveMemoryExtension.isInitialized()) {
-            return cache.workbooks.get(excelDocumentId).getSheetAt(sheetIndex).getRow(rowIndex).getCell(columnIndex);
+            return getPoiSheet(excelDocumentId, sheetIndex).getRow(rowIndex).getCell(columnIndex);
         }
         if (cellId == null) {
             cellId = getId(sheetIndex, rowIndex, columnIndex);
@@ -188,15 +209,16 @@ public class POIElementsCache {
         return evaluator;
     }
 
-    private Map<Integer, Workbook> workbooks = new HashMap<>();
-    private Map<Integer, FormulaEvaluator> formulaEvaluators = new HashMap<>();
-    private Map<Integer, DataFormatter> dataFormatters = new HashMap<>();
+    private final Map<Integer, Workbook> workbooks = new ConcurrentHashMap<>();
+    private final Map<Integer, FormulaEvaluator> formulaEvaluators = new ConcurrentHashMap<>();
+    private final Map<Integer, DataFormatter> dataFormatters = new ConcurrentHashMap<>();
+    private final Map<Integer, SharedStringsIndex> sharedStringsIndexes = new ConcurrentHashMap<>();
 
-    public Map<Integer, Map<Integer, Sheet>> sheetsCache = new HashMap<>();
-    private Map<Integer, Map<String, Row>> rowsCache = new HashMap<>();
-    private Map<Integer, Map<String, Cell>> cellsCache = new HashMap<>();
+    public final Map<Integer, Map<Integer, Sheet>> sheetsCache = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, Row>> rowsCache = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, Cell>> cellsCache = new ConcurrentHashMap<>();
 
-    private Map<Integer, Map<String, Integer>> mergedRegionsCache = new HashMap<>();
+    private final Map<Integer, Map<String, Integer>> mergedRegionsCache = new ConcurrentHashMap<>();
 
     private POIElementsCache() {
     }
@@ -214,14 +236,21 @@ public class POIElementsCache {
             docMergedRegionsCache.clear();
         }
         for (Sheet sheet : workbook) {
-            int sheetIndex = workbook.getSheetIndex(sheet.getSheetName());
-            List<CellRangeAddress> mergedRegions = sheet.getMergedRegions();
-            for (int regionIndex = 0; regionIndex < mergedRegions.size(); regionIndex++) {
-                CellRangeAddress mergedRegion = mergedRegions.get(regionIndex);
-                for (int i = mergedRegion.getFirstRow(); i <= mergedRegion.getLastRow(); i++) {
-                    for (int j = mergedRegion.getFirstColumn(); j <= mergedRegion.getLastColumn(); j++) {
-                        docMergedRegionsCache.put(getId(sheetIndex, i, j), regionIndex);
-                    }
+            if (!(sheet instanceof XSSFSheetExt) || ((XSSFSheetExt) sheet).isMaterialized()) {
+                readMergedRegions(excelDocumentId, sheet);
+            }
+        }
+    }
+
+    private void readMergedRegions(int excelDocumentId, Sheet sheet) {
+        Map<String, Integer> docMergedRegionsCache = mergedRegionsCache.get(excelDocumentId);
+        int sheetIndex = workbooks.get(excelDocumentId).getSheetIndex(sheet.getSheetName());
+        List<CellRangeAddress> mergedRegions = sheet.getMergedRegions();
+        for (int regionIndex = 0; regionIndex < mergedRegions.size(); regionIndex++) {
+            CellRangeAddress mergedRegion = mergedRegions.get(regionIndex);
+            for (int i = mergedRegion.getFirstRow(); i <= mergedRegion.getLastRow(); i++) {
+                for (int j = mergedRegion.getFirstColumn(); j <= mergedRegion.getLastColumn(); j++) {
+                    docMergedRegionsCache.put(getId(sheetIndex, i, j), regionIndex);
                 }
             }
         }
@@ -0,0 +1,267 @@
+package eu.easyrpa.openframework.excel.internal.poi;
+
+import eu.easyrpa.openframework.core.utils.SpoolingOutputStream;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Zip output stream that splits content of each entry into blocks and deflates them in parallel using
+ * given executor. Compressed blocks are concatenated into one valid deflate stream in the same way
+ * as it's done by <code>pigz</code>: each block is primed with the last 32K of previous block as dictionary
+ * and flushed with SYNC_FLUSH, only the last block is finished.
+ * <p>
+ * Amount of blocks that are compressed at the same time is limited by twice the parallelism of the executor.
+ * Compressed blocks are appended to the spool of the entry as soon as they are ready, so only a few uncompressed
+ * blocks are kept in memory. The spool keeps in memory up to {@value #SPOOL_THRESHOLD} bytes of compressed
+ * content and moves the rest into temporary file, since the size of compressed content must be known
+ * before the entry is written.
+ * <p>
+ * Apache POI uses given instance of {@link ZipArchiveOutputStream} as is when saving OOXML package.
+ */
+public class ParallelZipOutputStream extends ZipArchiveOutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int SPOOL_THRESHOLD = 8 * 1024 * 1024;
+
+    private final Executor executor;
+    private final int level;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+
+    private ZipArchiveEntry currentEntry;
+    private byte[] block;
+    private int blockLength;
+    private byte[] dictionary;
+    private CRC32 crc = new CRC32();
+    private long size;
+    private final Deque<CompletableFuture<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private int blocksCount;
+    private SpoolingOutputStream compressedContent;
+    private Consumer<ZipArchiveEntry> entryListener;
+
+    /**
+     * @param out      the stream to write zip content.
+     * @param level    compression level from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}
+     *                 or {@link Deflater#DEFAULT_COMPRESSION}.
+     * @param executor executor to perform compression of blocks.
+     */
+    public ParallelZipOutputStream(OutputStream out, int level, Executor executor) {
+        this(out, level, executor, DEFAULT_BLOCK_SIZE);
+    }
+
+    public ParallelZipOutputStream(OutputStream out, int level, Executor executor, int blockSize) {
+        super(out);
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException(String.format("Invalid compression level: %s", level));
+        }
+        if (blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException(String.format("Block size must be at least %s bytes.", DICTIONARY_SIZE));
+        }
+        this.level = level;
+        this.executor = executor != null ? executor : Runnable::run;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = 2 * getParallelism(executor);
+    }
+
+    /**
+     * Sets listener that is called each time when an entry has been fully written.
+     */
+    public void setEntryListener(Consumer<ZipArchiveEntry> entryListener) {
+        this.entryListener = entryListener;
+    }
+
+    @Override
+    public void putArchiveEntry(ArchiveEntry archiveEntry) throws IOException {
+        if (currentEntry != null) {
+            closeArchiveEntry();
+        }
+        currentEntry = (ZipArchiveEntry) archiveEntry;
+        block = new byte[blockSize];
+        blockLength = 0;
+        dictionary = null;
+        crc.reset();
+        size = 0;
+        blocksCount = 0;
+        pendingBlocks.clear();
+        discardCompressedContent();
+        compressedContent = new SpoolingOutputStream(SPOOL_THRESHOLD);
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int length) throws IOException {
+        if (currentEntry == null) {
+            throw new IllegalStateException("No current entry");
+        }
+        crc.update(b, offset, length);
+        size += length;
+        while (length > 0) {
+            int count = Math.min(length, blockSize - blockLength);
+            System.arraycopy(b, offset, block, blockLength, count);
+            blockLength += count;
+            offset += count;
+            length -= count;
+            if (blockLength == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    @Override
+    public void closeArchiveEntry() throws IOException {
+        if (currentEntry == null) {
+            // Entry that has been put directly by super class, e.g. raw entry which writing has failed
+            super.closeArchiveEntry();
+            return;
+        }
+        submitBlock(true);
+        while (!pendingBlocks.isEmpty()) {
+            writeCompressedBlock();
+        }
+        compressedContent.close();
+
+        ZipArchiveEntry entry = currentEntry;
+        currentEntry = null;
+        block = null;
+        dictionary = null;
+
+        entry.setMethod(DEFLATED);
+        entry.setSize(size);
+        entry.setCrc(crc.getValue());
+        entry.setCompressedSize(compressedContent.getSize());
+        try (InputStream in = compressedContent.isInMemory()
+                ? new ByteArrayInputStream(compressedContent.toByteArray())
+                : Files.newInputStream(compressedContent.getFile())) {
+            addRawArchiveEntry(entry, in);
+        } finally {
+            discardCompressedContent();
+        }
+        if (entryListener != null) {
+            entryListener.accept(entry);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (currentEntry != null) {
+            closeArchiveEntry();
+        }
+        super.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            pendingBlocks.clear();
+            discardCompressedContent();
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        byte[] input = block;
+        int inputLength = blockLength;
+        byte[] inputDictionary = dictionary;
+
+        if (!last) {
+            dictionary = new byte[DICTIONARY_SIZE];
+            System.arraycopy(input, inputLength - DICTIONARY_SIZE, dictionary, 0, DICTIONARY_SIZE);
+            block = new byte[blockSize];
+            blockLength = 0;
+        }
+
+        if (last && blocksCount == 0) {
+            // Small entries are compressed in place without handing over to the executor
+            pendingBlocks.add(CompletableFuture.completedFuture(deflate(input, inputLength, null, true)));
+        } else {
+            pendingBlocks.add(CompletableFuture.supplyAsync(() -> deflate(input, inputLength, inputDictionary, last), executor));
+        }
+        blocksCount++;
+
+        while (pendingBlocks.size() > maxPendingBlocks || !pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone()) {
+            writeCompressedBlock();
+        }
+    }
+
+    /**
+     * Waits for compression of the oldest pending block and appends it to compressed content of the entry.
+     */
+    private void writeCompressedBlock() throws IOException {
+        try {
+            compressedContent.write(pendingBlocks.pollFirst().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Compression of entry '%s' has been interrupted.", currentEntry.getName()), e);
+        } catch (ExecutionException e) {
+            throw new IOException(String.format("Compression of entry '%s' has failed.", currentEntry.getName()), e.getCause());
+        }
+    }
+
+    private void discardCompressedContent() throws IOException {
+        if (compressedContent != null) {
+            compressedContent.close();
+            if (compressedContent.getFile() != null) {
+                Files.deleteIfExists(compressedContent.getFile());
+            }
+            compressedContent = null;
+        }
+    }
+
+    private static int getParallelism(Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        if (executor instanceof ThreadPoolExecutor) {
+            return Math.min(((ThreadPoolExecutor) executor).getMaximumPoolSize(), Runtime.getRuntime().availableProcessors());
+        }
+        return executor != null ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    private byte[] deflate(byte[] input, int length, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input, 0, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(length / 4, 64));
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    out.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
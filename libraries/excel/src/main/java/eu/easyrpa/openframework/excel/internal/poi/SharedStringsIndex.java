@@ -0,0 +1,196 @@
+package eu.easyrpa.openframework.excel.internal.poi;
+
+import eu.easyrpa.openframework.core.utils.TypeUtils;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRst;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSst;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.SstDocument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Reverse index of shared strings table of XLSX workbook that maps plain strings to their indexes in the table.
+ * <p>
+ * It allows setting of string values of cells without lookups of them by POI which serializes each string into
+ * XML for this. Strings that have been added into the table by other ways, e.g. by POI cells, are indexed lazily
+ * before the next lookup. Rich text strings are not indexed since they cannot be reused for plain values.
+ */
+public class SharedStringsIndex {
+
+    private static final int MAX_TEXT_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private final XSSFWorkbook workbook;
+    private final Map<String, Integer> index = new HashMap<>();
+
+    /**
+     * Amount of strings of shared strings table that have been indexed.
+     */
+    private int indexedCount;
+
+    public SharedStringsIndex(XSSFWorkbook workbook) {
+        this.workbook = workbook;
+    }
+
+    /**
+     * Sets given string as value of the cell using shared strings table of the workbook directly.
+     *
+     * @return <code>false</code> if the value cannot be set this way and it should be set via POI cell.
+     */
+    public boolean setCellValue(Cell cell, String value) {
+        if (!(cell instanceof XSSFCell) || value.length() > MAX_TEXT_LENGTH || cell.getCellType() == CellType.FORMULA) {
+            return false;
+        }
+        CTCell ctCell = ((XSSFCell) cell).getCTCell();
+        if (ctCell.getT() == STCellType.INLINE_STR) {
+            return false;
+        }
+        ctCell.setT(STCellType.S);
+        ctCell.setV(Integer.toString(getIndex(value)));
+        return true;
+    }
+
+    public int getIndex(String value) {
+        SharedStringsTable sst = workbook.getSharedStringSource();
+        indexNewStrings(sst);
+        Integer sstIndex = index.get(value);
+        if (sstIndex == null) {
+            sstIndex = sst.addSharedStringItem(new XSSFRichTextString(value));
+            index.put(value, sstIndex);
+            indexedCount = Math.max(indexedCount, sstIndex + 1);
+        }
+        return sstIndex;
+    }
+
+    /**
+     * Indexes strings that have been added into shared strings table since the last lookup. The first occurrence
+     * of the string is preferred if the table contains duplicates.
+     */
+    private void indexNewStrings(SharedStringsTable sst) {
+        int stringsCount = sst.getUniqueCount();
+        if (stringsCount < indexedCount) {
+            // The table has been shrunk not by this index, so indexes are not valid anymore
+            index.clear();
+            indexedCount = 0;
+        }
+        for (int i = indexedCount; i < stringsCount; i++) {
+            CTRst item = ((XSSFRichTextString) sst.getItemAt(i)).getCTRst();
+            if (item.isSetT() && item.sizeOfRArray() == 0 && item.sizeOfRPhArray() == 0) {
+                index.putIfAbsent(item.getT(), i);
+            }
+        }
+        indexedCount = stringsCount;
+    }
+
+    /**
+     * Removes from shared strings table of the workbook all strings that are not referenced by any cell
+     * and updates references of cells accordingly.
+     */
+    public void compact() {
+        SharedStringsTable sst = workbook.getSharedStringSource();
+        int stringsCount = sst.getUniqueCount();
+        if (stringsCount == 0) {
+            return;
+        }
+        for (Sheet sheet : workbook) {
+            if (sheet instanceof XSSFSheetExt && !((XSSFSheetExt) sheet).isMaterialized()) {
+                // Content of not materialized sheet is saved as is and keeps references to current indexes
+                return;
+            }
+        }
+
+        boolean[] used = new boolean[stringsCount];
+        int[] refsCount = new int[1];
+        forEachSharedStringIndex(i -> {
+            if (i >= 0 && i < stringsCount) {
+                used[i] = true;
+            }
+            refsCount[0]++;
+        });
+
+        int[] indexMap = new int[stringsCount];
+        int newIndex = 0;
+        for (int i = 0; i < stringsCount; i++) {
+            indexMap[i] = used[i] ? newIndex++ : -1;
+        }
+
+        if (newIndex < stringsCount) {
+            indexNewStrings(sst);
+            List<CTRst> strings = TypeUtils.getFieldValue(sst, "strings", false);
+            Map<String, Integer> stmap = TypeUtils.getFieldValue(sst, "stmap", false);
+            List<CTRst> usedStrings = new ArrayList<>(newIndex);
+            for (int i = 0; i < stringsCount; i++) {
+                if (used[i]) {
+                    usedStrings.add(strings.get(i));
+                }
+            }
+            CTSst ctSst = TypeUtils.<SstDocument>getFieldValue(sst, "_sstDoc", false).getSst();
+            ctSst.setSiArray(usedStrings.toArray(new CTRst[0]));
+            strings.clear();
+            strings.addAll(Arrays.asList(ctSst.getSiArray()));
+            remapValues(stmap, indexMap);
+            remapValues(index, indexMap);
+            indexedCount = newIndex;
+
+            for (Sheet sheet : workbook) {
+                if (sheet instanceof XSSFSheetExt) {
+                    ((XSSFSheetExt) sheet).getRowsProvider().remapSharedStrings(indexMap);
+                } else {
+                    forEachSharedStringCell(sheet, ctCell -> ctCell.setV(Integer.toString(indexMap[Integer.parseInt(ctCell.getV())])));
+                }
+            }
+        }
+        TypeUtils.setFieldValue(sst, "uniqueCount", newIndex, false);
+        TypeUtils.setFieldValue(sst, "count", refsCount[0], false);
+    }
+
+    private void forEachSharedStringIndex(IntConsumer action) {
+        for (Sheet sheet : workbook) {
+            if (sheet instanceof XSSFSheetExt) {
+                ((XSSFSheetExt) sheet).getRowsProvider().forEachSharedString(action);
+            } else {
+                forEachSharedStringCell(sheet, ctCell -> action.accept(Integer.parseInt(ctCell.getV())));
+            }
+        }
+    }
+
+    private void forEachSharedStringCell(Sheet sheet, Consumer<CTCell> action) {
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                CTCell ctCell = ((XSSFCell) cell).getCTCell();
+                if (ctCell.getT() == STCellType.S && ctCell.isSetV()) {
+                    action.accept(ctCell);
+                }
+            }
+        }
+    }
+
+    private void remapValues(Map<String, Integer> map, int[] indexMap) {
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> entry = it.next();
+            int oldIndex = entry.getValue();
+            if (oldIndex < 0 || oldIndex >= indexMap.length || indexMap[oldIndex] < 0) {
+                it.remove();
+            } else {
+                entry.setValue(indexMap[oldIndex]);
+            }
+        }
+    }
+}
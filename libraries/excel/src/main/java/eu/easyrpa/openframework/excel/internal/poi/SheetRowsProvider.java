@@ -2,15 +2,20 @@ package eu.easyrpa.openframework.excel.internal.poi;
 
 import eu.easyrpa.openframework.core.utils.TypeUtils;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.util.CellAddress;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.model.SharedStringsTable;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.xmlbeans.XmlException;
 import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRow;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheetData;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 
 import javax.xml.namespace.QName;
 import java.io.ByteArrayOutputStream;
@@ -18,6 +23,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +35,10 @@ public class SheetRowsProvider implements SheetRowsWriter {
     private static final Pattern ROW_NUM_REGEXP = Pattern.compile("\\sr=\"(\\d+)\"\\s");
     private static final Pattern ROW_OUTLINE_LEVEL_REGEXP = Pattern.compile("\\soutlineLevel=\"(\\d+)\"\\s");
     private static final Pattern CELL_REF_REGEXP = Pattern.compile("\\sr=\"([a-zA-Z]+\\d+)\"\\s");
+    private static final Pattern STRING_CELL_REGEXP = Pattern.compile("<c [^>]*t=\"(s|inlineStr)\"[^>/]*>(.*?)</c>", Pattern.DOTALL);
+    private static final Pattern STRING_CELL_VALUE_REGEXP = Pattern.compile("<v>(\\d+)</v>");
+    private static final Pattern STRING_CELL_TEXT_REGEXP = Pattern.compile("<t(?:\\s[^>]*)?>(.*?)</t>", Pattern.DOTALL);
+    private static final Pattern SHARED_STRING_CELL_REGEXP = Pattern.compile("(<c [^>]*t=\"s\"[^>]*><v>)(\\d+)(</v>)");
     private static final String CELL_XML_START = "<c ";
     private static final String CELL_FORMULA_START = "<f>";
     private static final String[] ROW_NS_APPENDER = new String[]{
@@ -47,7 +58,8 @@ public class SheetRowsProvider implements SheetRowsWriter {
     }
 
     private final XSSFSheet sheet;
-    private final SortedMap<Integer, String> rowXMLs = new TreeMap<>();
+    private SortedMap<Integer, String> rowXMLs = new TreeMap<>();
+    private boolean rowXMLsShared;
     private final Map<Integer, XSSFRowExt> rowsCache = new HashMap<>(POISaveMemoryExtension.getRowsCacheMaxSize());
     private final LinkedList<Integer> rowsCacheQueue = new LinkedList<>();
 
@@ -96,7 +108,7 @@ public class SheetRowsProvider implements SheetRowsWriter {
         r.setRowNum(rowNum);
         //noinspection UnnecessaryBoxing
         final Integer num = Integer.valueOf(rowNum);
-        rowXMLs.put(num, serializeRow(r));
+        mutableRowXMLs().put(num, serializeRow(r));
         freeUpRowsCacheIfNeeded();
         rowsCache.put(num, r);
         rowsCacheQueue.add(num);
@@ -115,7 +127,7 @@ public class SheetRowsProvider implements SheetRowsWriter {
             XSSFRowExt row = rowsCache.remove(num);
             row.setStale();
         }
-        rowXMLs.remove(num);
+        mutableRowXMLs().remove(num);
         resetSheetDimension();
     }
 
@@ -181,8 +193,9 @@ public class SheetRowsProvider implements SheetRowsWriter {
             Integer num = rowsCacheQueue.pollFirst();
             XSSFRowExt row = rowsCache.remove(num);
             row.setStale();
-            String rowXml = serializeRow(row);
-            rowXMLs.put(num, rowXml);
+            if (row.isModified()) {
+                mutableRowXMLs().put(num, serializeRow(row));
+            }
         }
 
         for (String rowXml : rowXMLs.values()) {
@@ -211,8 +224,8 @@ public class SheetRowsProvider implements SheetRowsWriter {
                 reorderedRowsCacheQueue.add(actualRowNum);
             }
         }
-        rowXMLs.clear();
-        rowXMLs.putAll(reorderedRowXMLs);
+        rowXMLs = reorderedRowXMLs;
+        rowXMLsShared = false;
         rowsCache.clear();
         rowsCache.putAll(reorderedRowsCache);
         rowsCacheQueue.clear();
@@ -257,6 +270,118 @@ public class SheetRowsProvider implements SheetRowsWriter {
         }
     }
 
+    /**
+     * Looks up the first row within given range that satisfies given matcher. Only string values of cells are
+     * passed to the matcher. Row XMLs are scanned directly without deserialization of rows.
+     *
+     * @return 0-based index of found row or <code>-1</code> if nothing is found.
+     */
+    public int findRow(int firstRowNum, int lastRowNum, Predicate<List<String>> stringsMatcher) {
+        if (firstRowNum > lastRowNum) {
+            return -1;
+        }
+        SharedStringsTable sst = sheet.getWorkbook().getSharedStringSource();
+        for (Map.Entry<Integer, String> rowEntry : rowXMLs.subMap(firstRowNum, lastRowNum + 1).entrySet()) {
+            List<String> strings = new ArrayList<>();
+            XSSFRowExt row = rowsCache.get(rowEntry.getKey());
+            if (row == null) {
+                Matcher cellMatcher = STRING_CELL_REGEXP.matcher(rowEntry.getValue());
+                while (cellMatcher.find()) {
+                    if ("s".equals(cellMatcher.group(1))) {
+                        Matcher valueMatcher = STRING_CELL_VALUE_REGEXP.matcher(cellMatcher.group(2));
+                        if (valueMatcher.find()) {
+                            strings.add(sst.getItemAt(Integer.parseInt(valueMatcher.group(1))).getString());
+                        }
+                    } else {
+                        StringBuilder text = new StringBuilder();
+                        Matcher textMatcher = STRING_CELL_TEXT_REGEXP.matcher(cellMatcher.group(2));
+                        while (textMatcher.find()) {
+                            text.append(unescapeXml(textMatcher.group(1)));
+                        }
+                        strings.add(text.toString());
+                    }
+                }
+            } else {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.STRING) {
+                        strings.add(cell.getStringCellValue());
+                    }
+                }
+            }
+            if (stringsMatcher.test(strings)) {
+                return rowEntry.getKey();
+            }
+        }
+        return -1;
+    }
+
+    public void forEachSharedString(IntConsumer action) {
+        for (Integer rowNum : rowXMLs.keySet()) {
+            XSSFRowExt row = rowsCache.get(rowNum);
+            if (row == null) {
+                Matcher sharedStringMatcher = SHARED_STRING_CELL_REGEXP.matcher(rowXMLs.get(rowNum));
+                while (sharedStringMatcher.find()) {
+                    action.accept(Integer.parseInt(sharedStringMatcher.group(2)));
+                }
+            } else {
+                for (CTCell ctCell : row.getCTRow().getCArray()) {
+                    if (ctCell.getT() == STCellType.S && ctCell.isSetV()) {
+                        action.accept(Integer.parseInt(ctCell.getV()));
+                    }
+                }
+            }
+        }
+    }
+
+    public void remapSharedStrings(int[] indexMap) {
+        for (Integer rowNum : rowXMLs.keySet()) {
+            XSSFRowExt row = rowsCache.get(rowNum);
+            if (row == null) {
+                String rowXml = rowXMLs.get(rowNum);
+                Matcher sharedStringMatcher = SHARED_STRING_CELL_REGEXP.matcher(rowXml);
+                StringBuffer remappedXml = null;
+                while (sharedStringMatcher.find()) {
+                    if (remappedXml == null) {
+                        remappedXml = new StringBuffer(rowXml.length());
+                    }
+                    int newIndex = indexMap[Integer.parseInt(sharedStringMatcher.group(2))];
+                    sharedStringMatcher.appendReplacement(remappedXml, "$1" + newIndex + "$3");
+                }
+                if (remappedXml != null) {
+                    sharedStringMatcher.appendTail(remappedXml);
+                    mutableRowXMLs().put(rowNum, remappedXml.toString());
+                }
+            } else {
+                for (CTCell ctCell : row.getCTRow().getCArray()) {
+                    if (ctCell.getT() == STCellType.S && ctCell.isSetV()) {
+                        ctCell.setV(Integer.toString(indexMap[Integer.parseInt(ctCell.getV())]));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets XMLs of all rows in their actual state. Returned map is immutable. It's shared with this provider
+     * until the first modification of rows, which makes a copy of the map for this provider.
+     */
+    public SortedMap<Integer, String> snapshotRowXMLs() {
+        for (Map.Entry<Integer, XSSFRowExt> cachedRow : rowsCache.entrySet()) {
+            XSSFRowExt row = cachedRow.getValue();
+            if (row.isModified()) {
+                mutableRowXMLs().put(cachedRow.getKey(), serializeRow(row));
+                row.markUnmodified();
+            }
+        }
+        rowXMLsShared = true;
+        return Collections.unmodifiableSortedMap(rowXMLs);
+    }
+
+    public static CTRow parseRow(String rowXml) throws XmlException {
+        rowXml = rowXml.replace(ROW_NS_APPENDER[0], ROW_NS_APPENDER[1]);
+        return CTSheetData.Factory.parse(rowXml, DEFAULT_XML_OPTIONS).getRowArray(0);
+    }
+
     protected void resetSheetDimension() {
         sheetDimension = null;
     }
@@ -266,8 +391,9 @@ public class SheetRowsProvider implements SheetRowsWriter {
             Integer num = rowsCacheQueue.pollFirst();
             XSSFRowExt row = rowsCache.remove(num);
             row.setStale();
-            String rowXml = serializeRow(row);
-            rowXMLs.put(num, rowXml);
+            if (row.isModified()) {
+                mutableRowXMLs().put(num, serializeRow(row));
+            }
         }
     }
 
@@ -285,11 +411,27 @@ public class SheetRowsProvider implements SheetRowsWriter {
         }
     }
 
+    private String unescapeXml(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private SortedMap<Integer, String> mutableRowXMLs() {
+        if (rowXMLsShared) {
+            rowXMLs = new TreeMap<>(rowXMLs);
+            rowXMLsShared = false;
+        }
+        return rowXMLs;
+    }
+
     private XSSFRowExt deserializeRow(String rowXml) {
         try {
-            rowXml = rowXml.replace(ROW_NS_APPENDER[0], ROW_NS_APPENDER[1]);
-            CTRow ctRow = CTSheetData.Factory.parse(rowXml, DEFAULT_XML_OPTIONS).getRowArray(0);
-            return new XSSFRowExt(ctRow, sheet);
+            XSSFRowExt row = new XSSFRowExt(parseRow(rowXml), sheet);
+            row.markUnmodified();
+            return row;
         } catch (Exception e) {
             throw new RuntimeException(String.format("Row deserialization has failed. Row XML: %s", rowXml), e);
         }
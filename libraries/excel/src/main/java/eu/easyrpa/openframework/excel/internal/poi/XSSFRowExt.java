@@ -5,6 +5,8 @@ import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.xmlbeans.impl.store.Locale;
+import org.apache.xmlbeans.impl.values.XmlObjectBase;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTRow;
 
 import java.util.Iterator;
@@ -13,6 +15,8 @@ public class XSSFRowExt extends XSSFRow {
 
     private boolean isStale;
 
+    private long originalVersion = -1;
+
     protected XSSFRowExt(CTRow row, XSSFSheet sheet) {
         super(row, sheet);
     }
@@ -120,6 +124,22 @@ public class XSSFRowExt extends XSSFRow {
         isStale = true;
     }
 
+    /**
+     * Remembers current state of underlying XML of this row as original. Any further change of the XML
+     * makes this row modified.
+     */
+    protected void markUnmodified() {
+        originalVersion = getXmlVersion();
+    }
+
+    protected boolean isModified() {
+        return originalVersion < 0 || getXmlVersion() != originalVersion;
+    }
+
+    private long getXmlVersion() {
+        return ((Locale) ((XmlObjectBase) getCTRow()).get_store().get_locale()).version();
+    }
+
     private void checkStale() {
         if (isStale) {
             throw new StaleRecordException(getRowNum());
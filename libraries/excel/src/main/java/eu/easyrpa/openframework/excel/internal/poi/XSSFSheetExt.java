@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.util.*;
+import java.util.function.Predicate;
 
 import static org.apache.poi.ooxml.POIXMLTypeLoader.DEFAULT_XML_OPTIONS;
 
@@ -32,6 +33,12 @@ public class XSSFSheetExt extends XSSFSheet {
 
     private SheetRowsProvider rowsProvider;
 
+    private boolean materialized = true;
+
+    private String originalWorksheetXML;
+
+    private int originalHyperlinksCount;
+
     protected XSSFSheetExt() {
         super();
     }
@@ -41,16 +48,90 @@ public class XSSFSheetExt extends XSSFSheet {
     }
 
     protected SheetRowsProvider getRowsProvider() {
+        materialize();
         return rowsProvider;
     }
 
+    /**
+     * Gets XMLs of all rows of this sheet in their actual state without copying of them.
+     *
+     * @see SheetRowsProvider#snapshotRowXMLs()
+     */
+    public SortedMap<Integer, String> snapshotRowXMLs() {
+        return getRowsProvider().snapshotRowXMLs();
+    }
+
+    /**
+     * Checks whether rows of this sheet have been read.
+     */
+    public boolean isMaterialized() {
+        return materialized;
+    }
+
+    /**
+     * Reads rows of this sheet if it has been deferred on document reading.
+     */
+    public void materialize() {
+        if (!materialized) {
+            materialized = true;
+            List<String> rowXMLs = new ArrayList<>();
+            try (InputStream is = getPackagePart().getInputStream()) {
+                extractRowsFromInput(is, new StringBuilder(), rowXMLs);
+            } catch (IOException e) {
+                throw new POIXMLException(e);
+            }
+            rowsProvider = new SheetRowsProvider(this, rowXMLs);
+        }
+    }
+
+    /**
+     * Reads all parts of the sheet except rows. Reading of rows is deferred until the moment when they are
+     * actually necessary. The rest of the sheet is read here since POI methods access it directly.
+     */
+    @Override
+    protected void onDocumentRead() {
+        materialized = false;
+        try (InputStream is = getPackagePart().getInputStream()) {
+            readWorksheet(is, null);
+        } catch (IOException e) {
+            throw new POIXMLException(e);
+        }
+        originalWorksheetXML = worksheet.xmlText(DEFAULT_XML_OPTIONS);
+        List<XSSFHyperlink> hyperlinks = TypeUtils.getFieldValue(this, "hyperlinks");
+        originalHyperlinksCount = hyperlinks.size();
+    }
+
+    /**
+     * Keeps the original content of the sheet part as is if rows of the sheet have not been read and the rest
+     * of the sheet has not been changed.
+     */
+    @Override
+    protected void commit() throws IOException {
+        if (materialized || isWorksheetModified()) {
+            materialize();
+            super.commit();
+        }
+    }
+
     protected void read(InputStream is) throws IOException {
-        StringBuilder worksheetXML = new StringBuilder(8192);
         List<String> rowXMLs = new ArrayList<>();
+        readWorksheet(is, rowXMLs);
+        rowsProvider = new SheetRowsProvider(this, rowXMLs);
+    }
 
-        extractRowsFromInput(is, worksheetXML, rowXMLs);
+    private boolean isWorksheetModified() {
+        List<XSSFHyperlink> hyperlinks = TypeUtils.getFieldValue(this, "hyperlinks");
+        return hyperlinks.size() != originalHyperlinksCount
+                || !worksheet.xmlText(DEFAULT_XML_OPTIONS).equals(originalWorksheetXML);
+    }
 
-        rowsProvider = new SheetRowsProvider(this, rowXMLs);
+    /**
+     * Reads the sheet part. XMLs of rows are collected into given list or skipped if it's <code>null</code>.
+     */
+    private void readWorksheet(InputStream is, List<String> rowXMLs) throws IOException {
+        StringBuilder worksheetXML = new StringBuilder(8192);
+
+        extractRowsFromInput(is, worksheetXML, rowXMLs);
 
         try {
             worksheet = WorksheetDocument.Factory.parse(worksheetXML.toString(), DEFAULT_XML_OPTIONS).getWorksheet();
@@ -75,7 +156,7 @@ public class XSSFSheetExt extends XSSFSheet {
             if (p instanceof XSSFTable) {
                 tables.put(rp.getRelationship().getId(), (XSSFTable) p);
             }
-            if (p instanceof XSSFPivotTable) {
+            if (p instanceof XSSFPivotTable && !getWorkbook().getPivotTables().contains(p)) {
                 getWorkbook().getPivotTables().add((XSSFPivotTable) p);
             }
         }
@@ -98,27 +179,27 @@ public class XSSFSheetExt extends XSSFSheet {
 
     @Override
     public XSSFRow createRow(int rowNum) {
-        return rowsProvider.createRow(rowNum);
+        return getRowsProvider().createRow(rowNum);
     }
 
     @Override
     public int getFirstRowNum() {
-        return rowsProvider.getFirstRowIndex();
+        return getRowsProvider().getFirstRowIndex();
     }
 
     @Override
     public int getLastRowNum() {
-        return rowsProvider.getLastRowIndex();
+        return getRowsProvider().getLastRowIndex();
     }
 
     @Override
     public int getPhysicalNumberOfRows() {
-        return rowsProvider.getRowsCount();
+        return getRowsProvider().getRowsCount();
     }
 
     @Override
     public XSSFRow getRow(int rowNum) {
-        return rowsProvider.getRow(rowNum);
+        return getRowsProvider().getRow(rowNum);
     }
 
     @Override
@@ -127,7 +208,7 @@ public class XSSFSheetExt extends XSSFSheet {
             throw new IllegalArgumentException("Specified row does not belong to this sheet");
         }
         int rowNum = row.getRowNum();
-        rowsProvider.removeRow(rowNum);
+        getRowsProvider().removeRow(rowNum);
         // also remove any comment located in that row
         final CommentsTable sheetComments = TypeUtils.getFieldValue(this, "sheetComments");
         if (sheetComments != null) {
@@ -142,11 +223,12 @@ public class XSSFSheetExt extends XSSFSheet {
 
     @Override
     public Iterator<Row> rowIterator() {
-        return rowsProvider.rowIterator();
+        return getRowsProvider().rowIterator();
     }
 
     @Override
     public void groupRow(int fromRow, int toRow) {
+        materialize();
         for (int i = fromRow; i <= toRow; i++) {
             XSSFRow xrow = getRow(i);
             if (xrow == null) {
@@ -161,6 +243,7 @@ public class XSSFSheetExt extends XSSFSheet {
 
     @Override
     public void ungroupRow(int fromRow, int toRow) {
+        materialize();
         for (int i = fromRow; i <= toRow; i++) {
             XSSFRow xrow = getRow(i);
             if (xrow != null) {
@@ -178,6 +261,7 @@ public class XSSFSheetExt extends XSSFSheet {
 
     @Override
     public void shiftRows(int startRow, int endRow, final int n, boolean copyRowHeight, boolean resetOriginalRowHeight) {
+        materialize();
         XSSFVMLDrawing vml = getVMLDrawing(false);
 
         int sheetIndex = getWorkbook().getSheetIndex(this);
@@ -198,6 +282,7 @@ public class XSSFSheetExt extends XSSFSheet {
 
     @Override
     public void shiftColumns(int startColumn, int endColumn, final int n) {
+        materialize();
         XSSFVMLDrawing vml = getVMLDrawing(false);
 
         _shiftCommentsForColumns(vml, startColumn, endColumn, n);
@@ -218,10 +303,15 @@ public class XSSFSheetExt extends XSSFSheet {
     }
 
     public CellRangeAddress getSheetDimension() {
-        return rowsProvider.getSheetDimension();
+        return getRowsProvider().getSheetDimension();
+    }
+
+    public int findRow(int firstRowNum, int lastRowNum, Predicate<List<String>> stringsMatcher) {
+        return getRowsProvider().findRow(firstRowNum, lastRowNum, stringsMatcher);
     }
 
     protected void write(OutputStream out) throws IOException {
+        materialize();
         boolean setToNull = false;
         if (worksheet.sizeOfColsArray() == 1) {
             CTCols col = worksheet.getColsArray(0);
@@ -268,7 +358,7 @@ public class XSSFSheetExt extends XSSFSheet {
         }
 
         // finally, if we had at least one cell we can populate the optional dimension-field
-        CellRangeAddress sheetDimension = rowsProvider.getSheetDimension();
+        CellRangeAddress sheetDimension = getRowsProvider().getSheetDimension();
         if (sheetDimension != null) {
             String ref = sheetDimension.formatAsString();
             if (worksheet.isSetDimension()) {
@@ -281,7 +371,7 @@ public class XSSFSheetExt extends XSSFSheet {
         XmlOptions xmlOptions = new XmlOptions(DEFAULT_XML_OPTIONS);
         xmlOptions.setSaveSyntheticDocumentElement(new QName(CTWorksheet.type.getName().getNamespaceURI(), "worksheet"));
 
-        worksheet.save(new WorksheetOutputStream(out, rowsProvider), xmlOptions);
+        worksheet.save(new WorksheetOutputStream(out, getRowsProvider()), xmlOptions);
 
         // Bug 52233: Ensure that we have a col-array even if write() removed it
         if (setToNull) {
@@ -290,7 +380,7 @@ public class XSSFSheetExt extends XSSFSheet {
     }
 
     private void _setSheetFormatPrOutlineLevelRow() {
-        short maxLevelRow = rowsProvider.getMaxOutlineLevelRows();
+        short maxLevelRow = getRowsProvider().getMaxOutlineLevelRows();
         CTSheetFormatPr ctSheetFormatPr = TypeUtils.callMethod(this, "getSheetTypeSheetFormatPr");
         ctSheetFormatPr.setOutlineLevelRow(maxLevelRow);
     }
@@ -319,7 +409,7 @@ public class XSSFSheetExt extends XSSFSheet {
         });
 
         final CommentsTable sheetComments = TypeUtils.getFieldValue(this, "sheetComments");
-        for (Integer rowNum : rowsProvider.getRowNumbers()) {
+        for (Integer rowNum : getRowsProvider().getRowNumbers()) {
             if (sheetComments != null) {
                 // calculate the new rowNum
                 int newRowNum = TypeUtils.callMethod(this, "shiftedRowNum", startRow, endRow, n, rowNum);
@@ -347,7 +437,7 @@ public class XSSFSheetExt extends XSSFSheet {
             if (rowNum < startRow || rowNum > endRow) {
                 continue;
             }
-            rowsProvider.getRow(rowNum).shift(n);
+            getRowsProvider().getRow(rowNum).shift(n);
         }
 
         // adjust all the affected comment-structures now
@@ -357,7 +447,7 @@ public class XSSFSheetExt extends XSSFSheet {
             entry.getKey().setRow(entry.getValue());
         }
 
-        rowsProvider.actualiseRowsOrder();
+        getRowsProvider().actualiseRowsOrder();
     }
 
     private void _shiftCommentsForColumns(XSSFVMLDrawing vml, int startColumnIndex, int endColumnIndex, final int n) {
@@ -406,18 +496,18 @@ public class XSSFSheetExt extends XSSFSheet {
             entry.getKey().setColumn(entry.getValue());
         }
 
-        rowsProvider.resetSheetDimension();
+        getRowsProvider().resetSheetDimension();
     }
 
     // remove all rows which will be overwritten
     private void _removeOverwritten(XSSFVMLDrawing vml, int startRow, int endRow, final int n) {
 
         List<Integer> removedRows = new ArrayList<>();
-        for (Integer rowNum : rowsProvider.getRowNumbers()) {
+        for (Integer rowNum : getRowsProvider().getRowNumbers()) {
             // check if we should remove this row as it will be overwritten by the data later
             boolean shouldRemoveRow = _shouldRemoveRow(startRow, endRow, n, rowNum);
             if (shouldRemoveRow) {
-                rowsProvider.removeRow(rowNum);
+                getRowsProvider().removeRow(rowNum);
                 removedRows.add(rowNum);
             }
         }
@@ -496,7 +586,9 @@ public class XSSFSheetExt extends XSSFSheet {
                         if (rowEnd > 0) {
                             rowXML.append(chunk, rowStart, rowEnd + "</row>".length());
                             chunk.delete(0, rowEnd + "</row>".length());
-                            rowXMLs.add(rowXML.toString());
+                            if (rowXMLs != null) {
+                                rowXMLs.add(rowXML.toString());
+                            }
                             rowXML.setLength(0);
                         } else {
                             break;
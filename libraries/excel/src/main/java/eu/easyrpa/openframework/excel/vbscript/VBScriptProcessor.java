@@ -8,6 +8,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -51,8 +53,11 @@ public class VBScriptProcessor {
             try {
 
                 tmpDocFile = File.createTempFile(FilenameUtils.getBaseName(document.getFileName()), document.getExtension());
-                FileUtils.copyInputStreamToFile(document.getInputStream(), tmpDocFile);
-            } catch (IOException e) {
+                try (FileChannel channel = FileChannel.open(tmpDocFile.toPath(), StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    document.saveTo(channel);
+                }
+            } catch (IOException | RuntimeException e) {
                 throw new RuntimeException(String.format("Uploading of Excel Document '%s' to temp file has failed.", document.getFileName()), e);
             }
             // Execute scripts